@@ -0,0 +1,76 @@
+package com.mercadolibre.proxy.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registro de métricas por request: {@code legacy*} reproduce el builder + register por llamada
+ * (lo que hacía ProxyMetrics antes de cachear) y {@code cached*} usa la fachada actual.
+ * Con el profiler gc configurado en build.gradle se ve también gc.alloc.rate.norm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProxyMetricsBenchmark {
+
+    private static final Duration ELAPSED = Duration.ofMillis(12);
+
+    private MeterRegistry registry;
+    private ProxyMetrics metrics;
+
+    @Setup
+    public void setup() {
+        registry = new SimpleMeterRegistry();
+        metrics = new ProxyMetrics(registry);
+    }
+
+    @Benchmark
+    public void cachedRequest() {
+        metrics.recordRequest("GET");
+        metrics.recordResponse(200, ELAPSED);
+    }
+
+    @Benchmark
+    public void cachedSample() {
+        Timer.Sample sample = metrics.startRequest();
+        metrics.recordDurationWithSample(sample, 200);
+    }
+
+    @Benchmark
+    public void cachedRejection() {
+        metrics.incrementRateLimitRejection();
+    }
+
+    @Benchmark
+    public void legacyRequest() {
+        Counter.builder("proxy_requests_total")
+                .description("Total proxy requests received")
+                .tags("method", "GET")
+                .register(registry)
+                .increment();
+        Counter.builder("proxy_responses_total")
+                .description("Total proxy responses sent")
+                .tags("status", String.valueOf(200), "status_class", 200 / 100 + "xx")
+                .register(registry)
+                .increment();
+        Timer.builder("proxy_request_duration_seconds")
+                .description("Proxy request duration in seconds")
+                .tags("status", String.valueOf(200), "status_class", 200 / 100 + "xx")
+                .register(registry)
+                .record(ELAPSED);
+    }
+
+    @Benchmark
+    public void legacyRejection() {
+        Counter.builder("proxy_rate_limit_rejections_total")
+                .description("Total number of requests rejected by rate limiting")
+                .register(registry)
+                .increment();
+    }
+}
@@ -0,0 +1,48 @@
+package com.mercadolibre.proxy.ratelimit.core;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de evaluar condiciones de path: patrón Ant vs prefijo, con request que matchea y que no.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConditionBenchmark {
+
+    private final Condition antPattern = Condition.pathMatches("/items/**");
+    private final Condition prefix = Condition.pathStartsWith("/items");
+
+    private MockServerWebExchange items;
+    private MockServerWebExchange categories;
+
+    @Setup
+    public void setup() {
+        items = MockServerWebExchange.from(MockServerHttpRequest.get("/items/MLA123456/description").build());
+        categories = MockServerWebExchange.from(MockServerHttpRequest.get("/categories/MLA1055").build());
+    }
+
+    @Benchmark
+    public boolean pathMatchesHit() {
+        return antPattern.test(items);
+    }
+
+    @Benchmark
+    public boolean pathMatchesMiss() {
+        return antPattern.test(categories);
+    }
+
+    @Benchmark
+    public boolean pathStartsWithHit() {
+        return prefix.test(items);
+    }
+
+    @Benchmark
+    public boolean pathStartsWithMiss() {
+        return prefix.test(categories);
+    }
+}
@@ -0,0 +1,49 @@
+package com.mercadolibre.proxy.ratelimit.core;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Claves de rate limit: IP desde X-Forwarded-For (con varios hops), IP desde la conexión y la
+ * composición IP + path + método que usan las reglas extra.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class KeyGeneratorBenchmark {
+
+    private final KeyGenerator ip = KeyGenerator.ip();
+    private final KeyGenerator composed = KeyGenerator.compose(KeyGenerator.ip(), KeyGenerator.path(), KeyGenerator.method());
+
+    private MockServerWebExchange withXff;
+    private MockServerWebExchange withoutXff;
+
+    @Setup
+    public void setup() {
+        withXff = MockServerWebExchange.from(MockServerHttpRequest.get("/items/MLA123456")
+                .header("X-Forwarded-For", "181.45.12.9, 10.0.0.1, 10.0.0.2")
+                .build());
+        withoutXff = MockServerWebExchange.from(MockServerHttpRequest.get("/items/MLA123456")
+                .remoteAddress(new InetSocketAddress("181.45.12.9", 40000))
+                .build());
+    }
+
+    @Benchmark
+    public String ipFromXff() {
+        return ip.key(withXff);
+    }
+
+    @Benchmark
+    public String ipFromRemoteAddress() {
+        return ip.key(withoutXff);
+    }
+
+    @Benchmark
+    public String composeIpPathMethod() {
+        return composed.key(withXff);
+    }
+}
@@ -0,0 +1,58 @@
+package com.mercadolibre.proxy.ratelimit.core;
+
+import com.mercadolibre.proxy.ratelimit.memory.BoundedBucketStore;
+import com.mercadolibre.proxy.ratelimit.memory.MemoryRateLimiterBackend;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reglas por defecto (ip, items_ip) armadas con RuleBuilder contra el backend en memoria:
+ * condición + clave + consumo, con un límite alto para que el resultado sea siempre allow.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RuleEvaluationBenchmark {
+
+    @Param({"FIXED_WINDOW", "SLIDING_WINDOW", "GCRA"})
+    Algorithm algorithm;
+
+    private RateLimitRule ipRule;
+    private RateLimitRule itemsIpRule;
+    private MockServerWebExchange exchange;
+
+    @Setup
+    public void setup() {
+        var backend = new MemoryRateLimiterBackend(new BoundedBucketStore<>(10_000, 16));
+        ipRule = RuleBuilder.named("ip")
+                .key(KeyGenerator.ip())
+                .limit(Limit.perMinute(Integer.MAX_VALUE / 2))
+                .algorithm(algorithm)
+                .backend(backend)
+                .build();
+        itemsIpRule = RuleBuilder.named("items_ip")
+                .when(Condition.pathStartsWith("/items"))
+                .key(KeyGenerator.compose(KeyGenerator.ip(), KeyGenerator.constant("/items")))
+                .limit(Limit.perMinute(Integer.MAX_VALUE / 2))
+                .algorithm(algorithm)
+                .backend(backend)
+                .build();
+        exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/items/MLA123456")
+                .header("X-Forwarded-For", "181.45.12.9")
+                .build());
+    }
+
+    @Benchmark
+    public Decision ipRule() {
+        return ipRule.evaluate(exchange).block();
+    }
+
+    @Benchmark
+    public Decision ipAndItemsRules() {
+        ipRule.evaluate(exchange).block();
+        return itemsIpRule.evaluate(exchange).block();
+    }
+}
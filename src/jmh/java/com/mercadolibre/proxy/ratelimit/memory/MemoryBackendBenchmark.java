@@ -0,0 +1,64 @@
+package com.mercadolibre.proxy.ratelimit.memory;
+
+import com.mercadolibre.proxy.ratelimit.core.Limit;
+import org.openjdk.jmh.annotations.*;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bucket4j + store acotado vs motor primitivo, con claves repartidas sobre {@code keys} IPs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MemoryBackendBenchmark {
+
+    @Param({"1000", "100000"})
+    int keys;
+
+    private final Limit limit = Limit.perMinute(1_000_000);
+    private String[] keyNames;
+    private MemoryRateLimiterBackend bucket4j;
+    private PrimitiveRateLimiterBackend primitive;
+
+    @Setup
+    public void setup() {
+        keyNames = new String[keys];
+        for (int i = 0; i < keys; i++) keyNames[i] = "ip:10." + (i >> 16) + "." + ((i >> 8) & 255) + "." + (i & 255);
+        bucket4j = new MemoryRateLimiterBackend(new BoundedBucketStore<>(keys * 2, 64));
+        primitive = new PrimitiveRateLimiterBackend(new PrimitiveTokenBucketEngine(keys * 2, 64));
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int i;
+
+        int next(int bound) {
+            i = (i + 1) % bound;
+            return i;
+        }
+    }
+
+    @Benchmark
+    public Mono<Boolean> bucket4j(Cursor c) {
+        return bucket4j.tryConsume(keyNames[c.next(keys)], 1, limit);
+    }
+
+    @Benchmark
+    public Mono<Boolean> primitive(Cursor c) {
+        return primitive.tryConsume(keyNames[c.next(keys)], 1, limit);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Mono<Boolean> bucket4jContended(Cursor c) {
+        return bucket4j.tryConsume(keyNames[c.next(keys)], 1, limit);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Mono<Boolean> primitiveContended(Cursor c) {
+        return primitive.tryConsume(keyNames[c.next(keys)], 1, limit);
+    }
+}
@@ -0,0 +1,93 @@
+package com.mercadolibre.proxy.web.filter;
+
+import com.mercadolibre.proxy.metrics.ProxyMetrics;
+import com.mercadolibre.proxy.ratelimit.core.Condition;
+import com.mercadolibre.proxy.ratelimit.core.ConsumeRequest;
+import com.mercadolibre.proxy.ratelimit.core.KeyGenerator;
+import com.mercadolibre.proxy.ratelimit.core.KeyedRateLimitRule;
+import com.mercadolibre.proxy.ratelimit.core.Limit;
+import com.mercadolibre.proxy.ratelimit.core.RateLimitRule;
+import com.mercadolibre.proxy.ratelimit.core.RateLimiterBackend;
+import com.mercadolibre.proxy.ratelimit.core.RuleBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo por request del filtro de rate limit según la cantidad de reglas: {@code linear} evalúa
+ * todas las condiciones (comportamiento previo al índice), {@code indexed} sólo las candidatas,
+ * y {@code filter} mide el filtro completo con un backend que siempre concede.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RuleDispatchBenchmark {
+
+    @Param({"3", "30", "300"})
+    int rules;
+
+    private List<RateLimitRule> ruleList;
+    private RuleIndex index;
+    private RateLimitEngineFilter filter;
+    private MockServerWebExchange exchange;
+    private final WebFilterChain chain = ex -> Mono.empty();
+
+    @Setup
+    public void setup() {
+        RateLimiterBackend allowAll = new RateLimiterBackend() {
+            @Override
+            public Mono<Boolean> tryConsume(String key, int permits, Limit limit) {
+                return Mono.just(true);
+            }
+
+            @Override
+            public Mono<Integer> tryConsumeAll(List<ConsumeRequest> requests) {
+                return Mono.just(-1);
+            }
+        };
+        // Reglas como las por defecto (ip global + /items) más servicios propios con método
+        ruleList = new ArrayList<>(rules);
+        ruleList.add(RuleBuilder.named("ip").key(KeyGenerator.ip()).backend(allowAll).build());
+        ruleList.add(RuleBuilder.named("items_ip").when(Condition.pathStartsWith("/items"))
+                .key(KeyGenerator.compose(KeyGenerator.ip(), KeyGenerator.constant("/items"))).backend(allowAll).build());
+        for (int i = ruleList.size(); i < rules; i++) {
+            ruleList.add(RuleBuilder.named("svc" + i)
+                    .when(Condition.pathMatches("/svc" + i + "/**").and(Condition.methodIs(i % 2 == 0 ? HttpMethod.GET : HttpMethod.POST)))
+                    .key(KeyGenerator.compose(KeyGenerator.ip(), KeyGenerator.path()))
+                    .backend(allowAll).build());
+        }
+        index = new RuleIndex(ruleList);
+        filter = new RateLimitEngineFilter(ruleList, new ProxyMetrics(new SimpleMeterRegistry()));
+        exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/items/MLA1")
+                .header("X-Forwarded-For", "10.0.0.1").build());
+    }
+
+    @Benchmark
+    public void linear(Blackhole bh) {
+        for (RateLimitRule rule : ruleList) {
+            bh.consume(((KeyedRateLimitRule) rule).resolve(exchange));
+        }
+    }
+
+    @Benchmark
+    public void indexed(Blackhole bh) {
+        var req = exchange.getRequest();
+        for (RateLimitRule rule : index.candidates(req.getMethod(), req.getPath().value())) {
+            bh.consume(((KeyedRateLimitRule) rule).resolve(exchange));
+        }
+    }
+
+    @Benchmark
+    public Void filter() {
+        return filter.filter(exchange, chain).block();
+    }
+}
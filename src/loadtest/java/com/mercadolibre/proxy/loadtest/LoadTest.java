@@ -0,0 +1,110 @@
+package com.mercadolibre.proxy.loadtest;
+
+import com.mercadolibre.proxy.ProxyApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Prueba de carga autocontenida: levanta un backend falso, arranca el proxy apuntando a él (una
+ * vez por backend de rate limit y protocolo) y lo carga a tasa fija reproduciendo un archivo de
+ * requests.
+ * <p>
+ * Opciones (./gradlew loadTest -PloadTestArgs="--rps=2000 --limiters=memory,redis"):
+ * --rps, --duration, --warmup, --connections, --replay=archivo.jsonl, --limiters=memory,redis,
+ * --latency, --payload (bytes), --error-rate (0..1), --protocols=http11,h2c (h2c levanta el proxy con
+ * server.http2.enabled y conecta con prior knowledge). Cualquier otra {@code --clave=valor} se pasa
+ * como propiedad al proxy (p.ej. --proxy.rate-limiter.ip-per-minute=600000).
+ */
+public final class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = new LinkedHashMap<>();
+        for (String a : args) {
+            if (!a.startsWith("--") || !a.contains("=")) throw new IllegalArgumentException("expected --key=value: " + a);
+            int eq = a.indexOf('=');
+            opts.put(a.substring(2, eq), a.substring(eq + 1));
+        }
+        int rps = Integer.parseInt(take(opts, "rps", "500"));
+        Duration duration = duration(take(opts, "duration", "30s"));
+        Duration warmup = duration(take(opts, "warmup", "5s"));
+        int connections = Integer.parseInt(take(opts, "connections", "256"));
+        ReplayFile replay = ReplayFile.load(opts.remove("replay"));
+        List<String> limiters = List.of(take(opts, "limiters", "memory").split(","));
+        Duration latency = duration(take(opts, "latency", "20ms"));
+        int payload = Integer.parseInt(take(opts, "payload", "2048"));
+        double errorRate = Double.parseDouble(take(opts, "error-rate", "0"));
+        List<String> protocols = List.of(take(opts, "protocols", "http11").split(","));
+
+        List<String> report = new ArrayList<>();
+        try (StubUpstream stub = new StubUpstream(latency, payload, errorRate)) {
+            String upstream = stub.start();
+            for (String protocol : protocols) {
+                boolean h2c = "h2c".equals(protocol.trim());
+                for (String limiter : limiters) {
+                    try (ConfigurableApplicationContext proxy = startProxy(upstream, limiter.trim(), h2c, opts)) {
+                        int port = ((WebServerApplicationContext) proxy).getWebServer().getPort();
+                        OpenLoopDriver driver = new OpenLoopDriver("http://localhost:" + port, replay, connections, h2c);
+                        try {
+                            var r = driver.run(rps, warmup, duration);
+                            report.add(format(protocol.trim(), limiter.trim(), r));
+                        } finally {
+                            driver.close();
+                        }
+                    }
+                }
+            }
+        }
+        System.out.printf("%nupstream: latency=%dms payload=%dB error-rate=%.3f  replay: %d requests%n",
+                latency.toMillis(), payload, errorRate, replay.size());
+        report.forEach(System.out::println);
+    }
+
+    private static String take(Map<String, String> opts, String key, String def) {
+        String v = opts.remove(key);
+        return v != null ? v : def;
+    }
+
+    /** "250ms", "30s" o "2m". */
+    private static Duration duration(String v) {
+        if (v.endsWith("ms")) return Duration.ofMillis(Long.parseLong(v.substring(0, v.length() - 2)));
+        return Duration.parse("PT" + v.toUpperCase(Locale.ROOT));
+    }
+
+    private static ConfigurableApplicationContext startProxy(String upstream, String limiter, boolean h2c,
+                                                             Map<String, String> extra) {
+        Map<String, Object> props = new LinkedHashMap<>();
+        props.put("server.port", 0);
+        props.put("management.server.port", -1);
+        props.put("backend.base-url", upstream);
+        props.put("proxy.rate-limiter.backend", limiter);
+        props.put("logging.level.root", "WARN");
+        props.put("server.http2.enabled", h2c);
+        props.putAll(extra);
+        var builder = new SpringApplicationBuilder(ProxyApplication.class).properties(props);
+        if ("redis".equals(limiter)) builder.profiles("redis");
+        return builder.run();
+    }
+
+    private static String format(String protocol, String limiter, OpenLoopDriver.Result r) {
+        double seconds = r.elapsedNanos / 1e9;
+        long completed = r.completed();
+        long all = completed + r.errors.sum();
+        var h = r.latencyMicros;
+        return String.format(Locale.ROOT,
+                "protocol=%-6s limiter=%-6s target=%d rps achieved=%.1f rps | ok=%d 429=%d (%.2f%%) 4xx=%d 5xx=%d errors=%d outstanding=%d connections=%d"
+                        + " | latency ms p50=%.2f p99=%.2f p999=%.2f max=%.2f",
+                protocol, limiter, r.targetRps, completed / seconds,
+                r.ok.sum(), r.rejected.sum(), all > 0 ? 100.0 * r.rejected.sum() / all : 0,
+                r.clientErrors.sum(), r.serverErrors.sum(), r.errors.sum(), r.outstanding, r.connections,
+                h.getValueAtPercentile(50) / 1000.0, h.getValueAtPercentile(99) / 1000.0,
+                h.getValueAtPercentile(99.9) / 1000.0, h.getMaxValue() / 1000.0);
+    }
+}
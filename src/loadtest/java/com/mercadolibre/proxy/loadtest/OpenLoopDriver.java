@@ -0,0 +1,128 @@
+package com.mercadolibre.proxy.loadtest;
+
+import io.netty.handler.codec.http.HttpMethod;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Carga de modelo abierto: las requests salen a {@code rps} fijos sin esperar a que terminen las
+ * anteriores. La latencia se mide desde el instante en que la request debía salir (no desde que
+ * salió), así una demora del sistema no se esconde bajando la tasa (coordinated omission).
+ */
+final class OpenLoopDriver {
+
+    private static final long TICK_MICROS = 500;
+
+    private final HttpClient client;
+    private final ReplayFile replay;
+    private final ConnectionProvider pool;
+    private final LongAdder connections = new LongAdder();
+
+    /** {@code h2c}: HTTP/2 en claro con prior knowledge; si no, HTTP/1.1. */
+    OpenLoopDriver(String baseUrl, ReplayFile replay, int maxConnections, boolean h2c) {
+        this.pool = ConnectionProvider.builder("loadtest")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        this.client = HttpClient.create(pool)
+                .baseUrl(baseUrl)
+                .protocol(h2c ? HttpProtocol.H2C : HttpProtocol.HTTP11)
+                // Una vez por conexión TCP (en HTTP/2 no por stream)
+                .doOnChannelInit((observer, channel, address) -> connections.increment());
+        this.replay = replay;
+    }
+
+    Result run(int rps, Duration warmup, Duration duration) throws InterruptedException {
+        Recorder latencies = new Recorder(TimeUnit.MINUTES.toMicros(1), 3);
+        Result result = new Result();
+        long intervalNanos = 1_000_000_000L / rps;
+        long total = (warmup.toNanos() + duration.toNanos()) / intervalNanos;
+        long warmupCount = warmup.toNanos() / intervalNanos;
+        CountDownLatch done = new CountDownLatch((int) total);
+        AtomicLong sent = new AtomicLong();
+
+        Scheduler ticker = Schedulers.newSingle("loadtest-ticker");
+        long start = System.nanoTime();
+        Disposable ticks = ticker.schedulePeriodically(() -> {
+            long due = Math.min(total, (System.nanoTime() - start) / intervalNanos + 1);
+            for (long i = sent.get(); i < due; i = sent.incrementAndGet()) {
+                long intended = start + i * intervalNanos;
+                boolean measured = i >= warmupCount;
+                send(replay.get(i)).subscribe(
+                        status -> {
+                            if (measured) {
+                                latencies.recordValue((System.nanoTime() - intended) / 1_000);
+                                result.count(status);
+                            }
+                            done.countDown();
+                        },
+                        err -> {
+                            if (measured) result.errors.increment();
+                            done.countDown();
+                        });
+            }
+        }, 0, TICK_MICROS, TimeUnit.MICROSECONDS);
+
+        long measuredStart = start + warmup.toNanos();
+        boolean drained = done.await(duration.toMillis() + warmup.toMillis() + 30_000, TimeUnit.MILLISECONDS);
+        ticks.dispose();
+        ticker.dispose();
+        result.elapsedNanos = System.nanoTime() - measuredStart;
+        result.outstanding = drained ? 0 : done.getCount();
+        result.latencyMicros = latencies.getIntervalHistogram();
+        result.targetRps = rps;
+        result.connections = connections.sum();
+        return result;
+    }
+
+    void close() {
+        pool.dispose();
+    }
+
+    private Mono<Integer> send(ReplayFile.Entry e) {
+        return client
+                .headers(h -> e.headers().forEach(h::set))
+                .request(HttpMethod.valueOf(e.method()))
+                .uri(e.path())
+                .response((res, body) -> body.then(Mono.just(res.status().code())))
+                .next()
+                .timeout(Duration.ofSeconds(30));
+    }
+
+    static final class Result {
+        int targetRps;
+        long elapsedNanos;
+        long outstanding;
+        long connections;
+        Histogram latencyMicros;
+        final LongAdder ok = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder clientErrors = new LongAdder();
+        final LongAdder serverErrors = new LongAdder();
+        final LongAdder errors = new LongAdder();
+
+        void count(int status) {
+            if (status == 429) rejected.increment();
+            else if (status >= 500) serverErrors.increment();
+            else if (status >= 400) clientErrors.increment();
+            else ok.increment();
+        }
+
+        long completed() {
+            return ok.sum() + rejected.sum() + clientErrors.sum() + serverErrors.sum();
+        }
+    }
+}
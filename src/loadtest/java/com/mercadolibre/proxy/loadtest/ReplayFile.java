@@ -0,0 +1,67 @@
+package com.mercadolibre.proxy.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Requests a reproducir, una por línea en JSON: {"method":"GET","path":"/items/MLA1","headers":{...}}.
+ * Se recorren en orden y en ciclo, así dos corridas con el mismo archivo envían lo mismo.
+ */
+final class ReplayFile {
+
+    record Entry(String method, String path, Map<String, String> headers) {
+    }
+
+    private final List<Entry> entries;
+
+    private ReplayFile(List<Entry> entries) {
+        if (entries.isEmpty()) throw new IllegalArgumentException("replay file has no requests");
+        this.entries = entries;
+    }
+
+    Entry get(long i) {
+        return entries.get((int) (i % entries.size()));
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /** Archivo en disco o, si {@code location} es null, el replay.jsonl del classpath. */
+    static ReplayFile load(String location) throws IOException {
+        try (InputStream in = location != null
+                ? Files.newInputStream(Path.of(location))
+                : ReplayFile.class.getResourceAsStream("/replay.jsonl")) {
+            if (in == null) throw new IOException("replay.jsonl not found on classpath");
+            return parse(in);
+        }
+    }
+
+    private static ReplayFile parse(InputStream in) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        List<Entry> out = new ArrayList<>();
+        try (BufferedReader r = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) continue;
+                JsonNode n = mapper.readTree(line);
+                Map<String, String> headers = new LinkedHashMap<>();
+                n.path("headers").fields().forEachRemaining(e -> headers.put(e.getKey(), e.getValue().asText()));
+                out.add(new Entry(n.path("method").asText("GET"), n.path("path").asText("/"), headers));
+            }
+        }
+        return new ReplayFile(out);
+    }
+}
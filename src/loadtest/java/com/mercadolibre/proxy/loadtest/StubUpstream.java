@@ -0,0 +1,56 @@
+package com.mercadolibre.proxy.loadtest;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Backend falso local: responde a todo con un JSON de {@code payloadBytes} tras {@code latency};
+ * una fracción {@code errorRate} de las respuestas es 500.
+ */
+final class StubUpstream implements AutoCloseable {
+
+    private final MockWebServer server = new MockWebServer();
+
+    StubUpstream(Duration latency, int payloadBytes, double errorRate) {
+        String payload = payload(payloadBytes);
+        long latencyMs = latency.toMillis();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                boolean fail = errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+                return new MockResponse()
+                        .setResponseCode(fail ? 500 : 200)
+                        .setHeader("Content-Type", "application/json")
+                        .setBody(fail ? "{\"error\":\"stub\"}" : payload)
+                        .setHeadersDelay(latencyMs, TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+
+    String start() throws IOException {
+        server.start();
+        String url = server.url("/").toString();
+        return url.substring(0, url.length() - 1);
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.shutdown();
+    }
+
+    private static String payload(int bytes) {
+        String head = "{\"id\":\"MLA1\",\"data\":\"";
+        String tail = "\"}";
+        char[] fill = new char[Math.max(0, bytes - head.length() - tail.length())];
+        Arrays.fill(fill, 'x');
+        return head + new String(fill) + tail;
+    }
+}
@@ -0,0 +1,124 @@
+package com.mercadolibre.proxy.application;
+
+import com.mercadolibre.proxy.domain.ForwardRequest;
+import com.mercadolibre.proxy.domain.ForwardResponse;
+import com.mercadolibre.proxy.domain.RequestContext;
+import com.mercadolibre.proxy.metrics.ProxyMetrics;
+import com.mercadolibre.proxy.tracing.TraceContext;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single-flight: requests GET/HEAD idénticas (misma URL y mismos headers hacia el backend) que
+ * llegan mientras otra igual está en vuelo comparten esa llamada al upstream. La respuesta se
+ * bufferiza una vez, hasta {@code maxBodyBytes}, y cada request recibe su copia con su propio
+ * X-Request-Id. Una respuesta más grande no se comparte: la primera request la recibe en streaming
+ * (si el Content-Length ya lo anticipa) o repite la llamada, y las que esperaban hacen la suya.
+ */
+public class CoalescingForwardingService implements ForwardingService {
+
+    private static final String RXI = "X-Request-Id";
+
+    private final ForwardingService delegate;
+    private final ProxyMetrics metrics;
+    private final int maxBodyBytes;
+    private final Map<String, Sinks.One<Shared>> inFlight = new ConcurrentHashMap<>();
+
+    public CoalescingForwardingService(ForwardingService delegate, ProxyMetrics metrics, int maxBodyBytes) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    @Override
+    public Mono<ForwardResponse> forward(ForwardRequest req, RequestContext ctx) {
+        if (req.hasBody() || (req.method() != HttpMethod.GET && req.method() != HttpMethod.HEAD)) {
+            return delegate.forward(req, ctx);
+        }
+        return Mono.defer(() -> {
+            String key = key(req);
+            Sinks.One<Shared> flight = inFlight.get(key);
+            if (flight == null) {
+                Sinks.One<Shared> mine = Sinks.one();
+                flight = inFlight.putIfAbsent(key, mine);
+                if (flight == null) return lead(key, mine, req, ctx);
+            }
+            metrics.recordCoalescedRequest();
+            // Vacío: la respuesta no se pudo compartir (muy grande o cancelada), va la propia
+            return flight.asMono()
+                    .map(s -> s.toResponse(ctx.reqId()))
+                    .switchIfEmpty(Mono.defer(() -> delegate.forward(req, ctx)));
+        });
+    }
+
+    private Mono<ForwardResponse> lead(String key, Sinks.One<Shared> flight, ForwardRequest req, RequestContext ctx) {
+        return delegate.forward(req, ctx)
+                .flatMap(res -> {
+                    if (req.method() == HttpMethod.GET && res.headers().getContentLength() > maxBodyBytes) {
+                        release(key, flight);
+                        return Mono.just(res);
+                    }
+                    return DataBufferUtils.join(res.body(), maxBodyBytes)
+                            .map(db -> {
+                                byte[] bytes = new byte[db.readableByteCount()];
+                                db.read(bytes);
+                                DataBufferUtils.release(db);
+                                return bytes;
+                            })
+                            .defaultIfEmpty(new byte[0])
+                            .map(bytes -> {
+                                Shared shared = new Shared(res.status(), res.headers(), bytes);
+                                inFlight.remove(key, flight);
+                                flight.tryEmitValue(shared);
+                                return shared.toResponse(ctx.reqId());
+                            })
+                            // Sin Content-Length y más grande que el máximo: join ya liberó lo leído
+                            .onErrorResume(DataBufferLimitException.class, e -> {
+                                release(key, flight);
+                                return delegate.forward(req, ctx);
+                            });
+                })
+                .doOnError(e -> {
+                    inFlight.remove(key, flight);
+                    flight.tryEmitError(e);
+                })
+                .doFinally(s -> release(key, flight));
+    }
+
+    /** Los que esperaban hacen su propia llamada; no-op si la respuesta ya se compartió. */
+    private void release(String key, Sinks.One<Shared> flight) {
+        inFlight.remove(key, flight);
+        flight.tryEmitEmpty();
+    }
+
+    /**
+     * Clave: método + URL + headers enviados al backend (sin X-Request-Id ni Trace Context, que son por request).
+     * Incluye Authorization, así nunca se comparte una respuesta entre credenciales distintas.
+     */
+    private static String key(ForwardRequest req) {
+        StringBuilder sb = new StringBuilder(128).append(req.method().name()).append(' ').append(req.targetUri());
+        req.headers().forEach((name, values) -> {
+            if (RXI.equalsIgnoreCase(name) || TraceContext.TRACEPARENT.equalsIgnoreCase(name)
+                    || TraceContext.TRACESTATE.equalsIgnoreCase(name)) return;
+            sb.append('\n').append(name).append(':');
+            for (String v : values) sb.append(v).append(',');
+        });
+        return sb.toString();
+    }
+
+    private record Shared(int status, HttpHeaders headers, byte[] body) {
+        ForwardResponse toResponse(String reqId) {
+            HttpHeaders h = new HttpHeaders();
+            h.addAll(headers);
+            h.set(RXI, reqId);
+            return new ForwardResponse(status, h, body);
+        }
+    }
+}
@@ -1,55 +1,142 @@
 package com.mercadolibre.proxy.application;
 
+import com.mercadolibre.proxy.tracing.TraceContext;
 import org.springframework.http.HttpHeaders;
-import org.springframework.stereotype.Component;
 
-@Component
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Política de headers compilada al arranque: por perfil (base o por prefijo de path) quedan armados
+ * los conjuntos de nombres permitidos hacia el backend y descartados hacia el cliente, y cada
+ * transformación es una sola pasada sobre los headers de entrada.
+ */
 public class DefaultHeaderPolicy implements HeaderPolicy {
 
+    public static final List<String> DEFAULT_REQUEST_ALLOW = List.of(
+            HttpHeaders.ACCEPT,
+            HttpHeaders.ACCEPT_LANGUAGE,
+            HttpHeaders.ACCEPT_CHARSET,
+            HttpHeaders.CONTENT_TYPE,
+            HttpHeaders.AUTHORIZATION,
+            HttpHeaders.USER_AGENT);
+
     private static final String RXI = "X-Request-Id";
+    private static final String DEFAULT_ACCEPT = "application/json";
+    private static final String NO_STORE = "no-store, no-cache, must-revalidate";
+    private static final String NO_CACHE = "no-cache";
+    private static final String EXPIRED = "Thu, 01 Jan 1970 00:00:00 GMT";
+    private static final String[][] SECURITY = {
+            {"X-Content-Type-Options", "nosniff"},
+            {"X-Frame-Options", "DENY"},
+            {"X-XSS-Protection", "1; mode=block"}
+    };
+
+    /**
+     * Perfil de headers. En un perfil de ruta las listas se suman a las del perfil base y
+     * {@code securityHeaders} en {@code null} hereda el valor base.
+     */
+    public record Profile(String pathPrefix, List<String> requestAllow, List<String> responseDeny, Boolean securityHeaders) {
+        public static Profile defaults() {
+            return new Profile("/", DEFAULT_REQUEST_ALLOW, List.of(), true);
+        }
+    }
+
+    private final Compiled base;
+    private final String[] prefixes;
+    private final Compiled[] routes;
+
+    public DefaultHeaderPolicy() {
+        this(Profile.defaults(), List.of());
+    }
+
+    public DefaultHeaderPolicy(Profile base, List<Profile> routeProfiles) {
+        this.base = compile(base.requestAllow(), base.responseDeny(), !Boolean.FALSE.equals(base.securityHeaders()));
+        // Prefijo más largo primero: la primera coincidencia es la más específica
+        List<Profile> sorted = new ArrayList<>(routeProfiles);
+        sorted.sort(Comparator.comparingInt((Profile p) -> p.pathPrefix().length()).reversed());
+        this.prefixes = new String[sorted.size()];
+        this.routes = new Compiled[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            Profile p = sorted.get(i);
+            prefixes[i] = p.pathPrefix();
+            routes[i] = compile(
+                    concat(base.requestAllow(), p.requestAllow()),
+                    concat(base.responseDeny(), p.responseDeny()),
+                    p.securityHeaders() != null ? p.securityHeaders() : this.base.securityHeaders);
+        }
+    }
 
     @Override
-    public HttpHeaders toBackend(HttpHeaders inbound, String requestId) {
+    public HttpHeaders toBackend(HttpHeaders inbound, String path, String requestId, TraceContext trace) {
+        Compiled p = profile(path);
         HttpHeaders out = new HttpHeaders();
-        copyIfPresent(inbound, out, HttpHeaders.ACCEPT);
-        copyIfPresent(inbound, out, HttpHeaders.ACCEPT_LANGUAGE);
-        copyIfPresent(inbound, out, HttpHeaders.ACCEPT_CHARSET);
-        copyIfPresent(inbound, out, HttpHeaders.CONTENT_TYPE);
-        copyIfPresent(inbound, out, HttpHeaders.AUTHORIZATION);
-        copyIfPresent(inbound, out, "User-Agent");
-        if (!out.containsKey(HttpHeaders.ACCEPT)) out.set(HttpHeaders.ACCEPT, "application/json");
+        for (Map.Entry<String, List<String>> e : inbound.entrySet()) {
+            if (p.requestAllow.contains(e.getKey()) && !e.getValue().isEmpty()) out.addAll(e.getKey(), e.getValue());
+        }
+        if (!out.containsKey(HttpHeaders.ACCEPT)) out.set(HttpHeaders.ACCEPT, DEFAULT_ACCEPT);
         out.set(RXI, requestId);
+        out.set(TraceContext.TRACEPARENT, trace.traceparent());
+        if (trace.tracestate() != null) out.set(TraceContext.TRACESTATE, trace.tracestate());
         return out;
     }
 
     @Override
-    public HttpHeaders toClient(HttpHeaders backend, String requestId) {
+    public HttpHeaders toClient(HttpHeaders backend, String path, String requestId) {
+        Compiled p = profile(path);
         HttpHeaders out = new HttpHeaders();
-        backend.forEach(out::addAll);
-        removeHopByHop(out);
-        out.setCacheControl("no-store, no-cache, must-revalidate");
-        out.setPragma("no-cache");
-        out.setExpires(0);
-        out.set("X-Content-Type-Options", "nosniff");
-        out.set("X-Frame-Options", "DENY");
-        out.set("X-XSS-Protection", "1; mode=block");
+        boolean cacheControl = false;
+        for (Map.Entry<String, List<String>> e : backend.entrySet()) {
+            String name = e.getKey();
+            if (p.responseDrop.contains(name)) continue;
+            if (!cacheControl && HttpHeaders.CACHE_CONTROL.equalsIgnoreCase(name)) cacheControl = true;
+            out.addAll(name, e.getValue());
+        }
+        // Si el upstream declara su política de cacheo se respeta; si no, no se cachea
+        if (!cacheControl) {
+            out.set(HttpHeaders.CACHE_CONTROL, NO_STORE);
+            out.set(HttpHeaders.PRAGMA, NO_CACHE);
+            out.set(HttpHeaders.EXPIRES, EXPIRED);
+        }
+        if (p.securityHeaders) {
+            for (String[] h : SECURITY) out.set(h[0], h[1]);
+        }
         out.set(RXI, requestId);
         return out;
     }
 
-    private void copyIfPresent(HttpHeaders src, HttpHeaders dst, String name) {
-        var vals = src.get(name);
-        if (vals != null && !vals.isEmpty()) dst.addAll(name, vals);
+    private Compiled profile(String path) {
+        if (path != null) {
+            for (int i = 0; i < prefixes.length; i++) {
+                if (path.startsWith(prefixes[i])) return routes[i];
+            }
+        }
+        return base;
+    }
+
+    /**
+     * Hacia el cliente se descartan hop-by-hop, los denegados y los que la política reescribe
+     * igual (X-Request-Id y los de seguridad), para no copiarlos y pisarlos después.
+     */
+    private static Compiled compile(List<String> requestAllow, List<String> responseDeny, boolean securityHeaders) {
+        List<String> drop = new ArrayList<>(HopByHop.NAMES);
+        drop.addAll(responseDeny);
+        drop.add(RXI);
+        if (securityHeaders) {
+            for (String[] h : SECURITY) drop.add(h[0]);
+        }
+        return new Compiled(HeaderNames.of(requestAllow), HeaderNames.of(drop), securityHeaders);
+    }
+
+    private static List<String> concat(List<String> a, List<String> b) {
+        if (b == null || b.isEmpty()) return a;
+        List<String> out = new ArrayList<>(a);
+        out.addAll(b);
+        return out;
     }
 
-    private void removeHopByHop(HttpHeaders headers) {
-        headers.remove(HttpHeaders.CONNECTION);
-        headers.remove(HttpHeaders.TRANSFER_ENCODING);
-        headers.remove("Keep-Alive");
-        headers.remove("Proxy-Authenticate");
-        headers.remove("Proxy-Authorization");
-        headers.remove("TE");
-        headers.remove("Trailer");
-        headers.remove("Upgrade");
+    private record Compiled(HeaderNames requestAllow, HeaderNames responseDrop, boolean securityHeaders) {
     }
 }
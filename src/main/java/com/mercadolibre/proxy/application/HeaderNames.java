@@ -0,0 +1,50 @@
+package com.mercadolibre.proxy.application;
+
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Conjunto inmutable de nombres de header, sin distinguir mayúsculas. Los nombres se guardan en
+ * minúscula en una tabla de direccionamiento abierto y el hash se calcula sin pasar a minúscula
+ * el nombre consultado: {@link #contains} no reserva memoria.
+ */
+public final class HeaderNames {
+
+    private final String[] table;
+    private final int mask;
+
+    private HeaderNames(String[] table) {
+        this.table = table;
+        this.mask = table.length - 1;
+    }
+
+    public static HeaderNames of(Collection<String> names) {
+        int size = Integer.highestOneBit(Math.max(4, names.size() * 2) - 1) << 1;
+        String[] table = new String[size];
+        for (String n : names) {
+            String lower = n.toLowerCase(Locale.ROOT).intern();
+            int i = hash(lower) & (size - 1);
+            while (table[i] != null && !table[i].equals(lower)) i = (i + 1) & (size - 1);
+            table[i] = lower;
+        }
+        return new HeaderNames(table);
+    }
+
+    public boolean contains(String name) {
+        for (int i = hash(name) & mask; ; i = (i + 1) & mask) {
+            String n = table[i];
+            if (n == null) return false;
+            if (n.length() == name.length() && n.equalsIgnoreCase(name)) return true;
+        }
+    }
+
+    private static int hash(String s) {
+        int h = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 'A' && c <= 'Z') c += 'a' - 'A';
+            h = 31 * h + c;
+        }
+        return h ^ (h >>> 16);
+    }
+}
@@ -1,9 +1,19 @@
 package com.mercadolibre.proxy.application;
 
+import com.mercadolibre.proxy.tracing.TraceContext;
 import org.springframework.http.HttpHeaders;
 
+/**
+ * {@code path} es el path de la request y permite políticas distintas por ruta.
+ */
 public interface HeaderPolicy {
-    HttpHeaders toBackend(HttpHeaders inbound, String requestId);
+    /**
+     * Headers hacia el upstream; incluye {@code traceparent}/{@code tracestate} de {@code trace}.
+     */
+    HttpHeaders toBackend(HttpHeaders inbound, String path, String requestId, TraceContext trace);
 
-    HttpHeaders toClient(HttpHeaders backend, String requestId);
+    /**
+     * Headers hacia el cliente, ya sin hop-by-hop.
+     */
+    HttpHeaders toClient(HttpHeaders backend, String path, String requestId);
 }
@@ -0,0 +1,51 @@
+package com.mercadolibre.proxy.application;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.List;
+
+/**
+ * Headers hop-by-hop (RFC 9110 §7.6.1): valen para una conexión y no se reenvían.
+ */
+public final class HopByHop {
+
+    public static final List<String> NAMES = List.of(
+            HttpHeaders.CONNECTION,
+            HttpHeaders.TRANSFER_ENCODING,
+            "Keep-Alive",
+            HttpHeaders.PROXY_AUTHENTICATE,
+            HttpHeaders.PROXY_AUTHORIZATION,
+            HttpHeaders.TE,
+            HttpHeaders.TRAILER,
+            HttpHeaders.UPGRADE);
+
+    private static final HeaderNames SET = HeaderNames.of(NAMES);
+
+    private HopByHop() {
+    }
+
+    public static boolean is(String name) {
+        return SET.contains(name);
+    }
+
+    /**
+     * Los mismos headers si no traen hop-by-hop (el caso normal, porque la {@link HeaderPolicy}
+     * ya los quitó); si no, una copia sin ellos.
+     */
+    public static HttpHeaders strip(HttpHeaders headers) {
+        if (headers == null) return new HttpHeaders();
+        boolean dirty = false;
+        for (String name : headers.keySet()) {
+            if (SET.contains(name)) {
+                dirty = true;
+                break;
+            }
+        }
+        if (!dirty) return headers;
+        HttpHeaders out = new HttpHeaders();
+        headers.forEach((name, values) -> {
+            if (!SET.contains(name)) out.addAll(name, values);
+        });
+        return out;
+    }
+}
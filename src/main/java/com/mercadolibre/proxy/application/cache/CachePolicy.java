@@ -0,0 +1,148 @@
+package com.mercadolibre.proxy.application.cache;
+
+import com.mercadolibre.proxy.domain.ForwardRequest;
+import com.mercadolibre.proxy.domain.ForwardResponse;
+import com.mercadolibre.proxy.domain.RequestContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Reglas de cacheo (cache compartida, RFC 9111 simplificado): sólo GET, clave por método + URL +
+ * headers de {@code keyHeaders}, frescura por {@code s-maxage} / {@code max-age} / {@code Expires}
+ * y overrides de TTL por prefijo de path que reemplazan lo que diga el upstream.
+ */
+public final class CachePolicy {
+
+    private static final Set<Integer> CACHEABLE_STATUS = Set.of(200, 203, 204, 300, 301, 404, 410);
+
+    /** Override de TTL para un prefijo de path. */
+    public record RouteTtl(String pathPrefix, Duration ttl) {
+    }
+
+    private final List<String> keyHeaders;
+    private final List<RouteTtl> routes;
+    private final long maxEntryBytes;
+
+    public CachePolicy(List<String> keyHeaders, List<RouteTtl> routes, long maxEntryBytes) {
+        this.keyHeaders = List.copyOf(keyHeaders);
+        // El prefijo más largo gana
+        List<RouteTtl> sorted = new ArrayList<>(routes);
+        sorted.sort(Comparator.comparingInt((RouteTtl r) -> r.pathPrefix().length()).reversed());
+        this.routes = List.copyOf(sorted);
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    public long maxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    /** GET sin {@code no-store} del cliente. */
+    public boolean applies(ForwardRequest req, HttpHeaders inbound) {
+        return req.method() == HttpMethod.GET && !req.hasBody()
+                && !has(directives(inbound.getCacheControl()), "no-store");
+    }
+
+    /** {@code no-cache} del cliente: se va al upstream pero la respuesta se puede guardar. */
+    public boolean lookupAllowed(HttpHeaders inbound) {
+        return !has(directives(inbound.getCacheControl()), "no-cache");
+    }
+
+    public String key(ForwardRequest req) {
+        StringBuilder sb = new StringBuilder(96).append(req.method().name()).append(' ').append(req.targetUri());
+        for (String h : keyHeaders) {
+            String v = req.headers().getFirst(h);
+            sb.append('\n').append(v != null ? v : "");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Entrada a guardar o {@code null} si la respuesta no es cacheable. {@code body} se completa
+     * después, cuando termina el stream. Los overrides de TTL se buscan por el path del cliente,
+     * no por el del upstream (que lleva delante el path de su base-url).
+     */
+    public CachedResponse toEntry(ForwardRequest req, RequestContext ctx, ForwardResponse res, byte[] body, long nowMs) {
+        HttpHeaders inbound = ctx.inboundHeaders();
+        if (!CACHEABLE_STATUS.contains(res.status())) return null;
+        HttpHeaders h = res.headers();
+        List<String> cc = directives(h.getCacheControl());
+        if (has(cc, "no-store") || has(cc, "private") || h.containsKey(HttpHeaders.SET_COOKIE)) return null;
+        // Con Authorization sólo si el upstream lo declara compartible: Authorization no es parte de
+        // la clave, así que un override de TTL cambia la frescura pero nunca esto
+        if (inbound.containsKey(HttpHeaders.AUTHORIZATION)
+                && !has(cc, "public") && seconds(cc, "s-maxage") < 0) return null;
+
+        long ttlMs = routeTtl(ctx.path());
+        if (ttlMs < 0) {
+            if (has(cc, "no-cache")) return null;
+            ttlMs = freshness(h, cc, nowMs);
+        }
+        if (ttlMs <= 0) return null;
+
+        List<String> varyNames = new ArrayList<>(0);
+        List<String> varyValues = new ArrayList<>(0);
+        for (String name : h.getVary()) {
+            if (name.equals("*")) return null;
+            if (keyHeaders.stream().anyMatch(name::equalsIgnoreCase)) continue;
+            varyNames.add(name);
+            varyValues.add(req.headers().getFirst(name));
+        }
+        return new CachedResponse(res.status(), h, body, varyNames, varyValues, nowMs, nowMs + ttlMs);
+    }
+
+    /** TTL del override para el path, o -1. */
+    long routeTtl(String path) {
+        for (RouteTtl r : routes) {
+            if (path != null && path.startsWith(r.pathPrefix())) return r.ttl().toMillis();
+        }
+        return -1;
+    }
+
+    private static long freshness(HttpHeaders h, List<String> cc, long nowMs) {
+        long s = seconds(cc, "s-maxage");
+        if (s < 0) s = seconds(cc, "max-age");
+        if (s >= 0) return s * 1000;
+        long expires = h.getExpires();
+        if (expires < 0) return 0;
+        long date = h.getDate();
+        return expires - (date >= 0 ? date : nowMs);
+    }
+
+    private static long seconds(List<String> cc, String directive) {
+        String prefix = directive + "=";
+        for (String d : cc) {
+            if (d.startsWith(prefix)) {
+                try {
+                    return Long.parseLong(d.substring(prefix.length()).replace("\"", ""));
+                } catch (NumberFormatException e) {
+                    return -1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static boolean has(List<String> cc, String directive) {
+        for (String d : cc) {
+            if (d.equals(directive) || d.startsWith(directive + "=")) return true;
+        }
+        return false;
+    }
+
+    private static List<String> directives(String cacheControl) {
+        if (cacheControl == null || cacheControl.isEmpty()) return List.of();
+        List<String> out = new ArrayList<>(4);
+        for (String d : cacheControl.split(",")) {
+            String t = d.trim().toLowerCase(Locale.ROOT);
+            if (!t.isEmpty()) out.add(t);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,38 @@
+package com.mercadolibre.proxy.application.cache;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Respuesta almacenada. {@code varyValues} son los valores que tenían en la request original
+ * los headers listados en el {@code Vary} de la respuesta que no forman parte de la clave.
+ */
+public record CachedResponse(
+        int status,
+        HttpHeaders headers,
+        byte[] body,
+        List<String> varyNames,
+        List<String> varyValues,
+        long storedAtMs,
+        long expiresAtMs
+) {
+    /** Bytes aproximados que ocupa la entrada (body + headers + overhead fijo). */
+    public long weight() {
+        long w = 128 + body.length;
+        for (var e : headers.entrySet()) {
+            w += e.getKey().length();
+            for (String v : e.getValue()) w += v.length();
+        }
+        return w;
+    }
+
+    public boolean matchesVary(HttpHeaders request) {
+        for (int i = 0; i < varyNames.size(); i++) {
+            String v = request.getFirst(varyNames.get(i));
+            if (!Objects.equals(v, varyValues.get(i))) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,106 @@
+package com.mercadolibre.proxy.application.cache;
+
+import com.mercadolibre.proxy.application.ForwardingService;
+import com.mercadolibre.proxy.domain.ForwardRequest;
+import com.mercadolibre.proxy.domain.ForwardResponse;
+import com.mercadolibre.proxy.domain.RequestContext;
+import com.mercadolibre.proxy.metrics.ProxyMetrics;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Cache compartida delante del forwarding. En un hit responde desde memoria (con {@code Age} y el
+ * X-Request-Id de la request actual); en un miss el body del upstream se sigue transmitiendo en
+ * streaming y, si la respuesta es cacheable, se guarda una copia al completarse el stream.
+ */
+public class CachingForwardingService implements ForwardingService {
+
+    private static final String RXI = "X-Request-Id";
+
+    private final ForwardingService delegate;
+    private final ResponseCache cache;
+    private final CachePolicy policy;
+    private final ProxyMetrics metrics;
+
+    public CachingForwardingService(ForwardingService delegate, ResponseCache cache, CachePolicy policy, ProxyMetrics metrics) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.policy = policy;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Mono<ForwardResponse> forward(ForwardRequest req, RequestContext ctx) {
+        HttpHeaders inbound = ctx.inboundHeaders();
+        if (!policy.applies(req, inbound)) {
+            metrics.recordCacheLookup("bypass");
+            return delegate.forward(req, ctx);
+        }
+        String key = policy.key(req);
+        if (policy.lookupAllowed(inbound)) {
+            CachedResponse hit = cache.get(key);
+            if (hit != null && hit.matchesVary(req.headers())) {
+                metrics.recordCacheLookup("hit");
+                return Mono.just(fromCache(hit, ctx));
+            }
+        }
+        metrics.recordCacheLookup("miss");
+        return delegate.forward(req, ctx).map(res -> store(key, req, ctx, res));
+    }
+
+    private ForwardResponse store(String key, ForwardRequest req, RequestContext ctx, ForwardResponse res) {
+        // Chequeo previo sin body: si no es cacheable ni se copia
+        if (policy.toEntry(req, ctx, res, new byte[0], cache.now()) == null) return res;
+        BodyCopy copy = new BodyCopy(policy.maxEntryBytes());
+        Flux<DataBuffer> body = res.body()
+                .doOnNext(copy::append)
+                .doOnComplete(() -> {
+                    byte[] bytes = copy.bytes();
+                    if (bytes == null) return;
+                    CachedResponse entry = policy.toEntry(req, ctx, res, bytes, cache.now());
+                    if (entry != null) cache.put(key, entry);
+                });
+        return new ForwardResponse(res.status(), res.headers(), body);
+    }
+
+    private ForwardResponse fromCache(CachedResponse hit, RequestContext ctx) {
+        HttpHeaders h = new HttpHeaders();
+        h.addAll(hit.headers());
+        h.set(RXI, ctx.reqId());
+        h.set("Age", String.valueOf(Math.max(0, (cache.now() - hit.storedAtMs()) / 1000)));
+        return new ForwardResponse(hit.status(), h, hit.body());
+    }
+
+    /**
+     * Copia del body mientras pasa hacia el cliente; se abandona si supera {@code max}.
+     */
+    private static final class BodyCopy {
+        private final long max;
+        private ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        BodyCopy(long max) {
+            this.max = max;
+        }
+
+        void append(DataBuffer db) {
+            if (out == null) return;
+            int n = db.readableByteCount();
+            if (out.size() + (long) n > max) {
+                out = null;
+                return;
+            }
+            byte[] chunk = new byte[n];
+            db.toByteBuffer(db.readPosition(), ByteBuffer.wrap(chunk), 0, n);
+            out.write(chunk, 0, n);
+        }
+
+        byte[] bytes() {
+            return out != null ? out.toByteArray() : null;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.mercadolibre.proxy.application.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Store de respuestas acotado por bytes: segmentos LRU (LinkedHashMap en orden de acceso) cada
+ * uno con {@code maxBytes / segments} de presupuesto. Al insertar se desalojan las entradas menos
+ * usadas del segmento hasta que entre la nueva; las vencidas se descartan al leerlas.
+ */
+public final class ResponseCache {
+
+    private final Segment[] segments;
+    private final long maxEntryBytes;
+    private final LongSupplier clockMs;
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public ResponseCache(long maxBytes, int segments) {
+        this(maxBytes, segments, System::currentTimeMillis);
+    }
+
+    ResponseCache(long maxBytes, int segments, LongSupplier clockMs) {
+        int n = Math.max(1, segments);
+        this.segments = new Segment[n];
+        long perSegment = Math.max(1, maxBytes / n);
+        for (int i = 0; i < n; i++) this.segments[i] = new Segment(perSegment);
+        this.maxEntryBytes = perSegment;
+        this.clockMs = clockMs;
+    }
+
+    public long now() {
+        return clockMs.getAsLong();
+    }
+
+    /** Entrada vigente o {@code null}. */
+    public CachedResponse get(String key) {
+        Segment s = segmentFor(key);
+        synchronized (s) {
+            CachedResponse r = s.map.get(key);
+            if (r == null) return null;
+            if (r.expiresAtMs() <= now()) {
+                s.remove(key);
+                expirations.increment();
+                return null;
+            }
+            return r;
+        }
+    }
+
+    /** @return false si la entrada no entra en un segmento */
+    public boolean put(String key, CachedResponse r) {
+        long w = r.weight() + key.length();
+        if (w > maxEntryBytes) return false;
+        Segment s = segmentFor(key);
+        synchronized (s) {
+            s.remove(key);
+            Iterator<Map.Entry<String, CachedResponse>> it = s.map.entrySet().iterator();
+            while (s.bytes + w > s.maxBytes && it.hasNext()) {
+                var eldest = it.next();
+                it.remove();
+                s.bytes -= eldest.getValue().weight() + eldest.getKey().length();
+                evictions.increment();
+            }
+            s.map.put(key, r);
+            s.bytes += w;
+        }
+        return true;
+    }
+
+    public long size() {
+        long n = 0;
+        for (Segment s : segments) {
+            synchronized (s) { n += s.map.size(); }
+        }
+        return n;
+    }
+
+    public long bytes() {
+        long n = 0;
+        for (Segment s : segments) {
+            synchronized (s) { n += s.bytes; }
+        }
+        return n;
+    }
+
+    /** Entradas desalojadas por falta de espacio. */
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /** Entradas descartadas por vencidas. */
+    public long expirations() {
+        return expirations.sum();
+    }
+
+    private Segment segmentFor(String key) {
+        int h = key.hashCode();
+        return segments[Math.floorMod(h ^ (h >>> 16), segments.length)];
+    }
+
+    private static final class Segment {
+        final Map<String, CachedResponse> map = new LinkedHashMap<>(16, 0.75f, true);
+        final long maxBytes;
+        long bytes;
+
+        Segment(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        void remove(String key) {
+            CachedResponse old = map.remove(key);
+            if (old != null) bytes -= old.weight() + key.length();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.mercadolibre.proxy.application.encoding;
+
+/**
+ * Lectura mínima de {@code Accept-Encoding}: si una codificación es aceptable (por nombre o por
+ * {@code *}) con q &gt; 0. Un {@code q=0} explícito para la codificación gana sobre {@code *}.
+ */
+final class ContentCodings {
+
+    private ContentCodings() {
+    }
+
+    static boolean accepts(String acceptEncoding, String coding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) return false;
+        Boolean wildcard = null;
+        for (String part : acceptEncoding.split(",")) {
+            int semi = part.indexOf(';');
+            String name = (semi < 0 ? part : part.substring(0, semi)).trim();
+            boolean positive = semi < 0 || qValue(part.substring(semi + 1)) > 0;
+            if (name.equalsIgnoreCase(coding) || ("gzip".equalsIgnoreCase(coding) && name.equalsIgnoreCase("x-gzip"))) {
+                return positive;
+            }
+            if (name.equals("*")) wildcard = positive;
+        }
+        return Boolean.TRUE.equals(wildcard);
+    }
+
+    private static double qValue(String params) {
+        for (String p : params.split(";")) {
+            String t = p.trim();
+            if (t.length() > 2 && (t.charAt(0) == 'q' || t.charAt(0) == 'Q') && t.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(t.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,97 @@
+package com.mercadolibre.proxy.application.encoding;
+
+import com.mercadolibre.proxy.application.ForwardingService;
+import com.mercadolibre.proxy.domain.ForwardRequest;
+import com.mercadolibre.proxy.domain.ForwardResponse;
+import com.mercadolibre.proxy.domain.RequestContext;
+import com.mercadolibre.proxy.metrics.ProxyMetrics;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Pass-through de bodies comprimidos. Al upstream siempre se le pide gzip (lo único que el proxy
+ * sabe decodificar en streaming) y el cliente HTTP no descomprime: si el cliente acepta la
+ * codificación de la respuesta los bytes se reenvían tal cual; si no, se decodifica acá. Las
+ * respuestas sin codificar las comprime el server ({@code server.compression}) según tamaño.
+ * Toda respuesta lleva {@code Vary: Accept-Encoding}. Va por fuera de la cache y el coalescing:
+ * lo cacheado/compartido es la representación del upstream, la adaptación es por cliente.
+ */
+public class ContentEncodingForwardingService implements ForwardingService {
+
+    static final String UPSTREAM_ACCEPT_ENCODING = "gzip";
+
+    private final ForwardingService delegate;
+    private final ProxyMetrics metrics;
+
+    public ContentEncodingForwardingService(ForwardingService delegate, ProxyMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Mono<ForwardResponse> forward(ForwardRequest req, RequestContext ctx) {
+        HttpHeaders upstreamHeaders = new HttpHeaders();
+        upstreamHeaders.addAll(req.headers());
+        upstreamHeaders.set(HttpHeaders.ACCEPT_ENCODING, UPSTREAM_ACCEPT_ENCODING);
+        var upstreamReq = new ForwardRequest(req.targetUri(), req.method(), upstreamHeaders, req.body(), req.upstream());
+        String clientAccepts = ctx.inboundHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING);
+        return delegate.forward(upstreamReq, ctx).map(res -> adapt(res, clientAccepts, req.method()));
+    }
+
+    ForwardResponse adapt(ForwardResponse res, String clientAccepts, HttpMethod method) {
+        // Copia: con coalescing o cache los headers de la respuesta se comparten entre clientes
+        HttpHeaders h = new HttpHeaders();
+        h.addAll(res.headers());
+        if (h.getVary().stream().noneMatch(HttpHeaders.ACCEPT_ENCODING::equalsIgnoreCase)) {
+            h.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        String coding = h.getFirst(HttpHeaders.CONTENT_ENCODING);
+        if (coding == null || coding.equalsIgnoreCase("identity")) {
+            metrics.recordCompression("identity");
+            return new ForwardResponse(res.status(), h, res.body());
+        }
+        boolean noBody = method == HttpMethod.HEAD || res.status() == 204 || res.status() == 304;
+        if (ContentCodings.accepts(clientAccepts, coding) || !StreamingDecoder.supports(coding)) {
+            // Codificación desconocida y no aceptada: no hay nada mejor que reenviarla
+            metrics.recordCompression("passthrough");
+            Flux<DataBuffer> body = noBody ? res.body() : relayed(res.body(), coding);
+            return new ForwardResponse(res.status(), h, body);
+        }
+        metrics.recordCompression("decoded");
+        h.remove(HttpHeaders.CONTENT_ENCODING);
+        h.remove(HttpHeaders.CONTENT_LENGTH);
+        Flux<DataBuffer> body = noBody ? res.body()
+                : StreamingDecoder.decode(res.body(), coding, metrics::recordCompressionDecode);
+        return new ForwardResponse(res.status(), h, body);
+    }
+
+    /**
+     * Cuenta los bytes reenviados sin decodificar; en gzip el tamaño original sale del trailer
+     * (ISIZE, los últimos 4 bytes), así se reporta también lo ahorrado.
+     */
+    private Flux<DataBuffer> relayed(Flux<DataBuffer> body, String coding) {
+        boolean gzip = coding.equalsIgnoreCase("gzip") || coding.equalsIgnoreCase("x-gzip");
+        return Flux.defer(() -> {
+            long[] encoded = new long[1];
+            int[] tail = new int[1];
+            return body
+                    .doOnNext(db -> {
+                        int end = db.writePosition();
+                        encoded[0] += db.readableByteCount();
+                        if (gzip) {
+                            for (int i = Math.max(db.readPosition(), end - 4); i < end; i++) {
+                                tail[0] = (tail[0] >>> 8) | ((db.getByte(i) & 0xff) << 24);
+                            }
+                        }
+                    })
+                    .doOnComplete(() -> {
+                        // Header (10) + trailer (8): menos que eso no es un gzip completo
+                        long original = gzip && encoded[0] >= 18 ? Integer.toUnsignedLong(tail[0]) : -1;
+                        metrics.recordCompressionPassthrough(encoded[0], original);
+                    });
+        });
+    }
+}
@@ -0,0 +1,97 @@
+package com.mercadolibre.proxy.application.encoding;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.compression.ZlibCodecFactory;
+import io.netty.handler.codec.compression.ZlibWrapper;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Decodifica gzip/deflate en streaming con el decoder zlib de Netty sobre un canal embebido: cada
+ * buffer del upstream se descomprime al llegar, sin juntar el body. Informa bytes de entrada y
+ * salida y el tiempo de CPU gastado al terminar (o cancelarse) el stream.
+ */
+final class StreamingDecoder {
+
+    private static final NettyDataBufferFactory BUFFERS = new NettyDataBufferFactory(ByteBufAllocator.DEFAULT);
+
+    interface Listener {
+        void decoded(long encodedBytes, long decodedBytes, long cpuNanos);
+    }
+
+    private StreamingDecoder() {
+    }
+
+    static boolean supports(String coding) {
+        return wrapper(coding) != null;
+    }
+
+    static Flux<DataBuffer> decode(Flux<DataBuffer> body, String coding, Listener listener) {
+        ZlibWrapper wrapper = wrapper(coding);
+        return Flux.defer(() -> {
+            EmbeddedChannel channel = new EmbeddedChannel(ZlibCodecFactory.newZlibDecoder(wrapper));
+            long[] stats = new long[3]; // encoded, decoded, nanos
+            return body
+                    .concatMapIterable(db -> {
+                        stats[0] += db.readableByteCount();
+                        long t0 = System.nanoTime();
+                        channel.writeInbound(toByteBuf(db));
+                        List<DataBuffer> out = drain(channel, stats);
+                        stats[2] += System.nanoTime() - t0;
+                        return out;
+                    })
+                    .concatWith(Flux.defer(() -> {
+                        long t0 = System.nanoTime();
+                        channel.finish();
+                        List<DataBuffer> out = drain(channel, stats);
+                        stats[2] += System.nanoTime() - t0;
+                        return Flux.fromIterable(out);
+                    }))
+                    .doFinally(s -> {
+                        channel.finishAndReleaseAll();
+                        listener.decoded(stats[0], stats[1], stats[2]);
+                    });
+        });
+    }
+
+    private static List<DataBuffer> drain(EmbeddedChannel channel, long[] stats) {
+        List<DataBuffer> out = new ArrayList<>(2);
+        for (ByteBuf buf = channel.readInbound(); buf != null; buf = channel.readInbound()) {
+            if (!buf.isReadable()) {
+                buf.release();
+                continue;
+            }
+            stats[1] += buf.readableBytes();
+            out.add(BUFFERS.wrap(buf));
+        }
+        return out;
+    }
+
+    /** El decoder se queda con el ByteBuf (y lo libera); un buffer que no es de Netty se copia. */
+    private static ByteBuf toByteBuf(DataBuffer db) {
+        if (db instanceof NettyDataBuffer netty) return netty.getNativeBuffer();
+        byte[] bytes = new byte[db.readableByteCount()];
+        db.read(bytes);
+        DataBufferUtils.release(db);
+        return Unpooled.wrappedBuffer(bytes);
+    }
+
+    private static ZlibWrapper wrapper(String coding) {
+        if (coding == null) return null;
+        return switch (coding.trim().toLowerCase(Locale.ROOT)) {
+            case "gzip", "x-gzip" -> ZlibWrapper.GZIP;
+            case "deflate" -> ZlibWrapper.ZLIB_OR_NONE;
+            default -> null;
+        };
+    }
+}
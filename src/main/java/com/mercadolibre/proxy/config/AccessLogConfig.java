@@ -0,0 +1,29 @@
+package com.mercadolibre.proxy.config;
+
+import com.mercadolibre.proxy.metrics.ProxyMetrics;
+import com.mercadolibre.proxy.web.accesslog.AccessLogFilter;
+import com.mercadolibre.proxy.web.accesslog.AccessLogSampler;
+import com.mercadolibre.proxy.web.accesslog.AccessLogWriter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "proxy.access-log", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AccessLogConfig {
+
+    @Bean(destroyMethod = "close")
+    public AccessLogWriter accessLogWriter(AccessLogProperties props, ProxyMetrics metrics) {
+        var writer = new AccessLogWriter(props.bufferSize(), props.includeHeaders());
+        metrics.bindAccessLog(writer, AccessLogWriter::pending, AccessLogWriter::dropped);
+        return writer;
+    }
+
+    @Bean
+    public AccessLogFilter accessLogFilter(AccessLogWriter writer, AccessLogProperties props) {
+        var s = props.sampling();
+        var sampler = new AccessLogSampler(s.informational(), s.success(), s.redirect(),
+                s.clientError(), s.serverError(), props.slowThreshold().toNanos());
+        return new AccessLogFilter(writer, sampler, props.includeHeaders());
+    }
+}
@@ -0,0 +1,28 @@
+package com.mercadolibre.proxy.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Access log asíncrono y muestreado. Las tasas van de 0 a 1 por clase de status; las requests
+ * más lentas que {@code slowThreshold} se registran siempre.
+ */
+@ConfigurationProperties(prefix = "proxy.access-log")
+public record AccessLogProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("8192") int bufferSize,
+        @DefaultValue("false") boolean includeHeaders,
+        @DefaultValue("1s") Duration slowThreshold,
+        @DefaultValue Sampling sampling
+) {
+    public record Sampling(
+            @DefaultValue("1.0") double informational,
+            @DefaultValue("0.01") double success,
+            @DefaultValue("0.01") double redirect,
+            @DefaultValue("0.1") double clientError,
+            @DefaultValue("1.0") double serverError
+    ) {
+    }
+}
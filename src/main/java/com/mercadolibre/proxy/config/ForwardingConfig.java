@@ -1,46 +1,57 @@
 package com.mercadolibre.proxy.config;
 
+import com.mercadolibre.proxy.application.CoalescingForwardingService;
+import com.mercadolibre.proxy.application.DefaultHeaderPolicy;
 import com.mercadolibre.proxy.application.ForwardingService;
-import com.mercadolibre.proxy.application.LoggingForwardingService;
-import com.mercadolibre.proxy.infrastructure.http.HttpClientGateway;
-import com.mercadolibre.proxy.infrastructure.http.ResilientHttpClientGateway;
-import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
-import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import com.mercadolibre.proxy.application.HeaderPolicy;
+import com.mercadolibre.proxy.application.cache.CachePolicy;
+import com.mercadolibre.proxy.application.cache.CachingForwardingService;
+import com.mercadolibre.proxy.application.cache.ResponseCache;
+import com.mercadolibre.proxy.application.encoding.ContentEncodingForwardingService;
+import com.mercadolibre.proxy.metrics.ProxyMetrics;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.*;
 
 @Configuration
 public class ForwardingConfig {
 
     @Bean
-    @Primary
-    @ConditionalOnProperty(prefix = "forwarding.resilience", name = "enabled", havingValue = "true", matchIfMissing = true)
-    public HttpClientGateway resilientGateway(
-            HttpClientGateway baseGateway,
-            ForwardingFeaturesProperties props,
-            CircuitBreakerRegistry cbRegistry,
-            TimeLimiterRegistry tlRegistry
-    ) {
-        var name = props.resilience().instanceName();
-        return new ResilientHttpClientGateway(
-                baseGateway,
-                cbRegistry.circuitBreaker(name),
-                tlRegistry.timeLimiter(name)
-        );
-    }
-
-    @Bean
-    @Primary
-    @ConditionalOnProperty(prefix = "forwarding", name = "logging-enabled", havingValue = "true", matchIfMissing = true)
-    public ForwardingService loggingForwardingService(@Qualifier("forwardingCore") ForwardingService core) {
-        return new LoggingForwardingService(core);
+    public HeaderPolicy headerPolicy(ForwardingFeaturesProperties props) {
+        var h = props.headers();
+        var base = new DefaultHeaderPolicy.Profile("/", h.requestAllow(), h.responseDeny(), h.securityHeaders());
+        var routes = h.routes().stream()
+                .map(r -> new DefaultHeaderPolicy.Profile(r.pathPrefix(), r.requestAllow(), r.responseDeny(), r.securityHeaders()))
+                .toList();
+        return new DefaultHeaderPolicy(base, routes);
     }
 
+    /**
+     * Cadena de decoradores sobre el core, de adentro hacia afuera: coalescing → cache →
+     * content-encoding (los misses de la cache son los que se agrupan; la adaptación de la
+     * codificación es por cliente).
+     */
     @Bean
     @Primary
-    @ConditionalOnProperty(prefix = "forwarding", name = "logging-enabled", havingValue = "false")
-    public ForwardingService primaryCoreForwarding(@Qualifier("forwardingCore") ForwardingService core) {
-        return core;
+    public ForwardingService forwardingService(@Qualifier("forwardingCore") ForwardingService core,
+                                               ForwardingFeaturesProperties props, ProxyMetrics metrics) {
+        ForwardingService svc = core;
+        if (props.coalescing().enabled()) {
+            svc = new CoalescingForwardingService(svc, metrics, (int) props.coalescing().maxBodySize().toBytes());
+        }
+        var cache = props.cache();
+        if (cache.enabled()) {
+            var store = new ResponseCache(cache.maxSize().toBytes(), cache.segments());
+            metrics.bindResponseCache(store, ResponseCache::size, ResponseCache::bytes,
+                    ResponseCache::evictions, ResponseCache::expirations);
+            var routes = cache.routes().stream()
+                    .map(r -> new CachePolicy.RouteTtl(r.pathPrefix(), r.ttl()))
+                    .toList();
+            var policy = new CachePolicy(cache.keyHeaders(), routes, cache.maxEntrySize().toBytes());
+            svc = new CachingForwardingService(svc, store, policy, metrics);
+        }
+        if (props.compression().mode() == ForwardingFeaturesProperties.Compression.Mode.PASSTHROUGH) {
+            svc = new ContentEncodingForwardingService(svc, metrics);
+        }
+        return svc;
     }
 }
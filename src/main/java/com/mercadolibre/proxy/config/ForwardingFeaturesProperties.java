@@ -1,12 +1,74 @@
 package com.mercadolibre.proxy.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
 
 @ConfigurationProperties(prefix = "forwarding")
 public record ForwardingFeaturesProperties(
-        boolean loggingEnabled,
-        Resilience resilience
+        @DefaultValue Resilience resilience,
+        @DefaultValue Cache cache,
+        @DefaultValue Coalescing coalescing,
+        @DefaultValue Headers headers,
+        @DefaultValue Compression compression
 ) {
-    public record Resilience(boolean enabled, String instanceName) {
+    public record Resilience(@DefaultValue("true") boolean enabled, @DefaultValue("meliBackend") String instanceName) {
+    }
+
+    /**
+     * Cache de respuestas GET. {@code keyHeaders} entran en la clave además de método y URL;
+     * {@code routes} fija el TTL por prefijo de path sin importar lo que diga el upstream.
+     */
+    public record Cache(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("64MB") DataSize maxSize,
+            @DefaultValue("1MB") DataSize maxEntrySize,
+            @DefaultValue("16") int segments,
+            @DefaultValue({"Accept", "Accept-Language"}) List<String> keyHeaders,
+            @DefaultValue List<Route> routes
+    ) {
+    }
+
+    public record Route(String pathPrefix, Duration ttl) {
+    }
+
+    /** Single-flight de GET/HEAD idénticos en vuelo; sólo se comparten bodies de hasta {@code maxBodySize}. */
+    public record Coalescing(@DefaultValue("false") boolean enabled, @DefaultValue("1MB") DataSize maxBodySize) {
+    }
+
+    /**
+     * {@code decode}: el cliente HTTP pide gzip y lo descomprime (bodies sin codificar al cliente).
+     * {@code passthrough}: los bytes codificados del upstream se reenvían si el cliente los acepta
+     * y se decodifican sólo si no.
+     */
+    public record Compression(@DefaultValue("decode") Mode mode) {
+        public enum Mode {
+            DECODE, PASSTHROUGH
+        }
+    }
+
+    /**
+     * Política de headers: permitidos hacia el backend, descartados hacia el cliente (además de
+     * los hop-by-hop) y headers de seguridad. Cada ruta suma sus listas a las de base.
+     */
+    public record Headers(
+            @DefaultValue({"Accept", "Accept-Language", "Accept-Charset", "Content-Type", "Authorization", "User-Agent"})
+            List<String> requestAllow,
+            @DefaultValue List<String> responseDeny,
+            @DefaultValue("true") boolean securityHeaders,
+            @DefaultValue List<HeaderRoute> routes
+    ) {
+    }
+
+    /** {@code securityHeaders} sin valor hereda el de base. */
+    public record HeaderRoute(
+            String pathPrefix,
+            @DefaultValue List<String> requestAllow,
+            @DefaultValue List<String> responseDeny,
+            Boolean securityHeaders
+    ) {
     }
 }
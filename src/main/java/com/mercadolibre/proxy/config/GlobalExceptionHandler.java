@@ -1,5 +1,6 @@
 package com.mercadolibre.proxy.config;
 
+import com.mercadolibre.proxy.infrastructure.http.ConcurrencyLimitExceededException;
 import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -19,4 +20,11 @@ public class GlobalExceptionHandler {
     public ResponseEntity<String> handleOpenCircuit(CallNotPermittedException ex) {
         return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Upstream temporarily unavailable");
     }
+
+    @ExceptionHandler(ConcurrencyLimitExceededException.class)
+    public ResponseEntity<String> handleConcurrencyLimit(ConcurrencyLimitExceededException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body("Upstream overloaded");
+    }
 }
@@ -5,8 +5,11 @@ import org.springframework.context.annotation.Configuration;
 
 @Configuration
 @EnableConfigurationProperties({
+        AccessLogProperties.class,
         ForwardingFeaturesProperties.class,
-        RateLimiterProperties.class
+        RateLimiterProperties.class,
+        RoutingProperties.class,
+        ServerHttp2Properties.class
 })
 public class PropertiesConfig {
 }
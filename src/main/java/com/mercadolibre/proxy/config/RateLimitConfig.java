@@ -2,11 +2,21 @@ package com.mercadolibre.proxy.config;
 
 import com.mercadolibre.proxy.ratelimit.core.*;
 import com.mercadolibre.proxy.ratelimit.core.Condition;
+import com.mercadolibre.proxy.metrics.ProxyMetrics;
+import com.mercadolibre.proxy.ratelimit.memory.BoundedBucketStore;
+import com.mercadolibre.proxy.ratelimit.memory.LocalLimiter;
 import com.mercadolibre.proxy.ratelimit.memory.MemoryRateLimiterBackend;
+import com.mercadolibre.proxy.ratelimit.memory.PrimitiveRateLimiterBackend;
+import com.mercadolibre.proxy.ratelimit.memory.PrimitiveTokenBucketEngine;
+import com.mercadolibre.proxy.ratelimit.redis.BatchingRateLimiterBackend;
+import com.mercadolibre.proxy.ratelimit.redis.LeasingRateLimiterBackend;
 import com.mercadolibre.proxy.ratelimit.redis.RedisRateLimiterBackend;
+import com.mercadolibre.proxy.ratelimit.redis.RedisShards;
 import com.mercadolibre.proxy.web.filter.RateLimitEngineFilter;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.*;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.List;
 
@@ -17,14 +27,44 @@ public class RateLimitConfig {
 
     @Bean
     @ConditionalOnProperty(name="proxy.rate-limiter.backend", havingValue="memory", matchIfMissing = true)
-    public RateLimiterBackend memoryBackend() {
-        return new MemoryRateLimiterBackend();
+    public RateLimiterBackend memoryBackend(RateLimiterProperties props, ProxyMetrics metrics) {
+        var mem = props.memory();
+        if ("primitive".equalsIgnoreCase(mem.engine())) {
+            // Una capacidad fuera de rango falla el arranque, no cada request
+            for (int capacity : new int[]{props.ipPerMinute(), props.categoriesPerMinute(), props.itemsIpPerMinute()}) {
+                PrimitiveRateLimiterBackend.checkCapacity(props.algorithm(), capacity);
+            }
+            var engine = new PrimitiveTokenBucketEngine(mem.maxEntries(), mem.segments());
+            // Sin expiración por inactividad: las claves sólo salen al ser reemplazadas
+            metrics.bindRateLimitStore(engine, PrimitiveTokenBucketEngine::size,
+                    PrimitiveTokenBucketEngine::replacements);
+            return new PrimitiveRateLimiterBackend(engine);
+        }
+        var store = new BoundedBucketStore<LocalLimiter>(mem.maxEntries(), mem.segments());
+        metrics.bindRateLimitStore(store, BoundedBucketStore::size,
+                BoundedBucketStore::evictions, BoundedBucketStore::expirations);
+        return new MemoryRateLimiterBackend(store);
     }
 
     @Bean
     @ConditionalOnProperty(name="proxy.rate-limiter.backend", havingValue="redis")
-    public RateLimiterBackend redisBackend(org.springframework.data.redis.core.ReactiveStringRedisTemplate tpl) {
-        return new RedisRateLimiterBackend(tpl);
+    public RateLimiterBackend redisBackend(org.springframework.data.redis.core.ReactiveStringRedisTemplate tpl,
+                                           ObjectProvider<RedisShards> shards,
+                                           RateLimiterProperties props, ProxyMetrics metrics) {
+        // Sin el perfil redis (RedisConfig) se usa un único nodo con el template de Boot
+        var ring = shards.getIfAvailable();
+        var redis = ring != null ? new RedisRateLimiterBackend(ring.ring(), metrics) : new RedisRateLimiterBackend(tpl);
+        RateLimiterBackend backend = redis;
+        var batch = props.redis().batch();
+        if (batch.enabled()) {
+            backend = new BatchingRateLimiterBackend(redis, batch.maxSize(), batch.maxDelay(), Schedulers.parallel(), metrics);
+        }
+        var lease = props.redis().lease();
+        if (lease.enabled()) {
+            backend = new LeasingRateLimiterBackend(redis, backend, lease.minCapacity(), lease.tolerance(),
+                    lease.horizon(), lease.idleReturn(), Schedulers.parallel(), metrics);
+        }
+        return backend;
     }
 
     @Bean
@@ -33,6 +73,7 @@ public class RateLimitConfig {
                 .when(Condition.always())
                 .key(KeyGenerator.ip())
                 .limit(Limit.perMinute(props.ipPerMinute()))
+                .algorithm(props.algorithm())
                 .backend(backend)
                 .build();
     }
@@ -43,6 +84,7 @@ public class RateLimitConfig {
                 .when(Condition.pathStartsWith("/categories"))
                 .key(KeyGenerator.constant("categories"))
                 .limit(Limit.perMinute(props.categoriesPerMinute()))
+                .algorithm(props.algorithm())
                 .backend(backend)
                 .build();
     }
@@ -53,34 +95,37 @@ public class RateLimitConfig {
                 .when(Condition.pathStartsWith(PATH_ITEMS))
                 .key(KeyGenerator.compose(KeyGenerator.ip(), KeyGenerator.constant(PATH_ITEMS)))
                 .limit(Limit.perMinute(props.itemsIpPerMinute()))
+                .algorithm(props.algorithm())
                 .backend(backend)
                 .build();
     }
 
     @Bean
     @ConditionalOnProperty(name="proxy.rate-limiter.extra.ip-path-token.enabled", havingValue="true", matchIfMissing = false)
-    public RateLimitRule ipPathToken(RateLimiterBackend backend) {
+    public RateLimitRule ipPathToken(RateLimiterBackend backend, RateLimiterProperties props) {
         return RuleBuilder.named("ip_path_token")
                 .when(Condition.pathStartsWith("/secure").and(Condition.hasHeader("X-Api-Token")))
                 .key(KeyGenerator.compose(KeyGenerator.ip(), KeyGenerator.path(), KeyGenerator.header("X-Api-Token")))
                 .limit(Limit.perMinute(50))
+                .algorithm(props.algorithm())
                 .backend(backend)
                 .build();
     }
 
     @Bean
     @ConditionalOnProperty(name="proxy.rate-limiter.extra.ip-path-method.enabled", havingValue="true", matchIfMissing = false)
-    public RateLimitRule ipPathMethod(RateLimiterBackend backend) {
+    public RateLimitRule ipPathMethod(RateLimiterBackend backend, RateLimiterProperties props) {
         return RuleBuilder.named("ip_path_method")
                 .when(Condition.pathStartsWith(PATH_ITEMS).and(Condition.methodIs(org.springframework.http.HttpMethod.POST)))
                 .key(KeyGenerator.compose(KeyGenerator.ip(), KeyGenerator.path(), KeyGenerator.method()))
                 .limit(Limit.perMinute(20))
+                .algorithm(props.algorithm())
                 .backend(backend)
                 .build();
     }
 
     @Bean
-    public RateLimitEngineFilter rateLimitEngineFilter(List<RateLimitRule> rules, com.mercadolibre.proxy.metrics.ProxyMetrics metrics) {
+    public RateLimitEngineFilter rateLimitEngineFilter(List<RateLimitRule> rules, ProxyMetrics metrics) {
         return new RateLimitEngineFilter(rules, metrics);
     }
 }
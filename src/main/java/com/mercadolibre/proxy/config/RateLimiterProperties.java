@@ -1,16 +1,68 @@
 package com.mercadolibre.proxy.config;
 
+import com.mercadolibre.proxy.ratelimit.core.Algorithm;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.Duration;
+import java.util.List;
+
 @Validated
 @ConfigurationProperties(prefix = "proxy.rate-limiter")
 public record RateLimiterProperties(
         @NotBlank String backend,              // "memory" | "redis"
         @Min(1) int ipPerMinute,               // límite por IP
         @Min(1) int categoriesPerMinute,       // límite global /categories/*
-        @Min(1) int itemsIpPerMinute           // límite por IP + /items/*
+        @Min(1) int itemsIpPerMinute,          // límite por IP + /items/*
+        @DefaultValue("fixed-window") Algorithm algorithm, // fixed-window | sliding-window | gcra
+        @DefaultValue Memory memory,
+        @DefaultValue Redis redis
 ) {
+    /**
+     * Store en memoria: motor ("bucket4j" | "primitive"), tope de claves vivas y cantidad de segmentos.
+     */
+    public record Memory(
+            @DefaultValue("bucket4j") String engine,
+            @DefaultValue("1000000") @Min(1) int maxEntries,
+            @DefaultValue("64") @Min(1) int segments
+    ) {
+    }
+
+    /**
+     * {@code shards}: nodos Redis independientes ("host:port") entre los que se reparten las claves
+     * por hashing consistente con {@code virtualNodes} puntos por nodo; vacío usa sólo
+     * spring.data.redis. Password y timeout salen de spring.data.redis.
+     */
+    public record Redis(
+            @DefaultValue Batch batch,
+            @DefaultValue Lease lease,
+            @DefaultValue List<String> shards,
+            @DefaultValue("160") @Min(1) int virtualNodes
+    ) {
+    }
+
+    /**
+     * Micro-batching de evaluaciones concurrentes hacia Redis.
+     */
+    public record Batch(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("64") int maxSize,       // flush al llegar a este tamaño
+            @DefaultValue("1ms") Duration maxDelay // o al pasar este tiempo desde el primero encolado
+    ) {
+    }
+
+    /**
+     * Reserva local de permisos para claves de límite alto.
+     */
+    public record Lease(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("5000") int minCapacity,      // sólo claves con capacidad >= a esto (por encima del límite por IP)
+            @DefaultValue("0.01") double tolerance,     // máx. reservado sin usar por instancia (fracción de la capacidad)
+            @DefaultValue("200ms") Duration horizon,    // cada lote cubre ~este tiempo de tráfico observado
+            @DefaultValue("1s") Duration idleReturn     // devuelve lo no usado tras este tiempo sin tráfico
+    ) {
+    }
 }
@@ -1,7 +1,14 @@
 package com.mercadolibre.proxy.config;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
+import com.mercadolibre.proxy.ratelimit.redis.ConsistentHashRing;
+import com.mercadolibre.proxy.ratelimit.redis.RedisShard;
+import com.mercadolibre.proxy.ratelimit.redis.RedisShards;
 import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.*;
@@ -16,8 +23,42 @@ public class RedisConfig {
 
     @Bean
     public ReactiveRedisConnectionFactory reactiveRedisConnectionFactory(RedisProperties props) {
-        RedisStandaloneConfiguration standalone = new RedisStandaloneConfiguration(
-                props.getHost(), props.getPort());
+        return connectionFactory(props, props.getHost(), props.getPort());
+    }
+
+    @Bean
+    public ReactiveStringRedisTemplate reactiveStringRedisTemplate(ReactiveRedisConnectionFactory cf) {
+        return new ReactiveStringRedisTemplate(cf);
+    }
+
+    /**
+     * Shards del rate limiter: sin proxy.rate-limiter.redis.shards es el Redis de spring.data.redis;
+     * con shards, una conexión propia por nodo (cerradas al apagar).
+     */
+    @Bean(destroyMethod = "close")
+    public RedisShards redisShards(RedisProperties props, RateLimiterProperties rateLimiter, ReactiveStringRedisTemplate tpl) {
+        var redis = rateLimiter.redis();
+        Map<String, RedisShard> nodes = new LinkedHashMap<>();
+        List<AutoCloseable> resources = new ArrayList<>();
+        if (redis.shards().isEmpty()) {
+            String name = props.getHost() + ":" + props.getPort();
+            nodes.put(name, new RedisShard(name, tpl));
+        }
+        for (String node : redis.shards()) {
+            int colon = node.lastIndexOf(':');
+            String host = colon < 0 ? node : node.substring(0, colon);
+            int port = colon < 0 ? 6379 : Integer.parseInt(node.substring(colon + 1));
+            LettuceConnectionFactory cf = connectionFactory(props, host, port);
+            cf.afterPropertiesSet();
+            cf.start();
+            resources.add(cf::destroy);
+            nodes.put(node, new RedisShard(node, new ReactiveStringRedisTemplate(cf)));
+        }
+        return new RedisShards(new ConsistentHashRing<>(nodes, redis.virtualNodes()), resources);
+    }
+
+    private static LettuceConnectionFactory connectionFactory(RedisProperties props, String host, int port) {
+        RedisStandaloneConfiguration standalone = new RedisStandaloneConfiguration(host, port);
         if (props.getPassword() != null && !props.getPassword().isEmpty()) {
             standalone.setPassword(RedisPassword.of(props.getPassword()));
         }
@@ -29,9 +70,4 @@ public class RedisConfig {
 
         return new LettuceConnectionFactory(standalone, clientCfg);
     }
-
-    @Bean
-    public ReactiveStringRedisTemplate reactiveStringRedisTemplate(ReactiveRedisConnectionFactory cf) {
-        return new ReactiveStringRedisTemplate(cf);
-    }
 }
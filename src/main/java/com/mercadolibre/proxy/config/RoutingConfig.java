@@ -0,0 +1,209 @@
+package com.mercadolibre.proxy.config;
+
+import com.mercadolibre.proxy.infrastructure.http.ConcurrencyLimitingHttpClientGateway;
+import com.mercadolibre.proxy.infrastructure.http.GradientConcurrencyLimit;
+import com.mercadolibre.proxy.infrastructure.http.HedgingHttpClientGateway;
+import com.mercadolibre.proxy.infrastructure.http.HttpClientGateway;
+import com.mercadolibre.proxy.infrastructure.http.LoadBalancingHttpClientGateway;
+import com.mercadolibre.proxy.infrastructure.http.RequestBudget;
+import com.mercadolibre.proxy.infrastructure.http.ResilientHttpClientGateway;
+import com.mercadolibre.proxy.infrastructure.http.RetryingHttpClientGateway;
+import com.mercadolibre.proxy.infrastructure.http.RollingLatency;
+import com.mercadolibre.proxy.infrastructure.http.RoutingHttpClientGateway;
+import com.mercadolibre.proxy.infrastructure.http.UpstreamConnectionWarmup;
+import com.mercadolibre.proxy.infrastructure.http.WebClientHttpClient;
+import com.mercadolibre.proxy.metrics.ProxyMetrics;
+import com.mercadolibre.proxy.routing.RouteTable;
+import com.mercadolibre.proxy.routing.Upstream;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.netty.handler.timeout.WriteTimeoutHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.Http2AllocationStrategy;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tabla de rutas y un cliente HTTP por upstream: pool de conexiones, timeouts y circuit breaker
+ * propios, para que un upstream lento o saturado no consuma los recursos de los demás. Un upstream
+ * con varias réplicas se balancea entre ellas ({@link LoadBalancingHttpClientGateway}). Cadena por
+ * upstream: hedging → reintentos → límite de concurrencia → circuit breaker → balanceo → WebClient;
+ * cada intento pasa por el límite y el circuit breaker.
+ */
+@Configuration
+public class RoutingConfig {
+
+    @Bean
+    public RouteTable routeTable(RoutingProperties props, @Value("${backend.base-url}") String backendBaseUrl) {
+        Map<String, Upstream> named = new HashMap<>();
+        props.upstreams().forEach((name, u) -> named.put(name, new Upstream(name, u.baseUrl())));
+        Map<String, Upstream> routes = new LinkedHashMap<>();
+        for (var r : props.routes()) {
+            Upstream u = named.get(r.upstream());
+            if (u == null) throw new IllegalStateException("route " + r.pathPrefix() + " points to unknown upstream " + r.upstream());
+            routes.put(r.pathPrefix(), u);
+        }
+        return new RouteTable(new Upstream(Upstream.DEFAULT, backendBaseUrl), routes);
+    }
+
+    @Bean
+    public UpstreamConnectionWarmup upstreamConnectionWarmup() {
+        return new UpstreamConnectionWarmup();
+    }
+
+    /**
+     * El warm-up corre antes de que la aplicación pase a lista (readiness) y no la bloquea más que
+     * el timeout configurado.
+     */
+    @Bean
+    public ApplicationRunner upstreamWarmupRunner(UpstreamConnectionWarmup warmup) {
+        return args -> warmup.run().block();
+    }
+
+    @Bean
+    public HttpClientGateway upstreamGateway(RouteTable table, RoutingProperties props, ForwardingFeaturesProperties features,
+                                             CircuitBreakerRegistry cbRegistry, TimeLimiterRegistry tlRegistry,
+                                             ProxyMetrics metrics, UpstreamConnectionWarmup warmup) {
+        Map<String, HttpClientGateway> gateways = new HashMap<>();
+        table.upstreams().forEach((name, upstream) -> {
+            boolean isDefault = Upstream.DEFAULT.equals(name);
+            var cfg = isDefault ? null : props.upstreams().get(name);
+            var client = isDefault ? props.client() : cfg.client();
+            boolean decompress = features.compression().mode() == ForwardingFeaturesProperties.Compression.Mode.DECODE;
+            HttpClient httpClient = httpClient(name, client, decompress);
+            HttpClientGateway gw = new WebClientHttpClient(WebClient.builder()
+                    .clientConnector(new ReactorClientHttpConnector(httpClient))
+                    .build());
+            List<String> replicas = isDefault ? props.instances() : cfg.instances();
+            for (String url : replicas.isEmpty() ? List.of(upstream.baseUrl()) : replicas) {
+                var w = client.warmup();
+                warmup.add(name, httpClient, new Upstream(name, url).target(w.path(), null).toString(),
+                        w.connections(), w.timeout());
+            }
+            if (!replicas.isEmpty()) {
+                gw = loadBalanced(upstream, replicas, gw, props.loadBalancer(), cbRegistry, metrics);
+            }
+            if (features.resilience().enabled()) {
+                String cb = isDefault ? features.resilience().instanceName()
+                        : cfg.circuitBreaker() != null ? cfg.circuitBreaker() : name;
+                gw = new ResilientHttpClientGateway(gw, cbRegistry.circuitBreaker(cb), tlRegistry.timeLimiter(cb));
+            }
+            var cl = props.concurrencyLimit();
+            if (cl.enabled()) {
+                // Las réplicas comparten el ConnectionProvider, pero reactor-netty arma un pool por réplica
+                long capacity = client.inFlightCapacity() * Math.max(1, replicas.size());
+                var limit = new GradientConcurrencyLimit(cl.initialLimit(), cl.minLimit(),
+                        (int) Math.min(cl.maxLimit(), capacity), cl.smoothing(), cl.rttTolerance(), cl.longWindow());
+                metrics.bindConcurrencyLimit(limit, name, GradientConcurrencyLimit::limit,
+                        GradientConcurrencyLimit::inFlight, GradientConcurrencyLimit::rejected);
+                gw = new ConcurrencyLimitingHttpClientGateway(gw, limit, name);
+            }
+            var retry = props.retry();
+            if (retry.enabled()) {
+                var retrying = new RetryingHttpClientGateway(gw,
+                        new RequestBudget(retry.budgetPercent() / 100.0, retry.budgetBurst()),
+                        retry.maxAttempts(), retry.backoff(), retry.maxBackoff());
+                metrics.bindRetry(retrying, name, RetryingHttpClientGateway::retries,
+                        RetryingHttpClientGateway::budgetExhausted);
+                gw = retrying;
+            }
+            if (props.hedging().enabled()) {
+                gw = hedged(name, gw, props.hedging(), metrics);
+            }
+            gateways.put(name, gw);
+        });
+        return new RoutingHttpClientGateway(gateways, gateways.get(Upstream.DEFAULT));
+    }
+
+    /**
+     * Un circuit breaker por réplica ("upstream@host:puerto", config "default") que la saca del
+     * balanceo mientras está abierto; el circuit breaker del upstream queda por encima.
+     */
+    private static HttpClientGateway loadBalanced(Upstream upstream, List<String> replicas, HttpClientGateway client,
+                                                  RoutingProperties.LoadBalancer lb, CircuitBreakerRegistry cbRegistry,
+                                                  ProxyMetrics metrics) {
+        List<LoadBalancingHttpClientGateway.Instance> instances = new ArrayList<>(replicas.size());
+        for (String url : replicas) {
+            String id = upstream.name() + "@" + URI.create(url).getRawAuthority();
+            var instance = new LoadBalancingHttpClientGateway.Instance(url, cbRegistry.circuitBreaker(id));
+            metrics.bindUpstreamInstance(instance, upstream.name(), instance.baseUrl(),
+                    LoadBalancingHttpClientGateway.Instance::inFlight,
+                    LoadBalancingHttpClientGateway.Instance::latencySeconds,
+                    i -> i.ejected() ? 1 : 0);
+            instances.add(instance);
+        }
+        return new LoadBalancingHttpClientGateway(upstream.baseUrl(), instances, client, lb.latencyDecay());
+    }
+
+    /**
+     * Por fuera del límite de concurrencia: cada intento ocupa su lugar y un hedge rechazado por el
+     * límite simplemente no ocurre.
+     */
+    private static HttpClientGateway hedged(String upstream, HttpClientGateway gw, RoutingProperties.Hedging h,
+                                            ProxyMetrics metrics) {
+        var hedging = new HedgingHttpClientGateway(gw,
+                new RollingLatency(h.window().toNanos(), h.minSamples()),
+                new RequestBudget(h.budgetPercent() / 100.0, h.budgetBurst()),
+                h.quantile(), h.minDelay(), h.maxDelay());
+        metrics.bindHedging(hedging, upstream, HedgingHttpClientGateway::eligible, HedgingHttpClientGateway::hedges,
+                HedgingHttpClientGateway::wins, HedgingHttpClientGateway::budgetExhausted,
+                HedgingHttpClientGateway::delaySeconds);
+        return hedging;
+    }
+
+    /**
+     * {@code decompress}: pide gzip y lo descomprime en el pipeline; sin él los bytes codificados
+     * llegan tal cual (modo passthrough de forwarding.compression).
+     */
+    private static HttpClient httpClient(String upstream, RoutingProperties.Client c, boolean decompress) {
+        ConnectionProvider.Builder pool = ConnectionProvider.builder("proxy-pool-" + upstream)
+                .maxConnections(c.maxConnections())
+                .pendingAcquireMaxCount(c.pendingAcquireMaxCount())
+                .pendingAcquireTimeout(c.pendingAcquireTimeout())
+                .maxIdleTime(c.maxIdleTime())
+                .maxLifeTime(c.maxLifeTime())
+                .evictInBackground(c.evictInterval())
+                // reactor_netty_connection_provider_{active,idle,pending,total}_connections y
+                // ..._pending_connections_time (latencia de acquire), tag "name" = proxy-pool-<upstream>
+                .metrics(c.poolMetrics());
+        if (c.protocol() != RoutingProperties.Protocol.HTTP11) {
+            pool.allocationStrategy(Http2AllocationStrategy.builder()
+                    .maxConnections(c.h2MaxConnections())
+                    .minConnections(1)
+                    .maxConcurrentStreams(c.h2MaxConcurrentStreams())
+                    .build());
+        }
+
+        long readWriteMs = c.responseTimeout().toMillis();
+        HttpClient httpClient = HttpClient.create(pool.build())
+                .protocol(switch (c.protocol()) {
+                    case HTTP11 -> new HttpProtocol[]{HttpProtocol.HTTP11};
+                    case H2 -> new HttpProtocol[]{HttpProtocol.H2, HttpProtocol.HTTP11};
+                    case H2C -> new HttpProtocol[]{HttpProtocol.H2C};
+                })
+                .followRedirect(true)
+                .compress(decompress)
+                .responseTimeout(c.responseTimeout())
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) c.connectTimeout().toMillis())
+                .doOnConnected(conn -> conn
+                        .addHandlerLast(new ReadTimeoutHandler(readWriteMs, TimeUnit.MILLISECONDS))
+                        .addHandlerLast(new WriteTimeoutHandler(readWriteMs, TimeUnit.MILLISECONDS)));
+        return httpClient;
+    }
+}
@@ -0,0 +1,141 @@
+package com.mercadolibre.proxy.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Upstreams con nombre y rutas por prefijo de path. El upstream "default" es {@code backend.base-url}
+ * con el cliente {@code client} y las réplicas {@code instances}; lo que no coincide con ninguna
+ * ruta va ahí.
+ */
+@ConfigurationProperties(prefix = "routing")
+public record RoutingProperties(
+        @DefaultValue Client client,
+        @DefaultValue List<String> instances,
+        @DefaultValue Map<String, Upstream> upstreams,
+        @DefaultValue List<Route> routes,
+        @DefaultValue LoadBalancer loadBalancer,
+        @DefaultValue ConcurrencyLimit concurrencyLimit,
+        @DefaultValue Hedging hedging,
+        @DefaultValue Retry retry
+) {
+    /**
+     * Pool y timeouts del cliente HTTP de un upstream. Las conexiones ociosas más de
+     * {@code maxIdleTime} o con más de {@code maxLifeTime} se cierran (también en segundo plano cada
+     * {@code evictInterval}). Con {@code protocol} h2 (TLS, con fallback a HTTP/1.1 por ALPN) o h2c
+     * (prior knowledge) el pool abre hasta {@code h2MaxConnections} conexiones y multiplexa hasta
+     * {@code h2MaxConcurrentStreams} requests en cada una; {@code maxConnections} aplica a HTTP/1.1.
+     */
+    public record Client(
+            @DefaultValue("200") int maxConnections,
+            @DefaultValue("1000") int pendingAcquireMaxCount,
+            @DefaultValue("5s") Duration pendingAcquireTimeout,
+            @DefaultValue("10s") Duration connectTimeout,
+            @DefaultValue("5s") Duration responseTimeout,
+            @DefaultValue("30s") Duration maxIdleTime,
+            @DefaultValue("5m") Duration maxLifeTime,
+            @DefaultValue("30s") Duration evictInterval,
+            @DefaultValue("true") boolean poolMetrics,
+            @DefaultValue("http11") Protocol protocol,
+            @DefaultValue("4") int h2MaxConnections,
+            @DefaultValue("100") int h2MaxConcurrentStreams,
+            @DefaultValue Warmup warmup
+    ) {
+        /** Requests simultáneas que el pool puede llevar a una réplica (el pool es por dirección remota). */
+        public long inFlightCapacity() {
+            return protocol == Protocol.HTTP11 ? maxConnections : (long) h2MaxConnections * h2MaxConcurrentStreams;
+        }
+    }
+
+    public enum Protocol {
+        HTTP11, H2, H2C
+    }
+
+    /**
+     * Conexiones que se abren al arrancar contra cada réplica (HEAD a {@code path}) antes de
+     * marcar la aplicación lista; 0 lo desactiva.
+     */
+    public record Warmup(
+            @DefaultValue("0") int connections,
+            @DefaultValue("/") String path,
+            @DefaultValue("5s") Duration timeout
+    ) {
+    }
+
+    /**
+     * {@code circuitBreaker}: instancia de Resilience4j (circuit breaker y time limiter); por
+     * defecto el nombre del upstream, con la configuración "default". {@code instances}: réplicas
+     * entre las que se balancea (vacío: sólo {@code baseUrl}); deben servir el mismo path base.
+     */
+    public record Upstream(
+            String baseUrl,
+            @DefaultValue List<String> instances,
+            @DefaultValue Client client,
+            String circuitBreaker
+    ) {
+    }
+
+    /**
+     * {@code latencyDecay}: constante de tiempo del promedio exponencial de latencia por instancia.
+     */
+    public record LoadBalancer(@DefaultValue("10s") Duration latencyDecay) {
+    }
+
+    /**
+     * Límite de concurrencia adaptativo por upstream (uno por upstream, mismos parámetros).
+     * {@code maxLimit} se acota además a lo que puede llevar el pool del upstream: réplicas ×
+     * {@code max-connections} con HTTP/1.1, o réplicas × {@code h2-max-connections} ×
+     * {@code h2-max-concurrent-streams} con h2/h2c.
+     */
+    public record ConcurrencyLimit(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("20") int initialLimit,
+            @DefaultValue("4") int minLimit,
+            @DefaultValue("200") int maxLimit,
+            @DefaultValue("0.2") double smoothing,
+            @DefaultValue("1.5") double rttTolerance,
+            @DefaultValue("600") int longWindow
+    ) {
+    }
+
+    /**
+     * Hedging de GET/HEAD por upstream. El segundo intento sale pasado el cuantil {@code quantile}
+     * de la latencia de las últimas una o dos {@code window} (sin hedge hasta juntar
+     * {@code minSamples}), acotado a [minDelay, maxDelay]. {@code budgetPercent}: carga extra máxima
+     * en % de las requests elegibles, con {@code budgetBurst} hedges de margen.
+     */
+    public record Hedging(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("0.95") double quantile,
+            @DefaultValue("5ms") Duration minDelay,
+            @DefaultValue("1s") Duration maxDelay,
+            @DefaultValue("5") double budgetPercent,
+            @DefaultValue("10") int budgetBurst,
+            @DefaultValue("10s") Duration window,
+            @DefaultValue("100") int minSamples
+    ) {
+    }
+
+    /**
+     * Reintentos por upstream de GET/HEAD/PUT/DELETE sin body ante fallas de conexión o 502/503.
+     * {@code maxAttempts} cuenta el intento original; el backoff se duplica por intento hasta
+     * {@code maxBackoff}, con jitter. {@code budgetPercent}: reintentos máximos en % de las
+     * requests reintentables, con {@code budgetBurst} de margen.
+     */
+    public record Retry(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("3") int maxAttempts,
+            @DefaultValue("25ms") Duration backoff,
+            @DefaultValue("250ms") Duration maxBackoff,
+            @DefaultValue("10") double budgetPercent,
+            @DefaultValue("10") int budgetBurst
+    ) {
+    }
+
+    public record Route(String pathPrefix, String upstream) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.mercadolibre.proxy.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * HTTP/2 en el listener. Boot arma los protocolos con {@code server.http2.enabled}: h2 por ALPN si
+ * hay {@code server.ssl}, si no h2c (prior knowledge o upgrade) junto a HTTP/1.1 en el mismo
+ * puerto. Acá sólo se aplican los límites por conexión; cada stream llega a la cadena de filtros
+ * y al controller como una request más.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "server.http2", name = "enabled", havingValue = "true")
+public class ServerHttp2Config {
+
+    @Bean
+    public WebServerFactoryCustomizer<NettyReactiveWebServerFactory> http2SettingsCustomizer(ServerHttp2Properties props) {
+        return factory -> factory.addServerCustomizers(server -> server.http2Settings(s -> s
+                .maxConcurrentStreams(props.maxConcurrentStreams())
+                .initialWindowSize((int) props.initialWindowSize().toBytes())
+                .maxFrameSize((int) props.maxFrameSize().toBytes())
+                .maxHeaderListSize(props.maxHeaderListSize().toBytes())));
+    }
+}
@@ -0,0 +1,19 @@
+package com.mercadolibre.proxy.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Settings HTTP/2 que el listener anuncia a cada conexión cuando {@code server.http2.enabled}:
+ * streams concurrentes por conexión, ventana inicial de control de flujo por stream, tamaño
+ * máximo de frame y de la lista de headers.
+ */
+@ConfigurationProperties(prefix = "proxy.server.http2")
+public record ServerHttp2Properties(
+        @DefaultValue("256") long maxConcurrentStreams,
+        @DefaultValue("1MB") DataSize initialWindowSize,
+        @DefaultValue("16KB") DataSize maxFrameSize,
+        @DefaultValue("16KB") DataSize maxHeaderListSize
+) {
+}
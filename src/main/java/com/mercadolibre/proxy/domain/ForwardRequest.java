@@ -1,14 +1,36 @@
 package com.mercadolibre.proxy.domain;
 
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import reactor.core.publisher.Flux;
 
 import java.net.URI;
 
+/**
+ * Request hacia el backend. El body es el stream original del cliente (sin copia);
+ * {@code null} indica que la request no trae body. {@code upstream} es el nombre del upstream
+ * resuelto por la tabla de rutas ({@code null}: el default).
+ */
 public record ForwardRequest(
         URI targetUri,
         HttpMethod method,
         HttpHeaders headers,
-        byte[] body
+        Flux<DataBuffer> body,
+        String upstream
 ) {
+    public ForwardRequest(URI targetUri, HttpMethod method, HttpHeaders headers, Flux<DataBuffer> body) {
+        this(targetUri, method, headers, body, null);
+    }
+
+    public ForwardRequest(URI targetUri, HttpMethod method, HttpHeaders headers, byte[] body) {
+        this(targetUri, method, headers, body != null && body.length > 0
+                ? Flux.defer(() -> Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body)))
+                : null);
+    }
+
+    public boolean hasBody() {
+        return body != null;
+    }
 }
@@ -1,10 +1,28 @@
 package com.mercadolibre.proxy.domain;
 
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.HttpHeaders;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+/**
+ * Respuesta del backend. El body se consume una sola vez y en streaming: quien lo
+ * reciba debe escribirlo o descartarlo con {@link #discardBody()} para liberar los buffers.
+ */
 public record ForwardResponse(
         int status,
         HttpHeaders headers,
-        byte[] body
+        Flux<DataBuffer> body
 ) {
+    public ForwardResponse(int status, HttpHeaders headers, byte[] body) {
+        this(status, headers, body != null && body.length > 0
+                ? Flux.defer(() -> Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body)))
+                : Flux.empty());
+    }
+
+    public Mono<Void> discardBody() {
+        return body.doOnNext(DataBufferUtils::release).then();
+    }
 }
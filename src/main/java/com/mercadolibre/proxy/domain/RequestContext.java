@@ -3,12 +3,19 @@ package com.mercadolibre.proxy.domain;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 
+/**
+ * {@code path} es el path crudo que pidió el cliente, antes de anteponerle el path base del
+ * upstream: las reglas por prefijo (headers, cache) se configuran sobre ese.
+ */
 public record RequestContext(
         String traceId,
         String reqId,
         HttpMethod method,
         String targetUrl,
+        String path,
         HttpHeaders inboundHeaders,
         long startNanos
 ) {
+    /** Atributo del exchange donde el controller deja el contexto (lo lee el access log). */
+    public static final String ATTRIBUTE = RequestContext.class.getName();
 }
@@ -0,0 +1,18 @@
+package com.mercadolibre.proxy.infrastructure.http;
+
+/**
+ * El upstream ya tiene tantas llamadas en vuelo como su límite adaptativo: se responde 503 sin llamarlo.
+ */
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    private final String upstream;
+
+    public ConcurrencyLimitExceededException(String upstream) {
+        super("concurrency limit reached for upstream " + upstream, null, false, false);
+        this.upstream = upstream;
+    }
+
+    public String upstream() {
+        return upstream;
+    }
+}
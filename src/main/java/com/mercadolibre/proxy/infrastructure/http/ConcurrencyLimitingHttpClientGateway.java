@@ -0,0 +1,63 @@
+package com.mercadolibre.proxy.infrastructure.http;
+
+import com.mercadolibre.proxy.domain.ForwardRequest;
+import com.mercadolibre.proxy.domain.ForwardResponse;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import reactor.core.publisher.Mono;
+
+import java.net.ConnectException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Aplica un {@link GradientConcurrencyLimit} a las llamadas de un upstream. Va por fuera del
+ * circuit breaker: los rechazos son inmediatos ({@link ConcurrencyLimitExceededException}, 503)
+ * y no cuentan como fallas del upstream. El lugar se ocupa hasta recibir los headers de respuesta.
+ * Sólo se muestrean idas y vueltas reales al upstream: los errores que fallan antes de llegar
+ * (circuit breaker abierto, conexión rechazada) liberan el lugar sin muestra, porque su latencia
+ * casi nula bajaría el límite al mínimo y arrastraría el promedio largo.
+ */
+public class ConcurrencyLimitingHttpClientGateway implements HttpClientGateway {
+
+    private final HttpClientGateway delegate;
+    private final GradientConcurrencyLimit limit;
+    private final String upstream;
+
+    public ConcurrencyLimitingHttpClientGateway(HttpClientGateway delegate, GradientConcurrencyLimit limit, String upstream) {
+        this.delegate = delegate;
+        this.limit = limit;
+        this.upstream = upstream;
+    }
+
+    @Override
+    public Mono<ForwardResponse> exchange(ForwardRequest request) {
+        return Mono.defer(() -> {
+            if (!limit.tryAcquire()) return Mono.error(new ConcurrencyLimitExceededException(upstream));
+            long t0 = System.nanoTime();
+            AtomicBoolean released = new AtomicBoolean();
+            return delegate.exchange(request)
+                    .doOnNext(res -> {
+                        if (released.compareAndSet(false, true)) {
+                            limit.onSample(System.nanoTime() - t0, res.status() == 503 || res.status() == 504);
+                        }
+                    })
+                    .doOnError(e -> {
+                        if (!released.compareAndSet(false, true)) return;
+                        if (reachedUpstream(e)) limit.onSample(System.nanoTime() - t0, true);
+                        else limit.onIgnore();
+                    })
+                    .doFinally(s -> {
+                        if (released.compareAndSet(false, true)) limit.onIgnore();
+                    });
+        });
+    }
+
+    /** Falso si la llamada no llegó a salir (breaker abierto o connect fallido, incluido el timeout de connect). */
+    static boolean reachedUpstream(Throwable e) {
+        if (e instanceof CallNotPermittedException) return false;
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof ConnectException) return false;
+            if (t.getCause() == t) break;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,93 @@
+package com.mercadolibre.proxy.infrastructure.http;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Límite de concurrencia adaptativo por gradiente (estilo Gradient2 de Netflix concurrency-limits).
+ * Compara la latencia de cada llamada ({@code shortRtt}) con un promedio largo ({@code longRtt}):
+ * <pre>
+ *   gradiente = clamp(tolerance × longRtt / shortRtt, 0.5, 1)
+ *   nuevo     = límite × gradiente + √límite
+ *   límite    = suavizado entre el anterior y el nuevo, acotado a [min, max]
+ * </pre>
+ * Mientras la latencia se mantiene el límite crece de a √límite; si sube más que la tolerancia el
+ * límite baja, y con él las llamadas en vuelo, antes de que se formen colas en el pool. Una llamada
+ * que falla o vuelve con 503/504 cuenta como gradiente mínimo. Si se usa menos de la mitad del
+ * límite no se recalcula (no hay señal de saturación).
+ */
+public final class GradientConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double tolerance;
+    private final double longRttFactor;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private volatile int limit;
+    private double estimatedLimit;
+    private double longRttNanos;
+
+    public GradientConcurrencyLimit(int initialLimit, int minLimit, int maxLimit,
+                                    double smoothing, double tolerance, int longWindow) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.tolerance = tolerance;
+        this.longRttFactor = 2.0 / (longWindow + 1);
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    /** Reserva un lugar si hay menos llamadas en vuelo que el límite; si no, cuenta el rechazo. */
+    public boolean tryAcquire() {
+        for (;;) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    /** Libera el lugar y ajusta el límite con la latencia medida. */
+    public void onSample(long rttNanos, boolean dropped) {
+        int inFlightAtEnd = inFlight.getAndDecrement();
+        update(Math.max(rttNanos, 1), inFlightAtEnd, dropped);
+    }
+
+    /** Libera el lugar sin muestra (llamada cancelada antes de la respuesta). */
+    public void onIgnore() {
+        inFlight.decrementAndGet();
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    private synchronized void update(long rttNanos, int inFlightAtEnd, boolean dropped) {
+        if (longRttNanos == 0) longRttNanos = rttNanos;
+        else longRttNanos += (rttNanos - longRttNanos) * longRttFactor;
+        // Si la latencia bajó mucho (p.ej. se recuperó el upstream) el promedio largo la sigue más rápido
+        if (longRttNanos / rttNanos > 2) longRttNanos *= 0.95;
+
+        if (!dropped && inFlightAtEnd < estimatedLimit / 2) return;
+
+        double gradient = dropped ? 0.5 : Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / rttNanos));
+        double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        double next = estimatedLimit * (1 - smoothing) + target * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, next));
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,137 @@
+package com.mercadolibre.proxy.infrastructure.http;
+
+import com.mercadolibre.proxy.domain.ForwardRequest;
+import com.mercadolibre.proxy.domain.ForwardResponse;
+import org.springframework.http.HttpMethod;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hedging de GET/HEAD sin body: si el primer intento no respondió en el cuantil {@code quantile}
+ * de la latencia reciente del upstream (acotado a [minDelay, maxDelay]) se lanza un segundo
+ * intento; gana la primera respuesta y el otro se cancela. Los hedges consumen un
+ * {@link RequestBudget}, así la carga extra queda acotada aunque el upstream entero esté lento.
+ * Un error del hedge nunca gana: la respuesta (o el error) la decide el primer intento. Si los dos
+ * intentos llegan a responder, el body del perdedor se descarta para devolver su conexión al pool.
+ */
+public class HedgingHttpClientGateway implements HttpClientGateway {
+
+    private final HttpClientGateway delegate;
+    private final RollingLatency latency;
+    private final RequestBudget budget;
+    private final double quantile;
+    private final long minDelayNanos;
+    private final long maxDelayNanos;
+
+    private final LongAdder eligible = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder wins = new LongAdder();
+    private final LongAdder budgetExhausted = new LongAdder();
+
+    public HedgingHttpClientGateway(HttpClientGateway delegate, RollingLatency latency, RequestBudget budget,
+                                    double quantile, Duration minDelay, Duration maxDelay) {
+        this.delegate = delegate;
+        this.latency = latency;
+        this.budget = budget;
+        this.quantile = quantile;
+        this.minDelayNanos = minDelay.toNanos();
+        this.maxDelayNanos = maxDelay.toNanos();
+    }
+
+    @Override
+    public Mono<ForwardResponse> exchange(ForwardRequest request) {
+        if (!hedgeable(request)) return delegate.exchange(request);
+        return Mono.defer(() -> {
+            eligible.increment();
+            budget.deposit();
+            long delay = delayNanos();
+            if (delay < 0) return timed(request);
+
+            // El primero que responde se queda con el resultado (0 primario, 1 hedge); una respuesta
+            // que ya estaba en vuelo cuando se canceló su intento se descarta
+            AtomicInteger winner = new AtomicInteger(-1);
+            Mono<ForwardResponse> primary = timed(request)
+                    .flatMap(res -> claim(winner, 0, res))
+                    .onErrorResume(e -> winner.compareAndSet(-1, 0) ? Mono.error(e) : Mono.never());
+            Mono<ForwardResponse> hedge = Mono.delay(Duration.ofNanos(delay))
+                    .flatMap(t -> {
+                        if (!budget.tryWithdraw()) {
+                            budgetExhausted.increment();
+                            return Mono.<ForwardResponse>never();
+                        }
+                        hedges.increment();
+                        return delegate.exchange(request)
+                                .flatMap(res -> claim(winner, 1, res))
+                                .onErrorResume(e -> Mono.never());
+                    });
+
+            return Mono.firstWithSignal(primary, hedge)
+                    .doOnNext(res -> {
+                        if (winner.get() == 1) wins.increment();
+                    })
+                    .doOnDiscard(ForwardResponse.class, HedgingHttpClientGateway::release);
+        });
+    }
+
+    private static Mono<ForwardResponse> claim(AtomicInteger winner, int attempt, ForwardResponse res) {
+        if (winner.compareAndSet(-1, attempt)) return Mono.just(res);
+        release(res);
+        return Mono.never();
+    }
+
+    private static void release(ForwardResponse res) {
+        res.discardBody().onErrorResume(e -> Mono.empty()).subscribe();
+    }
+
+    /**
+     * Sólo el primer intento alimenta el histograma; si lo cancela un hedge ganador se registra lo
+     * que llevaba esperando (cota inferior), para no sesgar el cuantil hacia abajo.
+     */
+    private Mono<ForwardResponse> timed(ForwardRequest request) {
+        long t0 = System.nanoTime();
+        AtomicBoolean recorded = new AtomicBoolean();
+        return delegate.exchange(request)
+                .doFinally(s -> {
+                    if (recorded.compareAndSet(false, true)) latency.record(System.nanoTime() - t0);
+                })
+                .doOnNext(res -> {
+                    if (recorded.compareAndSet(false, true)) latency.record(System.nanoTime() - t0);
+                });
+    }
+
+    /** -1 mientras no haya muestras suficientes. */
+    long delayNanos() {
+        long q = latency.quantileNanos(quantile);
+        if (q < 0) return -1;
+        return Math.max(minDelayNanos, Math.min(maxDelayNanos, q));
+    }
+
+    private static boolean hedgeable(ForwardRequest request) {
+        return !request.hasBody() && (request.method() == HttpMethod.GET || request.method() == HttpMethod.HEAD);
+    }
+
+    public long eligible() {
+        return eligible.sum();
+    }
+
+    public long hedges() {
+        return hedges.sum();
+    }
+
+    public long wins() {
+        return wins.sum();
+    }
+
+    public long budgetExhausted() {
+        return budgetExhausted.sum();
+    }
+
+    public double delaySeconds() {
+        long d = delayNanos();
+        return d < 0 ? 0 : d / 1e9;
+    }
+}
@@ -0,0 +1,179 @@
+package com.mercadolibre.proxy.infrastructure.http;
+
+import com.mercadolibre.proxy.domain.ForwardRequest;
+import com.mercadolibre.proxy.domain.ForwardResponse;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Balanceo entre las instancias de un upstream con power-of-two-choices: se sortean dos instancias
+ * y va la de menor costo, {@code latencia EWMA × (requests en vuelo + 1)}. La latencia (hasta los
+ * headers de respuesta) se promedia con decaimiento exponencial en el tiempo y sube de golpe ante
+ * un pico, así una réplica que se pone lenta deja de recibir tráfico enseguida.
+ * <p>
+ * Cada instancia tiene su circuit breaker de Resilience4j, alimentado con errores de transporte
+ * y respuestas 5xx: mientras está abierto la instancia queda fuera del sorteo (outlier ejection
+ * pasiva) y vuelve sola al pasar a half-open.
+ * <p>
+ * Las requests llegan con la URI armada sobre {@code canonicalBaseUrl}; se reescribe el prefijo
+ * por el de la instancia elegida.
+ */
+public class LoadBalancingHttpClientGateway implements HttpClientGateway {
+
+    private final String canonicalBaseUrl;
+    private final Instance[] instances;
+    private final HttpClientGateway delegate;
+    private final double decayNanos;
+
+    public LoadBalancingHttpClientGateway(String canonicalBaseUrl, List<Instance> instances,
+                                          HttpClientGateway delegate, Duration decay) {
+        if (instances.isEmpty()) throw new IllegalArgumentException("no instances for " + canonicalBaseUrl);
+        this.canonicalBaseUrl = canonicalBaseUrl;
+        this.instances = instances.toArray(new Instance[0]);
+        this.delegate = delegate;
+        this.decayNanos = decay.toNanos();
+    }
+
+    @Override
+    public Mono<ForwardResponse> exchange(ForwardRequest request) {
+        return Mono.defer(() -> {
+            Instance inst = acquire();
+            if (inst == null) {
+                return Mono.error(CallNotPermittedException.createCallNotPermittedException(instances[0].breaker));
+            }
+            return call(inst, request);
+        });
+    }
+
+    private Mono<ForwardResponse> call(Instance inst, ForwardRequest request) {
+        CircuitBreaker cb = inst.breaker;
+        var routed = new ForwardRequest(inst.rewrite(request.targetUri(), canonicalBaseUrl), request.method(),
+                request.headers(), request.body(), request.upstream());
+        inst.inFlight.incrementAndGet();
+        long t0 = System.nanoTime();
+        long cbStart = cb.getCurrentTimestamp();
+        AtomicBoolean recorded = new AtomicBoolean();
+        return delegate.exchange(routed)
+                .doOnNext(res -> {
+                    recorded.set(true);
+                    inst.observe(System.nanoTime() - t0, decayNanos);
+                    long elapsed = cb.getCurrentTimestamp() - cbStart;
+                    if (res.status() >= 500) {
+                        cb.onError(elapsed, cb.getTimestampUnit(), new UpstreamStatusException(res.status()));
+                    } else {
+                        cb.onSuccess(elapsed, cb.getTimestampUnit());
+                    }
+                })
+                .doOnError(e -> {
+                    recorded.set(true);
+                    inst.observe(System.nanoTime() - t0, decayNanos);
+                    cb.onError(cb.getCurrentTimestamp() - cbStart, cb.getTimestampUnit(), e);
+                })
+                .doOnCancel(() -> {
+                    // Cancelada antes de la respuesta (cliente o time limiter): el permiso se devuelve sin resultado
+                    if (!recorded.get()) cb.releasePermission();
+                })
+                .doFinally(s -> inst.inFlight.decrementAndGet());
+    }
+
+    /**
+     * P2C entre las instancias no expulsadas; si la elegida no da permiso (half-open sin
+     * lugar) se prueban las demás en orden. {@code null} si ninguna admite la llamada.
+     */
+    private Instance acquire() {
+        int n = instances.length;
+        if (n == 1) return instances[0].breaker.tryAcquirePermission() ? instances[0] : null;
+
+        var rnd = ThreadLocalRandom.current();
+        int a = rnd.nextInt(n);
+        int b = rnd.nextInt(n - 1);
+        if (b >= a) b++;
+        Instance x = instances[a], y = instances[b];
+        Instance pick;
+        if (x.ejected()) pick = y.ejected() ? null : y;
+        else if (y.ejected()) pick = x;
+        else pick = x.cost() <= y.cost() ? x : y;
+        if (pick != null && pick.breaker.tryAcquirePermission()) return pick;
+
+        for (int i = 0; i < n; i++) {
+            Instance c = instances[(a + i) % n];
+            if (c != pick && !c.ejected() && c.breaker.tryAcquirePermission()) return c;
+        }
+        return null;
+    }
+
+    /**
+     * Una réplica del upstream: su URL base, circuit breaker, requests en vuelo y latencia EWMA.
+     */
+    public static final class Instance {
+        private final String baseUrl;
+        private final CircuitBreaker breaker;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        // Actualizaciones sin lock: perder una muestra ocasional entre hilos no cambia la decisión
+        private volatile double ewmaNanos;
+        private volatile long lastObservedNanos = System.nanoTime();
+
+        public Instance(String baseUrl, CircuitBreaker breaker) {
+            String b = baseUrl;
+            while (b.endsWith("/")) b = b.substring(0, b.length() - 1);
+            this.baseUrl = b;
+            this.breaker = breaker;
+        }
+
+        public String baseUrl() {
+            return baseUrl;
+        }
+
+        public int inFlight() {
+            return inFlight.get();
+        }
+
+        public double latencySeconds() {
+            return ewmaNanos / 1e9;
+        }
+
+        public boolean ejected() {
+            var state = breaker.getState();
+            return state == CircuitBreaker.State.OPEN || state == CircuitBreaker.State.FORCED_OPEN;
+        }
+
+        double cost() {
+            return (ewmaNanos + 1) * (inFlight.get() + 1);
+        }
+
+        void observe(long sampleNanos, double decayNanos) {
+            long now = System.nanoTime();
+            double prev = ewmaNanos;
+            if (sampleNanos > prev) {
+                ewmaNanos = sampleNanos; // pico: se toma entero
+            } else {
+                double w = Math.exp(-(now - lastObservedNanos) / decayNanos);
+                ewmaNanos = prev * w + sampleNanos * (1 - w);
+            }
+            lastObservedNanos = now;
+        }
+
+        URI rewrite(URI target, String canonicalBaseUrl) {
+            String s = target.toString();
+            if (baseUrl.equals(canonicalBaseUrl) || !s.startsWith(canonicalBaseUrl)) return target;
+            return URI.create(baseUrl + s.substring(canonicalBaseUrl.length()));
+        }
+    }
+
+    /**
+     * Respuesta 5xx de una instancia, registrada como falla en su circuit breaker.
+     */
+    static final class UpstreamStatusException extends RuntimeException {
+        UpstreamStatusException(int status) {
+            super("upstream responded " + status, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.mercadolibre.proxy.infrastructure.http;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Presupuesto de llamadas extra (hedges, reintentos) como porcentaje del tráfico real: cada
+ * request deposita {@code ratio} fichas, cada llamada extra gasta una. El saldo se acota a
+ * {@code burst} fichas, así con poco tráfico igual hay margen y en una caída el extra nunca pasa
+ * de {@code ratio} de la carga (más el burst).
+ */
+public final class RequestBudget {
+
+    private static final long SCALE = 1_000;
+
+    private final long deposit;
+    private final long max;
+    private final AtomicLong balance;
+
+    public RequestBudget(double ratio, int burst) {
+        this.deposit = Math.max(1, Math.round(ratio * SCALE));
+        this.max = Math.max(1, burst) * SCALE;
+        this.balance = new AtomicLong(max);
+    }
+
+    public void deposit() {
+        for (;;) {
+            long b = balance.get();
+            if (b >= max) return;
+            if (balance.compareAndSet(b, Math.min(max, b + deposit))) return;
+        }
+    }
+
+    public boolean tryWithdraw() {
+        for (;;) {
+            long b = balance.get();
+            if (b < SCALE) return false;
+            if (balance.compareAndSet(b, b - SCALE)) return true;
+        }
+    }
+
+    /** Fichas disponibles. */
+    public double balance() {
+        return balance.get() / (double) SCALE;
+    }
+}
@@ -0,0 +1,100 @@
+package com.mercadolibre.proxy.infrastructure.http;
+
+import com.mercadolibre.proxy.domain.ForwardRequest;
+import com.mercadolibre.proxy.domain.ForwardResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reintentos de GET/HEAD/PUT/DELETE sin body ante fallas de conexión (reset, cierre prematuro,
+ * connect) o 502/503, con backoff exponencial con jitter completo. Antes de reintentar un 502/503
+ * se descarta el body para devolver la conexión al pool; una conexión rota la descarta
+ * reactor-netty, así el reintento sale por otra (y con réplicas, el balanceo elige de nuevo).
+ * Cada reintento gasta una ficha de un {@link RequestBudget}: sin fichas se devuelve la falla
+ * original, así una caída no multiplica la carga sobre el upstream.
+ */
+public class RetryingHttpClientGateway implements HttpClientGateway {
+
+    private static final Set<HttpMethod> METHODS = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.PUT, HttpMethod.DELETE);
+
+    private final HttpClientGateway delegate;
+    private final RequestBudget budget;
+    private final int maxAttempts;
+    private final long backoffNanos;
+    private final long maxBackoffNanos;
+
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder budgetExhausted = new LongAdder();
+
+    public RetryingHttpClientGateway(HttpClientGateway delegate, RequestBudget budget, int maxAttempts,
+                                     Duration backoff, Duration maxBackoff) {
+        this.delegate = delegate;
+        this.budget = budget;
+        this.maxAttempts = maxAttempts;
+        this.backoffNanos = backoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+    }
+
+    @Override
+    public Mono<ForwardResponse> exchange(ForwardRequest request) {
+        // El body del cliente es un stream de una sola lectura: no se puede reenviar
+        if (request.hasBody() || !METHODS.contains(request.method())) return delegate.exchange(request);
+        return Mono.defer(() -> {
+            budget.deposit();
+            return attempt(request, 1);
+        });
+    }
+
+    private Mono<ForwardResponse> attempt(ForwardRequest request, int n) {
+        return delegate.exchange(request)
+                .materialize()
+                .flatMap(signal -> {
+                    ForwardResponse res = signal.get();
+                    boolean retryable = res != null ? retryableStatus(res.status()) : retryable(signal.getThrowable());
+                    if (!retryable || n >= maxAttempts) return Mono.just(signal).<ForwardResponse>dematerialize();
+                    if (!budget.tryWithdraw()) {
+                        budgetExhausted.increment();
+                        return Mono.just(signal).<ForwardResponse>dematerialize();
+                    }
+                    retries.increment();
+                    Mono<Void> release = res != null ? res.discardBody() : Mono.empty();
+                    return release
+                            .then(Mono.delay(backoff(n)))
+                            .then(Mono.defer(() -> attempt(request, n + 1)));
+                });
+    }
+
+    /** Jitter completo: uniforme en [0, min(maxBackoff, backoff·2^(n-1))]. */
+    Duration backoff(int n) {
+        long cap = Math.min(maxBackoffNanos, backoffNanos << Math.min(n - 1, 20));
+        return Duration.ofNanos(ThreadLocalRandom.current().nextLong(cap + 1));
+    }
+
+    private static boolean retryableStatus(int status) {
+        return status == 502 || status == 503;
+    }
+
+    private static boolean retryable(Throwable e) {
+        if (e == null) return false;
+        if (e instanceof WebClientRequestException) return true;
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof IOException) return true;
+        }
+        return false;
+    }
+
+    public long retries() {
+        return retries.sum();
+    }
+
+    public long budgetExhausted() {
+        return budgetExhausted.sum();
+    }
+}
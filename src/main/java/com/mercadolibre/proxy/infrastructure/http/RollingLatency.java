@@ -0,0 +1,91 @@
+package com.mercadolibre.proxy.infrastructure.http;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latencias en ventanas rotativas (la actual y la anterior) con buckets
+ * logarítmicos de un cuarto de potencia de dos (~19% de resolución), de 1µs a ~70s. Registrar es
+ * un incremento atómico; el percentil se recalcula como mucho cada {@code REFRESH_NANOS}.
+ */
+public final class RollingLatency {
+
+    private static final int BUCKETS = 4 * 27;
+    private static final long REFRESH_NANOS = 50_000_000L;
+
+    private final long windowNanos;
+    private final long minSamples;
+    private volatile AtomicLongArray current = new AtomicLongArray(BUCKETS);
+    private volatile AtomicLongArray previous = new AtomicLongArray(BUCKETS);
+    private volatile long windowStart = System.nanoTime();
+    private volatile long cachedAt;
+    private volatile long cachedNanos = -1;
+    private volatile double cachedQuantile = Double.NaN;
+
+    public RollingLatency(long windowNanos, long minSamples) {
+        this.windowNanos = windowNanos;
+        this.minSamples = minSamples;
+    }
+
+    public void record(long nanos) {
+        rotateIfNeeded(System.nanoTime());
+        current.incrementAndGet(bucket(Math.max(1, nanos / 1_000)));
+    }
+
+    /**
+     * Cota superior del cuantil {@code q} de las dos ventanas, en nanos; -1 si hay menos de
+     * {@code minSamples} muestras.
+     */
+    public long quantileNanos(double q) {
+        long now = System.nanoTime();
+        if (now - cachedAt < REFRESH_NANOS && q == cachedQuantile) return cachedNanos;
+        rotateIfNeeded(now);
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        AtomicLongArray cur = current, prev = previous;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = cur.get(i) + prev.get(i);
+            total += counts[i];
+        }
+        long result = -1;
+        if (total >= minSamples && total > 0) {
+            long rank = (long) Math.ceil(q * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    result = upperBoundMicros(i) * 1_000;
+                    break;
+                }
+            }
+        }
+        cachedNanos = result;
+        cachedQuantile = q;
+        cachedAt = now;
+        return result;
+    }
+
+    private void rotateIfNeeded(long now) {
+        if (now - windowStart < windowNanos) return;
+        synchronized (this) {
+            if (now - windowStart < windowNanos) return;
+            // Si pasaron dos ventanas sin tráfico la anterior también quedó vieja
+            previous = now - windowStart < 2 * windowNanos ? current : new AtomicLongArray(BUCKETS);
+            current = new AtomicLongArray(BUCKETS);
+            windowStart = now;
+        }
+    }
+
+    static int bucket(long micros) {
+        int msb = 63 - Long.numberOfLeadingZeros(micros);
+        if (msb < 2) return (int) micros; // 1..3 µs
+        int idx = msb * 4 + (int) ((micros >>> (msb - 2)) & 3);
+        return Math.min(idx, BUCKETS - 1);
+    }
+
+    static long upperBoundMicros(int bucket) {
+        if (bucket < 8) return bucket + 1;
+        int msb = bucket / 4;
+        int sub = bucket % 4;
+        return (long) (4 + sub + 1) << (msb - 2);
+    }
+}
@@ -0,0 +1,29 @@
+package com.mercadolibre.proxy.infrastructure.http;
+
+import com.mercadolibre.proxy.domain.ForwardRequest;
+import com.mercadolibre.proxy.domain.ForwardResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Despacha cada request al gateway de su upstream ({@link ForwardRequest#upstream()}): cada uno con
+ * su pool, timeouts y circuit breaker, así el tráfico pesado de una ruta no agota al resto.
+ */
+public class RoutingHttpClientGateway implements HttpClientGateway {
+
+    private final Map<String, HttpClientGateway> byUpstream;
+    private final HttpClientGateway defaultGateway;
+
+    public RoutingHttpClientGateway(Map<String, HttpClientGateway> byUpstream, HttpClientGateway defaultGateway) {
+        this.byUpstream = Map.copyOf(byUpstream);
+        this.defaultGateway = defaultGateway;
+    }
+
+    @Override
+    public Mono<ForwardResponse> exchange(ForwardRequest request) {
+        String name = request.upstream();
+        HttpClientGateway gw = name != null ? byUpstream.get(name) : null;
+        return (gw != null ? gw : defaultGateway).exchange(request);
+    }
+}
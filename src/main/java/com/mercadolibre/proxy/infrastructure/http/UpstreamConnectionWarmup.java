@@ -0,0 +1,46 @@
+package com.mercadolibre.proxy.infrastructure.http;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Abre conexiones a los upstreams antes de recibir tráfico: inicializa event loops y resolver
+ * ({@link HttpClient#warmup()}) y hace {@code connections} HEAD concurrentes a cada destino, que
+ * quedan en el pool con el handshake TCP+TLS ya hecho. Las fallas sólo se loguean: un upstream
+ * caído no debe impedir el arranque.
+ */
+public final class UpstreamConnectionWarmup {
+
+    private static final Logger log = LoggerFactory.getLogger(UpstreamConnectionWarmup.class);
+
+    private record Target(String upstream, HttpClient client, String url, int connections, Duration timeout) {
+    }
+
+    private final List<Target> targets = new ArrayList<>();
+
+    public void add(String upstream, HttpClient client, String url, int connections, Duration timeout) {
+        if (connections > 0) targets.add(new Target(upstream, client, url, connections, timeout));
+    }
+
+    /** Conexiones abiertas con éxito; nunca falla. */
+    public Mono<Long> run() {
+        if (targets.isEmpty()) return Mono.just(0L);
+        return Flux.fromIterable(targets)
+                .flatMap(t -> t.client().warmup().thenMany(Flux.range(0, t.connections()))
+                        .flatMap(i -> t.client().head().uri(t.url()).response()
+                                .timeout(t.timeout())
+                                .thenReturn(1L)
+                                .onErrorResume(e -> {
+                                    log.warn("warm-up of {} ({}) failed: {}", t.upstream(), t.url(), e.toString());
+                                    return Mono.just(0L);
+                                }), t.connections()))
+                .reduce(0L, Long::sum);
+    }
+}
@@ -2,15 +2,16 @@ package com.mercadolibre.proxy.infrastructure.http;
 
 import com.mercadolibre.proxy.domain.ForwardRequest;
 import com.mercadolibre.proxy.domain.ForwardResponse;
-import org.springframework.stereotype.Component;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
-@Component
+/**
+ * Cliente de un upstream; se crea uno por upstream en RoutingConfig.
+ */
 public class WebClientHttpClient implements HttpClientGateway {
 
-    private static final byte[] EMPTY = new byte[0];
     private final WebClient webClient;
 
     public WebClientHttpClient(WebClient webClient) {
@@ -19,17 +20,19 @@ public class WebClientHttpClient implements HttpClientGateway {
 
     @Override
     public Mono<ForwardResponse> exchange(ForwardRequest req) {
-        boolean hasBody = req.body() != null && req.body().length > 0;
         return webClient.method(req.method())
                 .uri(req.targetUri())
                 .headers(h -> h.addAll(req.headers()))
-                .body(hasBody ? BodyInserters.fromValue(req.body()) : BodyInserters.empty())
+                .body(req.hasBody() ? BodyInserters.fromDataBuffers(req.body()) : BodyInserters.empty())
+                .retrieve()
                 // No excepciones en 4xx/5xx:
-                .exchangeToMono(resp -> resp.toEntity(byte[].class))
+                .onStatus(status -> true, resp -> Mono.empty())
+                // Body en streaming: los buffers se liberan al escribirlos en la respuesta al cliente
+                .toEntityFlux(DataBuffer.class)
                 .map(ent -> new ForwardResponse(
                         ent.getStatusCode().value(),
                         ent.getHeaders(),
-                        ent.getBody() != null ? ent.getBody() : EMPTY
+                        ent.getBody()
                 ));
     }
 }
@@ -35,6 +35,31 @@ public class ProxyStatsEndpoint {
         Counter rej = Search.in(registry).name("proxy_rate_limit_rejections_total").counter();
         out.put("rate_limit_rejections_total", rej != null ? rej.count() : 0d);
 
+        Counter coalesced = Search.in(registry).name("proxy_coalesced_requests_total").counter();
+        out.put("coalesced_requests_total", coalesced != null ? coalesced.count() : 0d);
+
+        Map<String, Double> cacheLookups = new HashMap<>();
+        registry.find("proxy_cache_requests_total").counters().forEach(c ->
+                cacheLookups.merge(c.getId().getTag("result"), c.count(), Double::sum));
+        if (!cacheLookups.isEmpty()) {
+            Map<String, Object> cache = new HashMap<>();
+            double hits = cacheLookups.getOrDefault("hit", 0d);
+            double misses = cacheLookups.getOrDefault("miss", 0d);
+            cache.put("hits_total", hits);
+            cache.put("misses_total", misses);
+            cache.put("bypass_total", cacheLookups.getOrDefault("bypass", 0d));
+            cache.put("hit_ratio", hits + misses > 0 ? hits / (hits + misses) : 0d);
+            Map<String, Double> evictions = new HashMap<>();
+            registry.find("proxy_cache_evictions_total").functionCounters().forEach(c ->
+                    evictions.put(c.getId().getTag("reason"), c.count()));
+            cache.put("evictions_total", evictions);
+            Gauge entries = Search.in(registry).name("proxy_cache_entries").gauge();
+            Gauge bytes = Search.in(registry).name("proxy_cache_bytes").gauge();
+            cache.put("entries", entries != null ? entries.value() : 0d);
+            cache.put("bytes", bytes != null ? bytes.value() : 0d);
+            out.put("cache", cache);
+        }
+
         return out;
     }
 }
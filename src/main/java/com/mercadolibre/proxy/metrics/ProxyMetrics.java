@@ -1,6 +1,9 @@
 package com.mercadolibre.proxy.metrics;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.Timer;
@@ -8,14 +11,91 @@ import org.springframework.stereotype.Component;
 
 import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+import java.util.function.ToDoubleFunction;
 
+/**
+ * Fachada de métricas del proxy. Los meters del camino caliente se registran una sola vez y
+ * quedan cacheados (por método y por status), así registrar es un incremento sin builders,
+ * listas de tags ni lookups en el registry.
+ */
 @Component
 public class ProxyMetrics {
 
+    private static final int MAX_STATUS = 600;
+
     private final MeterRegistry registry;
+    private final Map<String, Counter> requestsByMethod = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<Counter> responsesByStatus = new AtomicReferenceArray<>(MAX_STATUS);
+    private final AtomicReferenceArray<Timer> durationsByStatus = new AtomicReferenceArray<>(MAX_STATUS);
+    private final IntFunction<Counter> newResponseCounter = this::responseCounter;
+    private final IntFunction<Timer> newDurationTimer = this::durationTimer;
+    private final Counter rateLimitRejections;
+    private final Map<String, Counter> cacheLookups = new ConcurrentHashMap<>();
+    private final Map<String, Counter> compressionResponses = new ConcurrentHashMap<>();
+    private final Map<String, Timer> redisShardCalls = new ConcurrentHashMap<>();
+    private final Map<String, Timer> redisShardErrors = new ConcurrentHashMap<>();
+    private final Counter compressionPassthroughBytes;
+    private final Counter compressionSavedBytes;
+    private final Counter compressionDecodedInputBytes;
+    private final Counter compressionDecodedOutputBytes;
+    private final Timer compressionDecodeCpu;
+    private final Counter coalescedRequests;
+    private final DistributionSummary rateLimitBatchSize;
+    private final Timer rateLimitBatchFlush;
+    private final Counter rateLimitLeases;
+    private final Counter rateLimitLeasedPermits;
+    private final Counter rateLimitReturnedPermits;
 
     public ProxyMetrics(MeterRegistry registry) {
         this.registry = registry;
+        for (String method : List.of("GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "TRACE")) {
+            requestCounter(method);
+        }
+        this.rateLimitRejections = Counter.builder("proxy_rate_limit_rejections_total")
+                .description("Total number of requests rejected by rate limiting")
+                .register(registry);
+        this.coalescedRequests = Counter.builder("proxy_coalesced_requests_total")
+                .description("Requests served by joining an identical in-flight upstream call")
+                .register(registry);
+        this.rateLimitBatchSize = DistributionSummary.builder("proxy_rate_limit_batch_size")
+                .description("Rate limit evaluations sent per Redis batch")
+                .register(registry);
+        this.rateLimitBatchFlush = Timer.builder("proxy_rate_limit_batch_flush_seconds")
+                .description("Time from the first queued evaluation until the batch result arrives")
+                .register(registry);
+        this.rateLimitLeases = Counter.builder("proxy_rate_limit_leases_total")
+                .description("Permit leases requested from Redis")
+                .register(registry);
+        this.rateLimitLeasedPermits = Counter.builder("proxy_rate_limit_leased_permits_total")
+                .description("Permits granted to this instance through leases")
+                .register(registry);
+        this.rateLimitReturnedPermits = Counter.builder("proxy_rate_limit_returned_permits_total")
+                .description("Unused leased permits given back to Redis")
+                .register(registry);
+        this.compressionPassthroughBytes = Counter.builder("proxy_compression_passthrough_bytes_total")
+                .description("Encoded upstream body bytes relayed to clients without decoding")
+                .baseUnit("bytes")
+                .register(registry);
+        this.compressionSavedBytes = Counter.builder("proxy_compression_saved_bytes_total")
+                .description("Bytes not sent to clients thanks to relayed gzip bodies (original size minus encoded size)")
+                .baseUnit("bytes")
+                .register(registry);
+        this.compressionDecodedInputBytes = Counter.builder("proxy_compression_decoded_input_bytes_total")
+                .description("Encoded upstream body bytes decoded by the proxy")
+                .baseUnit("bytes")
+                .register(registry);
+        this.compressionDecodedOutputBytes = Counter.builder("proxy_compression_decoded_output_bytes_total")
+                .description("Decoded body bytes produced by the proxy")
+                .baseUnit("bytes")
+                .register(registry);
+        this.compressionDecodeCpu = Timer.builder("proxy_compression_decode_seconds")
+                .description("CPU time spent decoding one upstream response body")
+                .register(registry);
     }
 
     public Timer.Sample startRequest() {
@@ -23,46 +103,280 @@ public class ProxyMetrics {
     }
 
     public void recordRequest(String method) {
-        Counter.builder("proxy_requests_total")
-                .description("Total proxy requests received")
-                .tags("method", safe(method))
-                .register(registry)
-                .increment();
+        String m = safe(method);
+        Counter c = requestsByMethod.get(m);
+        (c != null ? c : requestCounter(m)).increment();
     }
 
     public void recordResponse(int statusCode, Duration duration) {
-        String statusClass = statusClass(statusCode);
-        List<Tag> tags = List.of(
-                Tag.of("status", String.valueOf(statusCode)),
-                Tag.of("status_class", statusClass)
-        );
-        Counter.builder("proxy_responses_total")
-                .description("Total proxy responses sent")
-                .tags(tags)
-                .register(registry)
-                .increment();
-
-        Timer.builder("proxy_request_duration_seconds")
-                .description("Proxy request duration in seconds")
-                .tags(tags)
-                .register(registry)
-                .record(duration);
+        byStatus(responsesByStatus, statusCode, newResponseCounter).increment();
+        byStatus(durationsByStatus, statusCode, newDurationTimer).record(duration);
     }
 
     public void recordDurationWithSample(Timer.Sample sample, int statusCode) {
-        String statusClass = statusClass(statusCode);
-        Timer timer = Timer.builder("proxy_request_duration_seconds")
+        sample.stop(byStatus(durationsByStatus, statusCode, newDurationTimer));
+    }
+
+    public void incrementRateLimitRejection() {
+        rateLimitRejections.increment();
+    }
+
+    public void recordRateLimitBatch(int size, long flushNanos) {
+        rateLimitBatchSize.record(size);
+        rateLimitBatchFlush.record(flushNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRateLimitLease(long grantedPermits) {
+        rateLimitLeases.increment();
+        rateLimitLeasedPermits.increment(grantedPermits);
+    }
+
+    public void recordRateLimitLeaseReturn(long permits) {
+        rateLimitReturnedPermits.increment(permits);
+    }
+
+    public void recordCoalescedRequest() {
+        coalescedRequests.increment();
+    }
+
+    /**
+     * Llamada del rate limiter a un shard Redis: latencia por shard, con outcome success o error.
+     */
+    public void recordRedisShardCall(String shard, long nanos, boolean error) {
+        Map<String, Timer> timers = error ? redisShardErrors : redisShardCalls;
+        Timer t = timers.get(shard);
+        if (t == null) {
+            t = timers.computeIfAbsent(shard, s -> Timer.builder("proxy_rate_limit_redis_seconds")
+                    .description("Rate limiter calls to a Redis shard")
+                    .tags("shard", s, "outcome", error ? "error" : "success")
+                    .register(registry));
+        }
+        t.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Resultado de una consulta a la cache de respuestas: hit, miss o bypass (request no cacheable).
+     */
+    public void recordCacheLookup(String result) {
+        Counter c = cacheLookups.get(result);
+        if (c == null) {
+            c = cacheLookups.computeIfAbsent(result, r -> Counter.builder("proxy_cache_requests_total")
+                    .description("Response cache lookups by result")
+                    .tag("result", r)
+                    .register(registry));
+        }
+        c.increment();
+    }
+
+    /**
+     * Respuesta con body codificado o no: passthrough, decoded (decodificada para el cliente) o
+     * identity (sin codificación del upstream).
+     */
+    public void recordCompression(String action) {
+        Counter c = compressionResponses.get(action);
+        if (c == null) {
+            c = compressionResponses.computeIfAbsent(action, a -> Counter.builder("proxy_compression_responses_total")
+                    .description("Upstream responses by content-encoding handling")
+                    .tag("action", a)
+                    .register(registry));
+        }
+        c.increment();
+    }
+
+    /** {@code originalBytes}: tamaño sin comprimir si se conoce, si no -1. */
+    public void recordCompressionPassthrough(long encodedBytes, long originalBytes) {
+        compressionPassthroughBytes.increment(encodedBytes);
+        if (originalBytes > encodedBytes) compressionSavedBytes.increment(originalBytes - encodedBytes);
+    }
+
+    public void recordCompressionDecode(long encodedBytes, long decodedBytes, long cpuNanos) {
+        compressionDecodedInputBytes.increment(encodedBytes);
+        compressionDecodedOutputBytes.increment(decodedBytes);
+        compressionDecodeCpu.record(cpuNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Publica entradas, bytes y desalojos (por capacidad / por vencimiento) de la cache de respuestas.
+     */
+    public <T> void bindResponseCache(T cache, ToDoubleFunction<T> entries, ToDoubleFunction<T> bytes,
+                                      ToDoubleFunction<T> evictions, ToDoubleFunction<T> expirations) {
+        Gauge.builder("proxy_cache_entries", cache, entries)
+                .description("Responses held in the response cache")
+                .register(registry);
+        Gauge.builder("proxy_cache_bytes", cache, bytes)
+                .description("Approximate bytes held in the response cache")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("proxy_cache_evictions_total", cache, evictions)
+                .description("Responses removed from the response cache")
+                .tag("reason", "capacity")
+                .register(registry);
+        FunctionCounter.builder("proxy_cache_evictions_total", cache, expirations)
+                .description("Responses removed from the response cache")
+                .tag("reason", "expired")
+                .register(registry);
+    }
+
+    /**
+     * Publica el límite de concurrencia adaptativo de un upstream, las llamadas en vuelo y los rechazos.
+     */
+    public <T> void bindConcurrencyLimit(T limiter, String upstream, ToDoubleFunction<T> limit,
+                                         ToDoubleFunction<T> inFlight, ToDoubleFunction<T> rejected) {
+        Gauge.builder("proxy_upstream_concurrency_limit", limiter, limit)
+                .description("Current adaptive concurrency limit of an upstream")
+                .tag("upstream", upstream)
+                .register(registry);
+        Gauge.builder("proxy_upstream_inflight", limiter, inFlight)
+                .description("Upstream calls in flight under the concurrency limit")
+                .tag("upstream", upstream)
+                .register(registry);
+        FunctionCounter.builder("proxy_upstream_concurrency_rejections_total", limiter, rejected)
+                .description("Requests rejected with 503 because the upstream was at its concurrency limit")
+                .tag("upstream", upstream)
+                .register(registry);
+    }
+
+    /**
+     * Publica los reintentos de un upstream y los que no se hicieron por falta de presupuesto.
+     */
+    public <T> void bindRetry(T retrying, String upstream, ToDoubleFunction<T> retries,
+                              ToDoubleFunction<T> budgetExhausted) {
+        FunctionCounter.builder("proxy_upstream_retries_total", retrying, retries)
+                .description("Retried upstream calls after a connection failure or 502/503")
+                .tag("upstream", upstream)
+                .register(registry);
+        FunctionCounter.builder("proxy_upstream_retry_budget_exhausted_total", retrying, budgetExhausted)
+                .description("Retries skipped because the retry budget was exhausted")
+                .tag("upstream", upstream)
+                .register(registry);
+    }
+
+    /**
+     * Publica el hedging de un upstream: requests elegibles, hedges lanzados, hedges que ganaron,
+     * hedges no lanzados por falta de presupuesto y la demora actual antes del hedge.
+     */
+    public <T> void bindHedging(T hedging, String upstream, ToDoubleFunction<T> eligible, ToDoubleFunction<T> hedges,
+                                ToDoubleFunction<T> wins, ToDoubleFunction<T> budgetExhausted,
+                                ToDoubleFunction<T> delaySeconds) {
+        FunctionCounter.builder("proxy_upstream_hedge_eligible_total", hedging, eligible)
+                .description("GET/HEAD requests eligible for hedging")
+                .tag("upstream", upstream)
+                .register(registry);
+        FunctionCounter.builder("proxy_upstream_hedges_total", hedging, hedges)
+                .description("Hedged (second) attempts sent to an upstream")
+                .tag("upstream", upstream)
+                .register(registry);
+        FunctionCounter.builder("proxy_upstream_hedge_wins_total", hedging, wins)
+                .description("Hedged attempts that answered before the original one")
+                .tag("upstream", upstream)
+                .register(registry);
+        FunctionCounter.builder("proxy_upstream_hedge_budget_exhausted_total", hedging, budgetExhausted)
+                .description("Hedges skipped because the hedge budget was exhausted")
+                .tag("upstream", upstream)
+                .register(registry);
+        Gauge.builder("proxy_upstream_hedge_delay_seconds", hedging, delaySeconds)
+                .description("Current delay before a hedged attempt is sent (0: not enough samples)")
+                .tag("upstream", upstream)
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    /**
+     * Publica requests en vuelo, latencia EWMA y si está expulsada (1/0) de una réplica de upstream.
+     */
+    public <T> void bindUpstreamInstance(T instance, String upstream, String url, ToDoubleFunction<T> inFlight,
+                                         ToDoubleFunction<T> latencySeconds, ToDoubleFunction<T> ejected) {
+        Gauge.builder("proxy_upstream_instance_inflight", instance, inFlight)
+                .description("Requests in flight to an upstream instance")
+                .tags("upstream", upstream, "instance", url)
+                .register(registry);
+        Gauge.builder("proxy_upstream_instance_latency_ewma_seconds", instance, latencySeconds)
+                .description("Exponentially weighted latency to response headers of an upstream instance")
+                .tags("upstream", upstream, "instance", url)
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("proxy_upstream_instance_ejected", instance, ejected)
+                .description("1 while the instance circuit breaker keeps it out of load balancing")
+                .tags("upstream", upstream, "instance", url)
+                .register(registry);
+    }
+
+    /**
+     * Publica los registros de access log pendientes de escribir y los descartados por buffer lleno.
+     */
+    public <T> void bindAccessLog(T writer, ToDoubleFunction<T> pending, ToDoubleFunction<T> dropped) {
+        Gauge.builder("proxy_access_log_pending", writer, pending)
+                .description("Access log records waiting for the writer thread")
+                .register(registry);
+        FunctionCounter.builder("proxy_access_log_dropped_total", writer, dropped)
+                .description("Access log records dropped because the buffer was full")
+                .register(registry);
+    }
+
+    /**
+     * Publica el tamaño y los desalojos (por capacidad / por inactividad) de un store de rate limit en memoria.
+     */
+    public <T> void bindRateLimitStore(T store, ToDoubleFunction<T> size,
+                                       ToDoubleFunction<T> evictions, ToDoubleFunction<T> expirations) {
+        bindRateLimitStore(store, size, evictions);
+        FunctionCounter.builder("proxy_rate_limit_memory_evictions_total", store, expirations)
+                .description("Keys removed from the in-memory rate limit store")
+                .tag("reason", "idle")
+                .register(registry);
+    }
+
+    /** Para stores sin expiración por inactividad: sólo reason=capacity. */
+    public <T> void bindRateLimitStore(T store, ToDoubleFunction<T> size, ToDoubleFunction<T> evictions) {
+        Gauge.builder("proxy_rate_limit_memory_entries", store, size)
+                .description("Live keys in the in-memory rate limit store")
+                .register(registry);
+        FunctionCounter.builder("proxy_rate_limit_memory_evictions_total", store, evictions)
+                .description("Keys removed from the in-memory rate limit store")
+                .tag("reason", "capacity")
+                .register(registry);
+    }
+
+    private Counter requestCounter(String method) {
+        return requestsByMethod.computeIfAbsent(method, m -> Counter.builder("proxy_requests_total")
+                .description("Total proxy requests received")
+                .tags("method", m)
+                .register(registry));
+    }
+
+    /**
+     * Meter de un status, creado en su primer uso (no se publican series en cero para status
+     * que nunca ocurrieron). Fuera de [0, 600) se busca en el registry sin cachear.
+     */
+    private static <M> M byStatus(AtomicReferenceArray<M> cache, int statusCode, IntFunction<M> create) {
+        if (statusCode < 0 || statusCode >= MAX_STATUS) return create.apply(statusCode);
+        M m = cache.get(statusCode);
+        if (m == null) {
+            // Si dos hilos compiten, el registry devuelve el mismo meter a ambos
+            m = create.apply(statusCode);
+            cache.set(statusCode, m);
+        }
+        return m;
+    }
+
+    private Counter responseCounter(int statusCode) {
+        return Counter.builder("proxy_responses_total")
+                .description("Total proxy responses sent")
+                .tags(statusTags(statusCode))
+                .register(registry);
+    }
+
+    private Timer durationTimer(int statusCode) {
+        return Timer.builder("proxy_request_duration_seconds")
                 .description("Proxy request duration in seconds")
-                .tags("status", String.valueOf(statusCode), "status_class", statusClass)
+                .tags(statusTags(statusCode))
                 .register(registry);
-        sample.stop(timer);
     }
 
-    public void incrementRateLimitRejection() {
-        Counter.builder("proxy_rate_limit_rejections_total")
-                .description("Total number of requests rejected by rate limiting")
-                .register(registry)
-                .increment();
+    private static List<Tag> statusTags(int statusCode) {
+        return List.of(
+                Tag.of("status", String.valueOf(statusCode)),
+                Tag.of("status_class", statusClass(statusCode))
+        );
     }
 
     private static String statusClass(int statusCode) {
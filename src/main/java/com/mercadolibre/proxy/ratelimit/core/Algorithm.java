@@ -0,0 +1,13 @@
+package com.mercadolibre.proxy.ratelimit.core;
+
+/**
+ * Algoritmo con el que un backend aplica un {@link Limit}.
+ */
+public enum Algorithm {
+    /** Ventana fija: hasta {@code capacity} por ventana calendario; permite ráfagas de 2x en el borde. */
+    FIXED_WINDOW,
+    /** Ventana deslizante aproximada: ventana actual + la anterior ponderada por el tiempo transcurrido. */
+    SLIDING_WINDOW,
+    /** Generic Cell Rate Algorithm: un solo timestamp por clave, emisión uniforme con ráfaga de hasta {@code capacity}. */
+    GCRA
+}
@@ -1,27 +1,34 @@
 package com.mercadolibre.proxy.ratelimit.core;
 
 import org.springframework.http.HttpMethod;
-import org.springframework.util.AntPathMatcher;
 import org.springframework.web.server.ServerWebExchange;
 
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Predicate;
 
+/**
+ * Condición de una regla. Las de esta interfaz declaran su {@link RequestSelector} (prefijo de
+ * path + métodos) para la indexación; una lambda propia queda con {@link RequestSelector#ANY}.
+ */
 @FunctionalInterface
 public interface Condition extends Predicate<ServerWebExchange> {
 
     @Override
     boolean test(ServerWebExchange ex);
 
+    default RequestSelector selector() {
+        return RequestSelector.ANY;
+    }
+
     default Condition and(Condition other) {
         Objects.requireNonNull(other);
-        return ex -> this.test(ex) && other.test(ex);
+        return new SelectiveCondition(selector().and(other.selector()), ex -> this.test(ex) && other.test(ex));
     }
 
     default Condition or(Condition other) {
         Objects.requireNonNull(other);
-        return ex -> this.test(ex) || other.test(ex);
+        return new SelectiveCondition(selector().or(other.selector()), ex -> this.test(ex) || other.test(ex));
     }
 
     default Condition not() {
@@ -29,18 +36,19 @@ public interface Condition extends Predicate<ServerWebExchange> {
     }
 
     static Condition always() {
-        return ex -> true;
+        return new SelectiveCondition(RequestSelector.ANY, ex -> true);
     }
 
     static Condition methodIs(HttpMethod method) {
-        return ex -> method.equals(ex.getRequest().getMethod());
+        return new SelectiveCondition(RequestSelector.methods(RequestSelector.methodMask(Set.of(method))),
+                ex -> method.equals(ex.getRequest().getMethod()));
     }
 
     static Condition methodIn(Set<HttpMethod> methods) {
-        return ex -> {
+        return new SelectiveCondition(RequestSelector.methods(RequestSelector.methodMask(methods)), ex -> {
             HttpMethod hm = ex.getRequest().getMethod();
             return hm != null && methods.contains(hm);
-        };
+        });
     }
 
     static Condition methodIs(String m) {
@@ -62,11 +70,12 @@ public interface Condition extends Predicate<ServerWebExchange> {
     }
 
     static Condition pathMatches(String pattern) {
-        var m = new AntPathMatcher();
-        return ex -> m.match(pattern, ex.getRequest().getPath().value());
+        return new SelectiveCondition(RequestSelector.path(RequestSelector.literalPrefix(pattern)),
+                ex -> SelectiveCondition.PATH_MATCHER.match(pattern, ex.getRequest().getPath().value()));
     }
 
     static Condition pathStartsWith(String prefix) {
-        return ex -> ex.getRequest().getPath().value().startsWith(prefix);
+        return new SelectiveCondition(RequestSelector.path(prefix),
+                ex -> ex.getRequest().getPath().value().startsWith(prefix));
     }
 }
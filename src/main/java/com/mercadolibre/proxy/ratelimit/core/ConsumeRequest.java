@@ -0,0 +1,7 @@
+package com.mercadolibre.proxy.ratelimit.core;
+
+/**
+ * Consumo pendiente de una regla ya resuelta: clave final, permisos y límite.
+ */
+public record ConsumeRequest(String key, int permits, Limit limit) {
+}
@@ -0,0 +1,26 @@
+package com.mercadolibre.proxy.ratelimit.core;
+
+/**
+ * Hash de 64 bits de las claves de rate limit, compartido por el motor primitivo y el anillo de
+ * shards de Redis. Recorre los chars sin pasar a bytes, así no hay allocations por request.
+ */
+public final class KeyHash {
+
+    private KeyHash() {
+    }
+
+    /** FNV-1a de 64 bits sobre los chars con el finalizador de murmur3 para repartir bien los bits. */
+    public static long hash(CharSequence s) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
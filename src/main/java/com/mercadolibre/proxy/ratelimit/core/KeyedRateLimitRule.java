@@ -0,0 +1,59 @@
+package com.mercadolibre.proxy.ratelimit.core;
+
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Regla construida por {@link RuleBuilder}. Expone la resolución de la clave por separado
+ * del consumo para que el filtro pueda agrupar todas las reglas de un mismo backend.
+ */
+public final class KeyedRateLimitRule implements RateLimitRule {
+
+    private final String name;
+    private final Condition when;
+    private final KeyGenerator keygen;
+    private final Limit limit;
+    private final RateLimiterBackend backend;
+
+    KeyedRateLimitRule(String name, Condition when, KeyGenerator keygen, Limit limit, RateLimiterBackend backend) {
+        this.name = name;
+        this.when = when;
+        this.keygen = keygen;
+        this.limit = limit;
+        this.backend = backend;
+    }
+
+    public String name() { return name; }
+    public Limit limit() { return limit; }
+    public RateLimiterBackend backend() { return backend; }
+    public RequestSelector selector() { return when.selector(); }
+
+    /**
+     * @return el consumo a realizar o {@code null} si la regla no aplica a la request
+     */
+    public ConsumeRequest resolve(ServerWebExchange ex) {
+        if (!when.test(ex)) return null;
+        return new ConsumeRequest(name + ":" + keygen.key(ex), 1, limit);
+    }
+
+    public Decision blocked() {
+        long windowMs = limit.window().toMillis();
+        long retryMs;
+        if (limit.algorithm() == Algorithm.GCRA) {
+            // Se libera un lugar cada window/capacity
+            retryMs = Math.max(1, windowMs / Math.max(1, limit.capacity()));
+        } else {
+            // Fixed: reinicio de la ventana. Sliding: cota superior (el peso de la anterior baja antes)
+            retryMs = windowMs - (System.currentTimeMillis() % windowMs);
+        }
+        return Decision.block(name, (int) Math.ceil(retryMs / 1000.0));
+    }
+
+    @Override
+    public Mono<Decision> evaluate(ServerWebExchange ex) {
+        ConsumeRequest req = resolve(ex);
+        if (req == null) return Mono.just(Decision.allow());
+        return backend.tryConsume(req.key(), req.permits(), req.limit())
+                .map(ok -> ok ? Decision.allow() : blocked());
+    }
+}
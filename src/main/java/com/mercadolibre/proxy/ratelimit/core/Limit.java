@@ -2,7 +2,11 @@ package com.mercadolibre.proxy.ratelimit.core;
 
 import java.time.Duration;
 
-public record Limit(int capacity, Duration window) {
+public record Limit(int capacity, Duration window, Algorithm algorithm) {
+    public Limit(int capacity, Duration window) {
+        this(capacity, window, Algorithm.FIXED_WINDOW);
+    }
+
     public static Limit perMinute(int n) {
         return new Limit(n, Duration.ofMinutes(1));
     }
@@ -10,4 +14,8 @@ public record Limit(int capacity, Duration window) {
     public static Limit perSeconds(int n, int seconds) {
         return new Limit(n, Duration.ofSeconds(seconds));
     }
+
+    public Limit with(Algorithm algorithm) {
+        return new Limit(capacity, window, algorithm);
+    }
 }
@@ -1,7 +1,26 @@
 package com.mercadolibre.proxy.ratelimit.core;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 public interface RateLimiterBackend {
     Mono<Boolean> tryConsume(String key, int permits, Limit limit);
+
+    /**
+     * Evalúa varias claves de una misma request. Devuelve el índice de la primera
+     * denegada o -1 si se concedieron todas. Por defecto consume en orden, una a una;
+     * los backends remotos lo sobreescriben para resolverlo en un solo round trip.
+     */
+    default Mono<Integer> tryConsumeAll(List<ConsumeRequest> requests) {
+        return Flux.range(0, requests.size())
+                .concatMap(i -> {
+                    var r = requests.get(i);
+                    return tryConsume(r.key(), r.permits(), r.limit()).map(ok -> ok ? -1 : i);
+                })
+                .filter(i -> i >= 0)
+                .next()
+                .defaultIfEmpty(-1);
+    }
 }
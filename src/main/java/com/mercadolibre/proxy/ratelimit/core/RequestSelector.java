@@ -0,0 +1,82 @@
+package com.mercadolibre.proxy.ratelimit.core;
+
+import org.springframework.http.HttpMethod;
+
+/**
+ * Cota superior de las requests que puede aceptar una {@link Condition}: el path tiene que
+ * empezar con {@code pathPrefix} y el método estar en {@code methods} (bitmap, ver {@link #methodBit}).
+ * Es conservadora: una condición puede rechazar requests dentro del selector, nunca aceptar fuera.
+ */
+public record RequestSelector(String pathPrefix, long methods) {
+
+    public static final long ALL_METHODS = -1L;
+    public static final RequestSelector ANY = new RequestSelector("", ALL_METHODS);
+    public static final RequestSelector NONE = new RequestSelector("", 0L);
+
+    private static final HttpMethod[] STANDARD = HttpMethod.values();
+    private static final int OTHER_BIT = 63;
+
+    public static RequestSelector path(String prefix) {
+        return new RequestSelector(prefix, ALL_METHODS);
+    }
+
+    public static RequestSelector methods(long mask) {
+        return new RequestSelector("", mask);
+    }
+
+    /** Bit del método; los no estándar comparten el bit 63. */
+    public static int methodBit(HttpMethod method) {
+        for (int i = 0; i < STANDARD.length; i++) {
+            if (STANDARD[i].equals(method)) return i;
+        }
+        return OTHER_BIT;
+    }
+
+    public static long methodMask(Iterable<HttpMethod> methods) {
+        long mask = 0;
+        for (HttpMethod m : methods) mask |= 1L << methodBit(m);
+        return mask;
+    }
+
+    public boolean matchesNothing() {
+        return methods == 0;
+    }
+
+    /** Ambas condiciones: el prefijo más largo (si son compatibles) y la intersección de métodos. */
+    public RequestSelector and(RequestSelector other) {
+        String prefix;
+        if (pathPrefix.startsWith(other.pathPrefix)) prefix = pathPrefix;
+        else if (other.pathPrefix.startsWith(pathPrefix)) prefix = other.pathPrefix;
+        else return NONE;
+        long m = methods & other.methods;
+        return m == 0 ? NONE : new RequestSelector(prefix, m);
+    }
+
+    /** Alguna de las condiciones: prefijo común y unión de métodos. */
+    public RequestSelector or(RequestSelector other) {
+        if (matchesNothing()) return other;
+        if (other.matchesNothing()) return this;
+        int n = Math.min(pathPrefix.length(), other.pathPrefix.length());
+        int i = 0;
+        while (i < n && pathPrefix.charAt(i) == other.pathPrefix.charAt(i)) i++;
+        return new RequestSelector(pathPrefix.substring(0, i), methods | other.methods);
+    }
+
+    /**
+     * Parte literal de un patrón Ant hasta el último '/' previo al primer comodín
+     * ("/items/**" → "/items", que también matchea).
+     */
+    static String literalPrefix(String antPattern) {
+        int wildcard = -1;
+        for (int i = 0; i < antPattern.length(); i++) {
+            char c = antPattern.charAt(i);
+            if (c == '*' || c == '?' || c == '{') {
+                wildcard = i;
+                break;
+            }
+        }
+        if (wildcard < 0) return antPattern;
+        int slash = antPattern.lastIndexOf('/', wildcard);
+        return slash <= 0 ? "" : antPattern.substring(0, slash);
+    }
+}
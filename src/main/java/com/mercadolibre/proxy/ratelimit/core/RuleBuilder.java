@@ -1,13 +1,11 @@
 package com.mercadolibre.proxy.ratelimit.core;
 
-import org.springframework.web.server.ServerWebExchange;
-import reactor.core.publisher.Mono;
-
 public final class RuleBuilder {
     private String name;
     private Condition when = Condition.always();
     private KeyGenerator keygen = KeyGenerator.constant("default");
     private Limit limit = Limit.perMinute(60);
+    private Algorithm algorithm;
     private RateLimiterBackend backend;
 
     private RuleBuilder() {}
@@ -19,26 +17,12 @@ public final class RuleBuilder {
     public RuleBuilder when(Condition c) { this.when = this.when.and(c); return this; }
     public RuleBuilder key(KeyGenerator k) { this.keygen = k; return this; }
     public RuleBuilder limit(Limit l) { this.limit = l; return this; }
+    public RuleBuilder algorithm(Algorithm a) { this.algorithm = a; return this; }
     public RuleBuilder backend(RateLimiterBackend b) { this.backend = b; return this; }
 
     public RateLimitRule build() {
         if (backend == null) throw new IllegalStateException("backend is required");
-        final String rn = name;
-        final Condition cond = when;
-        final KeyGenerator kg = keygen;
-        final Limit lim = limit;
-
-        return (ServerWebExchange ex) -> {
-            if (!cond.test(ex)) return Mono.just(Decision.allow());
-
-            long now = System.currentTimeMillis();
-            long windowMs = lim.window().toMillis();
-            long remainingMs = windowMs - (now % windowMs);
-            int retrySec = (int) Math.ceil(remainingMs / 1000.0);
-
-            String key = rn + ":" + kg.key(ex);
-            return backend.tryConsume(key, 1, lim)
-                    .map(ok -> ok ? Decision.allow() : Decision.block(rn, retrySec));
-        };
+        Limit lim = algorithm != null ? limit.with(algorithm) : limit;
+        return new KeyedRateLimitRule(name, when, keygen, lim, backend);
     }
 }
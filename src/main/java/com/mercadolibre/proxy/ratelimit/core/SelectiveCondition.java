@@ -0,0 +1,34 @@
+package com.mercadolibre.proxy.ratelimit.core;
+
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.function.Predicate;
+
+/**
+ * {@link Condition} que además declara su {@link RequestSelector}, para que el filtro
+ * pueda indexar las reglas sin evaluarlas.
+ */
+final class SelectiveCondition implements Condition {
+
+    // AntPathMatcher es thread-safe: uno solo para todas las condiciones
+    static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final RequestSelector selector;
+    private final Predicate<ServerWebExchange> test;
+
+    SelectiveCondition(RequestSelector selector, Predicate<ServerWebExchange> test) {
+        this.selector = selector;
+        this.test = test;
+    }
+
+    @Override
+    public boolean test(ServerWebExchange ex) {
+        return test.test(ex);
+    }
+
+    @Override
+    public RequestSelector selector() {
+        return selector;
+    }
+}
@@ -0,0 +1,126 @@
+package com.mercadolibre.proxy.ratelimit.memory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Store acotado de buckets por clave: LRU segmentado (un LinkedHashMap en orden de acceso por
+ * segmento, cada uno con su lock) más expiración por inactividad. Al insertar en un segmento lleno
+ * se desaloja su entrada menos usada; las entradas ociosas más que su TTL se descartan al accederlas
+ * y en un barrido acotado de la cabeza del segmento en cada inserción, sin hilos extra.
+ */
+public final class BoundedBucketStore<V> {
+
+    private static final int SWEEP_PER_INSERT = 4;
+
+    private final Segment<V>[] segments;
+    private final int mask;
+    private final LongSupplier nanoClock;
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public BoundedBucketStore(int maxEntries, int concurrency) {
+        this(maxEntries, concurrency, System::nanoTime);
+    }
+
+    @SuppressWarnings("unchecked")
+    BoundedBucketStore(int maxEntries, int concurrency, LongSupplier nanoClock) {
+        if (maxEntries < 1) throw new IllegalArgumentException("maxEntries must be >= 1");
+        int n = Integer.highestOneBit(Math.max(1, Math.min(concurrency, maxEntries)));
+        this.segments = new Segment[n];
+        int perSegment = Math.max(1, maxEntries / n);
+        for (int i = 0; i < n; i++) segments[i] = new Segment<>(perSegment);
+        this.mask = n - 1;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Devuelve el valor vigente de la clave o crea uno nuevo si no existe o estuvo ocioso más de {@code ttlNanos}.
+     */
+    public V getOrCreate(String key, long ttlNanos, Supplier<V> factory) {
+        Segment<V> seg = segments[spread(key.hashCode()) & mask];
+        long now = nanoClock.getAsLong();
+        synchronized (seg) {
+            Entry<V> e = seg.map.get(key);
+            if (e != null && now - e.lastAccess > e.ttlNanos) {
+                seg.map.remove(key);
+                expirations.increment();
+                e = null;
+            }
+            if (e != null) {
+                e.lastAccess = now;
+                return e.value;
+            }
+            e = new Entry<>(factory.get(), ttlNanos, now);
+            seg.map.put(key, e);
+            if (seg.map.size() > seg.capacity) {
+                var eldest = seg.map.entrySet().iterator();
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+            sweep(seg, now);
+            return e.value;
+        }
+    }
+
+    public long size() {
+        long total = 0;
+        for (Segment<V> seg : segments) {
+            synchronized (seg) {
+                total += seg.map.size();
+            }
+        }
+        return total;
+    }
+
+    /** Entradas desalojadas por falta de espacio. */
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /** Entradas descartadas por inactividad. */
+    public long expirations() {
+        return expirations.sum();
+    }
+
+    // En orden de acceso las ociosas quedan al principio: se revisan unas pocas por inserción
+    private void sweep(Segment<V> seg, long now) {
+        Iterator<Entry<V>> it = seg.map.values().iterator();
+        for (int i = 0; i < SWEEP_PER_INSERT && it.hasNext(); i++) {
+            Entry<V> e = it.next();
+            if (now - e.lastAccess <= e.ttlNanos) return;
+            it.remove();
+            expirations.increment();
+        }
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Segment<V> {
+        final int capacity;
+        final LinkedHashMap<String, Entry<V>> map;
+
+        Segment(int capacity) {
+            this.capacity = capacity;
+            this.map = new LinkedHashMap<>(Math.min(capacity, 1024), 0.75f, true);
+        }
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long ttlNanos;
+        long lastAccess;
+
+        Entry(V value, long ttlNanos, long lastAccess) {
+            this.value = value;
+            this.ttlNanos = ttlNanos;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
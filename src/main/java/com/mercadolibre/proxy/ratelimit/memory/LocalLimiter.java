@@ -0,0 +1,9 @@
+package com.mercadolibre.proxy.ratelimit.memory;
+
+/**
+ * Estado en memoria de una clave, sea cual sea el algoritmo.
+ */
+@FunctionalInterface
+public interface LocalLimiter {
+    boolean tryConsume(int permits, long nowMs);
+}
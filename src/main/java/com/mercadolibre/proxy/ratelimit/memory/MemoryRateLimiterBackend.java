@@ -1,29 +1,53 @@
 package com.mercadolibre.proxy.ratelimit.memory;
 
+import com.mercadolibre.proxy.ratelimit.core.Algorithm;
 import com.mercadolibre.proxy.ratelimit.core.Limit;
 import com.mercadolibre.proxy.ratelimit.core.RateLimiterBackend;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
 import reactor.core.publisher.Mono;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-
+/**
+ * Rate limit en memoria. Fixed window: token bucket de Bucket4j con refill intervalado.
+ * GCRA: token bucket con refill continuo (greedy), que es equivalente. Sliding window:
+ * {@link SlidingWindowCounter}. Cada clave expira cuando su estado ya no influye en la
+ * próxima decisión (una ventana sin uso; dos para sliding window).
+ */
 public class MemoryRateLimiterBackend implements RateLimiterBackend {
 
-    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final BoundedBucketStore<LocalLimiter> buckets;
+
+    public MemoryRateLimiterBackend() {
+        this(new BoundedBucketStore<>(1_000_000, 64));
+    }
+
+    public MemoryRateLimiterBackend(BoundedBucketStore<LocalLimiter> buckets) {
+        this.buckets = buckets;
+    }
 
     @Override
     public Mono<Boolean> tryConsume(String key, int permits, Limit limit) {
-        Bucket b = buckets.computeIfAbsent(key, k -> newBucket(limit));
-        return Mono.just(b.tryConsume(permits));
+        long ttl = limit.window().toNanos() * (limit.algorithm() == Algorithm.SLIDING_WINDOW ? 2 : 1);
+        LocalLimiter l = buckets.getOrCreate(key, ttl, () -> newLimiter(limit));
+        return Mono.just(l.tryConsume(permits, System.currentTimeMillis()));
+    }
+
+    private LocalLimiter newLimiter(Limit limit) {
+        return switch (limit.algorithm()) {
+            case SLIDING_WINDOW -> new SlidingWindowCounter(limit.capacity(), limit.window().toMillis());
+            case GCRA -> bucket(Bandwidth.builder()
+                    .capacity(limit.capacity())
+                    .refillGreedy(limit.capacity(), limit.window())
+                    .build());
+            case FIXED_WINDOW -> bucket(Bandwidth.builder()
+                    .capacity(limit.capacity())
+                    .refillIntervally(limit.capacity(), limit.window())
+                    .build());
+        };
     }
 
-    private Bucket newBucket(Limit limit) {
-        Bandwidth bw = Bandwidth.builder()
-                .capacity(limit.capacity())
-                .refillIntervally(limit.capacity(), limit.window())
-                .build();
-        return Bucket.builder().addLimit(bw).build();
+    private static LocalLimiter bucket(Bandwidth bw) {
+        Bucket b = Bucket.builder().addLimit(bw).build();
+        return (permits, nowMs) -> b.tryConsume(permits);
     }
 }
@@ -0,0 +1,52 @@
+package com.mercadolibre.proxy.ratelimit.memory;
+
+import com.mercadolibre.proxy.ratelimit.core.Algorithm;
+import com.mercadolibre.proxy.ratelimit.core.KeyHash;
+import com.mercadolibre.proxy.ratelimit.core.Limit;
+import com.mercadolibre.proxy.ratelimit.core.RateLimiterBackend;
+import reactor.core.publisher.Mono;
+
+/**
+ * Backend en memoria sobre {@link PrimitiveTokenBucketEngine}: mismos algoritmos que
+ * {@link MemoryRateLimiterBackend} pero sin objetos por clave ni allocations en el camino
+ * de {@code tryConsume}. Las capacidades no se validan por request: quien arma el backend las
+ * chequea una vez con {@link #checkCapacity}.
+ */
+public class PrimitiveRateLimiterBackend implements RateLimiterBackend {
+
+    private static final Mono<Boolean> ALLOWED = Mono.just(true);
+    private static final Mono<Boolean> DENIED = Mono.just(false);
+
+    private final PrimitiveTokenBucketEngine engine;
+
+    public PrimitiveRateLimiterBackend(PrimitiveTokenBucketEngine engine) {
+        this.engine = engine;
+    }
+
+    @Override
+    public Mono<Boolean> tryConsume(String key, int permits, Limit limit) {
+        long hash = KeyHash.hash(key);
+        long windowMs = limit.window().toMillis();
+        long now = System.currentTimeMillis();
+        boolean ok = switch (limit.algorithm()) {
+            case FIXED_WINDOW -> engine.tryConsume(hash, permits, limit.capacity(), windowMs, now);
+            case SLIDING_WINDOW -> engine.tryConsumeSliding(hash, permits, limit.capacity(), windowMs, now);
+            case GCRA -> engine.tryConsumeGcra(hash, permits, limit.capacity(), windowMs, now);
+        };
+        return ok ? ALLOWED : DENIED;
+    }
+
+    /**
+     * Falla si {@code capacity} no entra en el estado empaquetado del engine para {@code algorithm}.
+     */
+    public static void checkCapacity(Algorithm algorithm, int capacity) {
+        int max = switch (algorithm) {
+            case FIXED_WINDOW -> PrimitiveTokenBucketEngine.MAX_CAPACITY;
+            case SLIDING_WINDOW -> PrimitiveTokenBucketEngine.MAX_SLIDING_CAPACITY;
+            case GCRA -> Integer.MAX_VALUE;
+        };
+        if (capacity > max) {
+            throw new IllegalArgumentException("capacity " + capacity + " above " + max + " for " + algorithm);
+        }
+    }
+}
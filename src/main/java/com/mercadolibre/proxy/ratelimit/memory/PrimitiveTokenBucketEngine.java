@@ -0,0 +1,211 @@
+package com.mercadolibre.proxy.ratelimit.memory;
+
+import com.mercadolibre.proxy.ratelimit.core.KeyHash;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rate limit sin objetos por clave: cada clave ocupa dos {@code long} en arrays por stripe
+ * (hash de 64 bits y estado empaquetado). Las actualizaciones son CAS sobre el estado, sin locks
+ * ni allocations. El estado depende del algoritmo de la clave:
+ * <ul>
+ *   <li>fixed window: tokens (24 bits altos) + último refill en ms relativos al arranque (40 bajos);
+ *   misma semántica que Bucket4j con {@code refillIntervally}.</li>
+ *   <li>sliding window: índice de ventana (20 bits) + conteo anterior (22) + conteo actual (22).</li>
+ *   <li>GCRA: el TAT (theoretical arrival time) en microsegundos relativos al arranque.</li>
+ * </ul>
+ * Direccionamiento abierto con sondeo lineal acotado; si el tramo está lleno se reemplaza una de sus
+ * claves elegida por el hash (muestreo, sin orden LRU). Un hilo que resolvió el slot antes del
+ * reemplazo no consume del bucket de la clave nueva: antes del CAS verifica que el slot siga siendo
+ * de su clave y después del CAS lo vuelve a verificar, deshaciendo el cambio si se lo ganaron. Dos
+ * claves distintas con el mismo hash de 64 bits compartirían estado, algo despreciable en la práctica.
+ */
+public final class PrimitiveTokenBucketEngine {
+
+    public static final int MAX_CAPACITY = (1 << 24) - 1;
+    public static final int MAX_SLIDING_CAPACITY = (1 << 22) - 1;
+
+    private static final int TIME_BITS = 40;
+    private static final long TIME_MASK = (1L << TIME_BITS) - 1;
+    private static final int COUNT_BITS = 22;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final long INDEX_MASK = (1L << 20) - 1;
+    private static final int MAX_PROBE = 8;
+
+    private final AtomicLongArray[] keys;
+    private final AtomicLongArray[] states;
+    private final int stripeMask;
+    private final int slotMask;
+    private final long epochMs;
+    private final LongAdder used = new LongAdder();
+    private final LongAdder replacements = new LongAdder();
+
+    public PrimitiveTokenBucketEngine(int maxEntries, int stripes) {
+        this(maxEntries, stripes, System.currentTimeMillis());
+    }
+
+    PrimitiveTokenBucketEngine(int maxEntries, int stripes, long epochMs) {
+        int n = nextPow2(Math.min(Math.max(1, stripes), 1 << 16));
+        // ~25% de holgura para que el sondeo lineal siga corto
+        int perStripe = nextPow2((int) Math.max(MAX_PROBE, Math.min(1 << 30, (maxEntries * 4L / 3) / n)));
+        this.keys = new AtomicLongArray[n];
+        this.states = new AtomicLongArray[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = new AtomicLongArray(perStripe);
+            states[i] = new AtomicLongArray(perStripe);
+        }
+        this.stripeMask = n - 1;
+        this.slotMask = perStripe - 1;
+        this.epochMs = epochMs;
+    }
+
+    /**
+     * @param keyHash  hash de 64 bits de la clave (ver {@link KeyHash#hash(CharSequence)})
+     * @param capacity tokens por ventana, hasta {@link #MAX_CAPACITY}
+     */
+    public boolean tryConsume(long keyHash, int permits, int capacity, long windowMs, long nowMs) {
+        long h = keyHash == 0 ? 1 : keyHash; // 0 marca slot libre
+        AtomicLongArray ks = keys[stripe(h)];
+        AtomicLongArray st = states[stripe(h)];
+        int slot = slotFor(ks, h);
+
+        long now = nowMs - epochMs + 1; // nunca 0: un estado 0 es un bucket recién creado (lleno)
+        for (;;) {
+            long s = st.get(slot);
+            if (ks.get(slot) != h) { // reemplazada mientras tanto
+                slot = slotFor(ks, h);
+                continue;
+            }
+            long tokens;
+            long last;
+            if (s == 0) {
+                tokens = capacity;
+                last = now;
+            } else {
+                tokens = s >>> TIME_BITS;
+                last = s & TIME_MASK;
+                long elapsed = now - last;
+                if (elapsed >= windowMs) {
+                    tokens = capacity;
+                    last += (elapsed / windowMs) * windowMs;
+                }
+            }
+            if (tokens < permits) return false;
+            long next = ((tokens - permits) << TIME_BITS) | (last & TIME_MASK);
+            if (commit(ks, st, slot, h, s, next)) return true;
+        }
+    }
+
+    /**
+     * Ventana deslizante; {@code capacity} hasta {@link #MAX_SLIDING_CAPACITY}.
+     */
+    public boolean tryConsumeSliding(long keyHash, int permits, int capacity, long windowMs, long nowMs) {
+        long h = keyHash == 0 ? 1 : keyHash;
+        AtomicLongArray ks = keys[stripe(h)];
+        AtomicLongArray st = states[stripe(h)];
+        int slot = slotFor(ks, h);
+
+        long rel = nowMs - epochMs;
+        long idx = rel / windowMs;
+        long idxBits = idx & INDEX_MASK;
+        double elapsed = (rel % windowMs) / (double) windowMs;
+        for (;;) {
+            long s = st.get(slot);
+            if (ks.get(slot) != h) { // reemplazada mientras tanto
+                slot = slotFor(ks, h);
+                continue;
+            }
+            long previous = 0;
+            long current = 0;
+            if (s != 0) {
+                long sIdx = s >>> (2 * COUNT_BITS);
+                long c = s & COUNT_MASK;
+                if (sIdx == idxBits) {
+                    previous = (s >>> COUNT_BITS) & COUNT_MASK;
+                    current = c;
+                } else if (sIdx == ((idx - 1) & INDEX_MASK)) {
+                    previous = c;
+                }
+            }
+            if (previous * (1 - elapsed) + current + permits > capacity) return false;
+            long next = (idxBits << (2 * COUNT_BITS)) | (previous << COUNT_BITS) | (current + permits);
+            if (commit(ks, st, slot, h, s, next)) return true;
+        }
+    }
+
+    /**
+     * GCRA: intervalo de emisión window/capacity y ráfaga de hasta {@code capacity}.
+     */
+    public boolean tryConsumeGcra(long keyHash, int permits, int capacity, long windowMs, long nowMs) {
+        long h = keyHash == 0 ? 1 : keyHash;
+        AtomicLongArray ks = keys[stripe(h)];
+        AtomicLongArray st = states[stripe(h)];
+        int slot = slotFor(ks, h);
+
+        long windowUs = windowMs * 1000;
+        long intervalUs = Math.max(1, windowUs / capacity);
+        long nowUs = (nowMs - epochMs) * 1000 + 1; // nunca 0: estado 0 = clave sin historial
+        for (;;) {
+            long s = st.get(slot);
+            if (ks.get(slot) != h) { // reemplazada mientras tanto
+                slot = slotFor(ks, h);
+                continue;
+            }
+            long tat = Math.max(s, nowUs);
+            long newTat = tat + permits * intervalUs;
+            if (newTat - nowUs > windowUs) return false;
+            if (commit(ks, st, slot, h, s, newTat)) return true;
+        }
+    }
+
+    /** Slots ocupados. */
+    public long size() {
+        return used.sum();
+    }
+
+    /** Claves desplazadas por falta de lugar en su tramo de sondeo. */
+    public long replacements() {
+        return replacements.sum();
+    }
+
+    private int stripe(long h) {
+        return (int) (h >>> 40) & stripeMask; // bits altos para el stripe, bajos para el slot
+    }
+
+    /**
+     * CAS del estado. Si el slot pasó a otra clave entre la lectura y el CAS (el estado de un slot
+     * reemplazado vuelve a 0, así que un CAS desde 0 puede acertar), se deshace y el llamador
+     * reintenta; si ya no se puede deshacer es que el reemplazo lo pisó y el consumo fue previo.
+     */
+    private static boolean commit(AtomicLongArray ks, AtomicLongArray st, int slot, long h, long s, long next) {
+        if (!st.compareAndSet(slot, s, next)) return false;
+        return ks.get(slot) == h || !st.compareAndSet(slot, next, s);
+    }
+
+    private int slotFor(AtomicLongArray ks, long h) {
+        int base = (int) h & slotMask;
+        for (int p = 0; p < MAX_PROBE; p++) {
+            int i = (base + p) & slotMask;
+            long k = ks.get(i);
+            if (k == h) return i;
+            if (k == 0) {
+                if (ks.compareAndSet(i, 0, h)) {
+                    used.increment();
+                    return i;
+                }
+                if (ks.get(i) == h) return i; // otro hilo la insertó a la vez
+            }
+        }
+        // Tramo lleno: se reemplaza una clave del tramo; el estado nuevo arranca vacío (sin consumo)
+        int victim = (base + (int) (h >>> 32 & (MAX_PROBE - 1))) & slotMask;
+        ks.set(victim, h);
+        states[stripe(h)].set(victim, 0);
+        replacements.increment();
+        return victim;
+    }
+
+    private static int nextPow2(int x) {
+        return x <= 1 ? 1 : Integer.highestOneBit(x - 1) << 1;
+    }
+}
@@ -0,0 +1,33 @@
+package com.mercadolibre.proxy.ratelimit.memory;
+
+/**
+ * Ventana deslizante aproximada: conteo de la ventana actual más el de la anterior ponderado
+ * por la fracción de ella que todavía cae dentro de la ventana que termina en {@code now}.
+ */
+final class SlidingWindowCounter implements LocalLimiter {
+
+    private final int capacity;
+    private final long windowMs;
+    private long windowIndex = Long.MIN_VALUE;
+    private long previous;
+    private long current;
+
+    SlidingWindowCounter(int capacity, long windowMs) {
+        this.capacity = capacity;
+        this.windowMs = windowMs;
+    }
+
+    @Override
+    public synchronized boolean tryConsume(int permits, long nowMs) {
+        long idx = nowMs / windowMs;
+        if (idx != windowIndex) {
+            previous = idx == windowIndex + 1 ? current : 0;
+            current = 0;
+            windowIndex = idx;
+        }
+        double elapsed = (nowMs % windowMs) / (double) windowMs;
+        if (previous * (1 - elapsed) + current + permits > capacity) return false;
+        current += permits;
+        return true;
+    }
+}
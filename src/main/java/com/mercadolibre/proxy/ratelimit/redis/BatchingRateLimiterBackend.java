@@ -0,0 +1,107 @@
+package com.mercadolibre.proxy.ratelimit.redis;
+
+import com.mercadolibre.proxy.metrics.ProxyMetrics;
+import com.mercadolibre.proxy.ratelimit.core.ConsumeRequest;
+import com.mercadolibre.proxy.ratelimit.core.Limit;
+import com.mercadolibre.proxy.ratelimit.core.RateLimiterBackend;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Micro-batching delante de {@link RedisRateLimiterBackend}: junta las evaluaciones concurrentes
+ * y las envía como un único script con un grupo por request. Se hace flush al llegar a
+ * {@code maxBatchSize} o cuando pasa {@code maxDelay} desde la primera evaluación encolada.
+ */
+public class BatchingRateLimiterBackend implements RateLimiterBackend {
+
+    private final RedisRateLimiterBackend redis;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final Scheduler scheduler;
+    private final ProxyMetrics metrics;
+
+    private final Queue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    public BatchingRateLimiterBackend(RedisRateLimiterBackend redis, int maxBatchSize, Duration maxDelay,
+                                      Scheduler scheduler, ProxyMetrics metrics) {
+        if (maxBatchSize < 1) throw new IllegalArgumentException("maxBatchSize must be >= 1");
+        this.redis = redis;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.scheduler = scheduler;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Mono<Boolean> tryConsume(String key, int permits, Limit limit) {
+        return tryConsumeAll(List.of(new ConsumeRequest(key, permits, limit)))
+                .map(denied -> denied < 0);
+    }
+
+    @Override
+    public Mono<Integer> tryConsumeAll(List<ConsumeRequest> requests) {
+        if (requests.isEmpty()) return Mono.just(-1);
+        return Mono.create(sink -> enqueue(new Pending(requests, sink, System.nanoTime())));
+    }
+
+    private void enqueue(Pending p) {
+        queue.offer(p);
+        if (queued.incrementAndGet() >= maxBatchSize) {
+            flush();
+        } else if (flushScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::onTimer, maxDelayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void onTimer() {
+        flushScheduled.set(false);
+        while (flush() > 0) {
+            // drena todo lo encolado hasta el momento, en lotes de maxBatchSize
+        }
+    }
+
+    private int flush() {
+        List<Pending> batch = new ArrayList<>(Math.min(maxBatchSize, Math.max(queued.get(), 1)));
+        Pending p;
+        while (batch.size() < maxBatchSize && (p = queue.poll()) != null) {
+            batch.add(p);
+        }
+        if (batch.isEmpty()) return 0;
+        queued.addAndGet(-batch.size());
+        send(batch);
+        return batch.size();
+    }
+
+    private void send(List<Pending> batch) {
+        List<List<ConsumeRequest>> groups = new ArrayList<>(batch.size());
+        long oldest = Long.MAX_VALUE;
+        for (Pending p : batch) {
+            groups.add(p.requests());
+            oldest = Math.min(oldest, p.enqueuedNanos());
+        }
+        final long since = oldest;
+        redis.tryConsumeGroups(groups).subscribe(
+                results -> {
+                    metrics.recordRateLimitBatch(batch.size(), System.nanoTime() - since);
+                    for (int i = 0; i < batch.size(); i++) batch.get(i).sink().success(results.get(i));
+                },
+                err -> {
+                    for (Pending p : batch) p.sink().error(err);
+                });
+    }
+
+    private record Pending(List<ConsumeRequest> requests, MonoSink<Integer> sink, long enqueuedNanos) {
+    }
+}
@@ -0,0 +1,49 @@
+package com.mercadolibre.proxy.ratelimit.redis;
+
+import com.mercadolibre.proxy.ratelimit.core.KeyHash;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Hashing consistente con nodos virtuales: cada nodo ocupa {@code virtualNodes} puntos de un anillo
+ * de 64 bits y una clave va al primer punto igual o posterior a su hash. Los puntos dependen sólo
+ * del nombre del nodo, así al agregar uno sólo se mueven las claves que pasan a él (~1/N).
+ * Inmutable; la búsqueda es binaria sobre un arreglo ordenado.
+ */
+public final class ConsistentHashRing<T> {
+
+    private final long[] points;
+    private final Object[] owners;
+    private final int nodes;
+
+    public ConsistentHashRing(Map<String, T> nodesByName, int virtualNodes) {
+        if (nodesByName.isEmpty()) throw new IllegalArgumentException("at least one node is required");
+        if (virtualNodes < 1) throw new IllegalArgumentException("virtualNodes must be >= 1");
+        TreeMap<Long, T> ring = new TreeMap<>();
+        nodesByName.forEach((name, node) -> {
+            for (int i = 0; i < virtualNodes; i++) ring.put(KeyHash.hash(name + "#" + i), node);
+        });
+        this.points = new long[ring.size()];
+        this.owners = new Object[ring.size()];
+        int i = 0;
+        for (var e : ring.entrySet()) {
+            points[i] = e.getKey();
+            owners[i++] = e.getValue();
+        }
+        this.nodes = nodesByName.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    public T node(String key) {
+        if (nodes == 1) return (T) owners[0];
+        int i = Arrays.binarySearch(points, KeyHash.hash(key));
+        if (i < 0) i = -i - 1;
+        return (T) owners[i == points.length ? 0 : i];
+    }
+
+    public int size() {
+        return nodes;
+    }
+}
@@ -0,0 +1,306 @@
+package com.mercadolibre.proxy.ratelimit.redis;
+
+import com.mercadolibre.proxy.metrics.ProxyMetrics;
+import com.mercadolibre.proxy.ratelimit.core.Algorithm;
+import com.mercadolibre.proxy.ratelimit.core.ConsumeRequest;
+import com.mercadolibre.proxy.ratelimit.core.Limit;
+import com.mercadolibre.proxy.ratelimit.core.RateLimiterBackend;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Backend híbrido para claves de límite alto (p.ej. la regla global de /categories): reserva
+ * en Redis un lote de permisos por clave y ventana y los sirve desde un contador local hasta
+ * agotarlo. El tamaño del lote sigue la tasa observada (permisos por {@code horizon}) y nunca
+ * supera {@code tolerance * capacity}, que es lo máximo que una instancia puede tener reservado
+ * sin usar. Los permisos de una clave que queda ociosa se devuelven a Redis mientras la ventana
+ * sigue vigente; al cerrar la ventana la clave de Redis expira con ellos.
+ * <p>
+ * Las claves con capacidad menor a {@code minCapacity} o con un algoritmo distinto de
+ * ventana fija van directo al {@code delegate}.
+ * <p>
+ * Los permisos locales viven en un objeto por ventana ({@link Window}): al cambiar de ventana se
+ * reemplaza entero, así tomar, devolver a Redis o reponer tras una denegación siempre opera sobre
+ * la ventana de la que salieron los permisos y nunca los acredita en otra.
+ */
+public class LeasingRateLimiterBackend implements RateLimiterBackend, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(LeasingRateLimiterBackend.class);
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final RedisRateLimiterBackend redis;
+    private final RateLimiterBackend delegate;
+    private final int minCapacity;
+    private final double tolerance;
+    private final long horizonNanos;
+    private final long idleReturnNanos;
+    private final ProxyMetrics metrics;
+    private final LongSupplier clock;
+    private final Map<String, KeyLease> leases = new ConcurrentHashMap<>();
+    private final Disposable sweeper;
+
+    public LeasingRateLimiterBackend(RedisRateLimiterBackend redis, RateLimiterBackend delegate,
+                                     int minCapacity, double tolerance, Duration horizon, Duration idleReturn,
+                                     Scheduler scheduler, ProxyMetrics metrics) {
+        this(redis, delegate, minCapacity, tolerance, horizon, idleReturn, scheduler, metrics, System::currentTimeMillis);
+    }
+
+    LeasingRateLimiterBackend(RedisRateLimiterBackend redis, RateLimiterBackend delegate,
+                              int minCapacity, double tolerance, Duration horizon, Duration idleReturn,
+                              Scheduler scheduler, ProxyMetrics metrics, LongSupplier clock) {
+        this.redis = redis;
+        this.delegate = delegate;
+        this.minCapacity = minCapacity;
+        this.tolerance = tolerance;
+        this.horizonNanos = horizon.toNanos();
+        this.idleReturnNanos = idleReturn.toNanos();
+        this.metrics = metrics;
+        this.clock = clock;
+        long every = idleReturn.toMillis();
+        this.sweeper = scheduler.schedulePeriodically(this::sweep, every, every, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Mono<Boolean> tryConsume(String key, int permits, Limit limit) {
+        if (!leasable(limit)) return delegate.tryConsume(key, permits, limit);
+        return acquire(key, permits, limit, 1).hasElement();
+    }
+
+    @Override
+    public Mono<Integer> tryConsumeAll(List<ConsumeRequest> requests) {
+        List<Integer> local = new ArrayList<>(requests.size());
+        List<ConsumeRequest> remote = new ArrayList<>(requests.size());
+        int[] remoteIdx = new int[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            if (leasable(requests.get(i).limit())) {
+                local.add(i);
+            } else {
+                remoteIdx[remote.size()] = i;
+                remote.add(requests.get(i));
+            }
+        }
+        if (local.isEmpty()) return delegate.tryConsumeAll(requests);
+
+        // Primero lo local (barato); si algo se deniega después, se devuelve lo ya tomado
+        List<Taken> taken = new ArrayList<>(local.size());
+        return Flux.fromIterable(local)
+                .concatMap(i -> {
+                    var r = requests.get(i);
+                    return acquire(r.key(), r.permits(), r.limit(), 1)
+                            .map(w -> {
+                                taken.add(new Taken(w, r.permits()));
+                                return -1;
+                            })
+                            .defaultIfEmpty(i);
+                })
+                .filter(i -> i >= 0)
+                .next()
+                .defaultIfEmpty(-1)
+                .flatMap(denied -> {
+                    if (denied >= 0 || remote.isEmpty()) {
+                        if (denied >= 0) refund(taken);
+                        return Mono.just(denied);
+                    }
+                    return delegate.tryConsumeAll(remote).map(d -> {
+                        if (d < 0) return -1;
+                        refund(taken);
+                        return remoteIdx[d];
+                    });
+                });
+    }
+
+    @Override
+    public void close() {
+        sweeper.dispose();
+        leases.forEach((key, lease) -> giveBack(key, lease.window));
+    }
+
+    private boolean leasable(Limit limit) {
+        // Sólo ventana fija: los lotes se descuentan del contador de la ventana
+        return limit.algorithm() == Algorithm.FIXED_WINDOW && limit.capacity() >= minCapacity;
+    }
+
+    /**
+     * Ventana de la que salieron los permisos, o vacío si se denegó.
+     */
+    private Mono<Window> acquire(String key, int permits, Limit limit, int attempt) {
+        long now = clock.getAsLong();
+        long windowMs = limit.window().toMillis();
+        long windowStart = now - (now % windowMs);
+
+        KeyLease lease = leases.computeIfAbsent(key, k -> new KeyLease());
+        Window w = lease.roll(windowStart, windowMs);
+        if (lease.tryTake(w, permits)) return Mono.just(w);
+        if (w.exhausted(System.nanoTime(), horizonNanos)) return Mono.empty();
+        // Sin permisos locales o muchos en espera: se consume directo en Redis, que es exacto; si
+        // hay que reponerlos quedan en la ventana local, como si se hubieran reservado
+        if (attempt > MAX_ATTEMPTS) {
+            return delegate.tryConsume(key, permits, limit).filter(ok -> ok).map(ok -> w);
+        }
+
+        return lease.refill(() -> requestLease(key, lease, limit, w, windowMs - (now - windowStart)))
+                .flatMap(granted -> {
+                    if (lease.tryTake(w, permits)) return Mono.just(w);
+                    if (granted == 0) return Mono.empty();
+                    return acquire(key, permits, limit, attempt + 1);
+                });
+    }
+
+    private Mono<Long> requestLease(String key, KeyLease lease, Limit limit, Window w, long ttlMs) {
+        long maxLease = Math.max(1, (long) (limit.capacity() * tolerance));
+        long size = lease.nextLeaseSize(maxLease, horizonNanos);
+        return redis.lease(key, limit, w.start, ttlMs, size)
+                .doOnNext(granted -> {
+                    w.grant(granted);
+                    metrics.recordRateLimitLease(granted);
+                });
+    }
+
+    private static void refund(List<Taken> taken) {
+        for (Taken t : taken) t.window().putBack(t.permits());
+    }
+
+    // Package-private: los tests la disparan sin esperar al scheduler
+    void sweep() {
+        long nowNanos = System.nanoTime();
+        long nowMs = clock.getAsLong();
+        leases.forEach((key, lease) -> {
+            if (nowNanos - lease.lastUseNanos < idleReturnNanos) return;
+            Window w = lease.window;
+            if (nowMs - w.start >= w.length) {
+                // Ventana cerrada: sus permisos expiraron en Redis, no hay nada que devolver
+                leases.remove(key, lease);
+                return;
+            }
+            giveBack(key, w);
+        });
+    }
+
+    private void giveBack(String key, Window w) {
+        long unused = w.drain();
+        if (unused <= 0) return;
+        redis.giveBack(key, w.start, unused).subscribe(
+                ok -> metrics.recordRateLimitLeaseReturn(unused),
+                err -> log.warn("could not return {} leased permits for {}: {}", unused, key, err.toString()));
+    }
+
+    /** Permisos tomados de una ventana local, por si hay que reponerlos. */
+    private record Taken(Window window, int permits) {
+    }
+
+    /**
+     * Permisos reservados de una ventana. Se reemplaza entera al cambiar de ventana: los permisos
+     * que queden en una vieja se pierden con ella (expiran en Redis) y nunca se mezclan con la nueva.
+     */
+    private static final class Window {
+        private final long start;
+        private final long length;
+        private final AtomicLong remaining = new AtomicLong();
+        private volatile long exhaustedAtNanos;
+
+        Window(long start, long length) {
+            this.start = start;
+            this.length = length;
+        }
+
+        void putBack(int permits) {
+            remaining.addAndGet(permits);
+        }
+
+        long drain() {
+            return remaining.getAndSet(0);
+        }
+
+        void grant(long granted) {
+            if (granted > 0) remaining.addAndGet(granted);
+            else exhaustedAtNanos = System.nanoTime();
+        }
+
+        boolean exhausted(long nowNanos, long horizonNanos) {
+            long at = exhaustedAtNanos;
+            return at != 0 && nowNanos - at < horizonNanos;
+        }
+    }
+
+    /**
+     * Estado local de una clave: la ventana vigente y la estimación de tasa.
+     */
+    private static final class KeyLease {
+        private final LongAdder takenSinceLease = new LongAdder();
+        private volatile Window window = new Window(-1, 0);
+        private volatile long lastUseNanos = System.nanoTime();
+        private long lastLeaseNanos;
+        private double ratePerNano;
+        private long generation;
+        private Mono<Long> pending;
+
+        Window roll(long ws, long wms) {
+            Window w = window;
+            if (w.start == ws) return w;
+            synchronized (this) {
+                w = window;
+                if (w.start != ws) window = w = new Window(ws, wms);
+                return w;
+            }
+        }
+
+        boolean tryTake(Window w, int permits) {
+            for (;;) {
+                long r = w.remaining.get();
+                if (r < permits) return false;
+                if (w.remaining.compareAndSet(r, r - permits)) {
+                    takenSinceLease.add(permits);
+                    lastUseNanos = System.nanoTime();
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Lote siguiente: tasa observada (EWMA entre reservas) por el horizonte, acotado a [1, maxLease].
+         */
+        synchronized long nextLeaseSize(long maxLease, long horizonNanos) {
+            long now = System.nanoTime();
+            long used = takenSinceLease.sumThenReset();
+            if (lastLeaseNanos != 0) {
+                double rate = used / (double) Math.max(now - lastLeaseNanos, 1);
+                ratePerNano = ratePerNano == 0 ? rate : 0.5 * ratePerNano + 0.5 * rate;
+            }
+            lastLeaseNanos = now;
+            long size = (long) Math.ceil(ratePerNano * horizonNanos);
+            return Math.max(1, Math.min(maxLease, size));
+        }
+
+        /**
+         * Una sola reserva en vuelo por clave: los que llegan mientras tanto esperan la misma.
+         */
+        synchronized Mono<Long> refill(Supplier<Mono<Long>> leaseCall) {
+            if (pending == null) {
+                long gen = ++generation;
+                pending = leaseCall.get()
+                        .doFinally(s -> clearPending(gen))
+                        .cache();
+            }
+            return pending;
+        }
+
+        private synchronized void clearPending(long gen) {
+            if (generation == gen) pending = null;
+        }
+    }
+}
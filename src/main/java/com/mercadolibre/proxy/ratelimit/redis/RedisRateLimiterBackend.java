@@ -1,71 +1,374 @@
 package com.mercadolibre.proxy.ratelimit.redis;
 
+import com.mercadolibre.proxy.metrics.ProxyMetrics;
+import com.mercadolibre.proxy.ratelimit.core.Algorithm;
+import com.mercadolibre.proxy.ratelimit.core.ConsumeRequest;
 import com.mercadolibre.proxy.ratelimit.core.Limit;
 import com.mercadolibre.proxy.ratelimit.core.RateLimiterBackend;
-import org.springframework.data.redis.connection.ReturnType;
 import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.nio.ByteBuffer;
-import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
- * Fixed-window por clave + ventana; estricto con Lua (no hay sobre-consumo).
- * Clave real: "rl:{key}:{windowStartMs}"
+ * Límite por clave estricto con Lua (no hay sobre-consumo), según el {@link Algorithm} de la regla:
+ * <ul>
+ *   <li>FIXED_WINDOW: contador por ventana, clave "rl:{key}:{windowStartMs}".</li>
+ *   <li>SLIDING_WINDOW: contadores de la ventana actual y la anterior, ponderando la anterior
+ *       por la fracción que todavía se solapa.</li>
+ *   <li>GCRA: un único valor por clave, "rl:{key}:gcra", con el theoretical arrival time.</li>
+ * </ul>
+ * Todas las claves de una request se chequean y consumen en un único script (todo o nada),
+ * así el costo es un round trip sin importar cuántas reglas apliquen. El mismo script acepta
+ * varios grupos independientes (uno por request) para que {@link BatchingRateLimiterBackend}
+ * pueda juntar requests concurrentes en una sola llamada. Se envía por EVALSHA; si Redis no
+ * lo tiene cacheado (NOSCRIPT) se reintenta con EVAL, que lo deja cargado.
+ * <p>
+ * Con varios nodos ({@link ConsistentHashRing} de {@link RedisShard}) cada clave de regla vive
+ * siempre en el mismo shard, así sus contadores siguen siendo exactos. Los grupos se parten por
+ * shard y cada shard evalúa su parte en un script en paralelo. Si un shard deniega (o falla), lo
+ * que concedieron los otros para ese grupo se devuelve con un script compensatorio antes de
+ * responder, así el grupo sigue siendo todo o nada. Entre el consumo y la devolución otra request
+ * puede ver esos permisos tomados (sub-consumo transitorio, nunca sobre-consumo).
  */
 public class RedisRateLimiterBackend implements RateLimiterBackend {
 
+    // ARGV[1] = now (ms), ARGV[2] = cantidad de grupos, ARGV[2+g] = tamaño del grupo g, luego por
+    // cada entrada la cuaterna algoritmo (F|S|G), permits, capacity, windowMs. Cada entrada usa dos
+    // KEYS: ventana actual + anterior (S), o la misma clave repetida (F, G).
+    // Devuelve "r1,r2,..." con, por grupo, 0 si se concedió todo o el índice (1-based) de la
+    // primera entrada sin capacidad (un string y no una tabla para que la respuesta llegue en un solo valor).
     private static final String SCRIPT = String.join("\n",
-            "local current = redis.call('GET', KEYS[1])",
-            "local permits  = tonumber(ARGV[1])",
-            "local ttlMs    = tonumber(ARGV[2])",
-            "local capacity = tonumber(ARGV[3])",
-            "if not current then",
-            "  if permits <= capacity then",
-            "    redis.call('SET', KEYS[1], permits, 'PX', ttlMs)",
-            "    return permits",
-            "  else",
-            "    return -1",
+            "local now = tonumber(ARGV[1])",
+            "local ngroups = tonumber(ARGV[2])",
+            "local base = ngroups + 2",
+            "local result = {}",
+            "local k = 0",
+            "for g = 1, ngroups do",
+            "  local size = tonumber(ARGV[2 + g])",
+            "  local denied = 0",
+            "  local tats = {}",
+            "  for i = 1, size do",
+            "    local a = base + 4 * (k + i - 1)",
+            "    local algo = ARGV[a + 1]",
+            "    local permits = tonumber(ARGV[a + 2])",
+            "    local capacity = tonumber(ARGV[a + 3])",
+            "    local window = tonumber(ARGV[a + 4])",
+            "    local key = KEYS[2 * (k + i) - 1]",
+            "    local ok",
+            "    if algo == 'G' then",
+            "      local tat = math.max(tonumber(redis.call('GET', key) or '0'), now)",
+            "      tats[i] = tat + permits * window / capacity",
+            "      ok = tats[i] - now <= window",
+            "    else",
+            "      local current = tonumber(redis.call('GET', key) or '0')",
+            "      if algo == 'S' then",
+            "        local previous = tonumber(redis.call('GET', KEYS[2 * (k + i)]) or '0')",
+            "        current = current + previous * (1 - (now % window) / window)",
+            "      end",
+            "      ok = current + permits <= capacity",
+            "    end",
+            "    if not ok then",
+            "      denied = i",
+            "      break",
+            "    end",
             "  end",
-            "else",
-            "  local c = tonumber(current)",
-            "  local newc = c + permits",
-            "  if newc <= capacity then",
-            "    redis.call('INCRBY', KEYS[1], permits)",
-            "    return newc",
-            "  else",
-            "    return -1",
+            "  if denied == 0 then",
+            "    for i = 1, size do",
+            "      local a = base + 4 * (k + i - 1)",
+            "      local algo = ARGV[a + 1]",
+            "      local permits = tonumber(ARGV[a + 2])",
+            "      local window = tonumber(ARGV[a + 4])",
+            "      local key = KEYS[2 * (k + i) - 1]",
+            "      if algo == 'G' then",
+            "        redis.call('SET', key, string.format('%.3f', tats[i]), 'PX', math.ceil(tats[i] - now))",
+            "      elseif redis.call('INCRBY', key, permits) == permits then",
+            "        local ttl = window - (now % window)",
+            "        if algo == 'S' then ttl = ttl + window end",
+            "        redis.call('PEXPIRE', key, ttl)",
+            "      end",
+            "    end",
             "  end",
-            "end"
+            "  result[g] = denied",
+            "  k = k + size",
+            "end",
+            "return table.concat(result, ',')"
     );
 
-    private final ReactiveStringRedisTemplate redis;
+    private static final RedisScript<String> CONSUME_GROUPS = RedisScript.of(SCRIPT, String.class);
+
+    // Toma hasta ARGV[1] permisos de la ventana KEYS[1] (capacidad ARGV[2], TTL ARGV[3]); devuelve lo concedido.
+    private static final RedisScript<Long> LEASE = RedisScript.of(String.join("\n",
+            "local current = tonumber(redis.call('GET', KEYS[1]) or '0')",
+            "local available = tonumber(ARGV[2]) - current",
+            "if available <= 0 then return 0 end",
+            "local grant = math.min(available, tonumber(ARGV[1]))",
+            "if redis.call('INCRBY', KEYS[1], grant) == grant then",
+            "  redis.call('PEXPIRE', KEYS[1], ARGV[3])",
+            "end",
+            "return grant"
+    ), Long.class);
+
+    // Devuelve ARGV[1] permisos a la ventana KEYS[1] si todavía existe.
+    private static final RedisScript<Long> GIVE_BACK = RedisScript.of(String.join("\n",
+            "if redis.call('EXISTS', KEYS[1]) == 1 then",
+            "  return redis.call('DECRBY', KEYS[1], ARGV[1])",
+            "end",
+            "return 0"
+    ), Long.class);
+
+    // Devuelve lo consumido por un grupo concedido: ARGV[1] = now (ms), luego por cada KEYS[i] la
+    // cuaterna algoritmo (F|S|G), permits, capacity, windowMs. F/S descuentan de la ventana en la que
+    // se consumió (si todavía existe); G retrasa el TAT lo que lo había adelantado.
+    private static final RedisScript<Long> REFUND = RedisScript.of(String.join("\n",
+            "local now = tonumber(ARGV[1])",
+            "for i = 1, #KEYS do",
+            "  local a = 1 + 4 * (i - 1)",
+            "  local permits = tonumber(ARGV[a + 2])",
+            "  if ARGV[a + 1] == 'G' then",
+            "    local tat = tonumber(redis.call('GET', KEYS[i]) or '0')",
+            "    if tat > 0 then",
+            "      local back = tat - permits * tonumber(ARGV[a + 4]) / tonumber(ARGV[a + 3])",
+            "      local ttl = math.ceil(back - now)",
+            "      if ttl > 0 then",
+            "        redis.call('SET', KEYS[i], string.format('%.3f', back), 'PX', ttl)",
+            "      else",
+            "        redis.call('DEL', KEYS[i])",
+            "      end",
+            "    end",
+            "  elseif redis.call('EXISTS', KEYS[i]) == 1 then",
+            "    redis.call('DECRBY', KEYS[i], permits)",
+            "  end",
+            "end",
+            "return #KEYS"
+    ), Long.class);
+
+    private final ConsistentHashRing<RedisShard> shards;
+    private final ProxyMetrics metrics;
 
     public RedisRateLimiterBackend(ReactiveStringRedisTemplate redis) {
-        this.redis = redis;
+        this(new ConsistentHashRing<>(Map.of("default", new RedisShard("default", redis)), 1), null);
+    }
+
+    /** {@code metrics} puede ser null (sin latencia ni errores por shard). */
+    public RedisRateLimiterBackend(ConsistentHashRing<RedisShard> shards, ProxyMetrics metrics) {
+        this.shards = shards;
+        this.metrics = metrics;
     }
 
     @Override
     public Mono<Boolean> tryConsume(String key, int permits, Limit limit) {
+        return tryConsumeAll(List.of(new ConsumeRequest(key, permits, limit)))
+                .map(denied -> denied < 0);
+    }
+
+    @Override
+    public Mono<Integer> tryConsumeAll(List<ConsumeRequest> requests) {
+        if (requests.isEmpty()) return Mono.just(-1);
+        return tryConsumeGroups(List.of(requests)).map(res -> res.get(0));
+    }
+
+    /**
+     * Evalúa varios grupos independientes en una sola llamada por shard. Cada grupo es todo o nada;
+     * el resultado trae, por grupo, el índice de la primera clave denegada o -1.
+     */
+    public Mono<List<Integer>> tryConsumeGroups(List<List<ConsumeRequest>> groups) {
         long now = System.currentTimeMillis();
-        long windowMs = limit.window().toMillis();
-        long windowStart = (now / windowMs) * windowMs;
-        long ttlMs = windowMs - (now % windowMs);
+        if (shards.size() == 1) return consumeOnShard(shards.node(""), groups, now);
+
+        // Cada grupo se parte en un subgrupo por shard que toca
+        Map<RedisShard, List<Part>> parts = new LinkedHashMap<>();
+        for (int g = 0; g < groups.size(); g++) {
+            Map<RedisShard, Part> byShard = new HashMap<>(4);
+            List<ConsumeRequest> group = groups.get(g);
+            final int gi = g;
+            for (int i = 0; i < group.size(); i++) {
+                RedisShard shard = shards.node(group.get(i).key());
+                byShard.computeIfAbsent(shard, sh -> {
+                    Part p = new Part(gi);
+                    parts.computeIfAbsent(sh, x -> new ArrayList<>()).add(p);
+                    return p;
+                }).add(group.get(i), i);
+            }
+        }
+
+        return Flux.fromIterable(parts.entrySet())
+                .flatMap(e -> consumeOnShard(e.getKey(), e.getValue().stream().map(Part::requests).toList(), now)
+                        .map(denied -> new ShardResult(e.getKey(), e.getValue(), denied, null))
+                        .onErrorResume(err -> Mono.just(new ShardResult(e.getKey(), e.getValue(), null, err))))
+                .collectList()
+                .flatMap(results -> {
+                    int[] result = new int[groups.size()];
+                    Arrays.fill(result, -1);
+                    Throwable error = null;
+                    for (ShardResult r : results) {
+                        if (r.error() != null) {
+                            error = r.error();
+                            continue;
+                        }
+                        for (int j = 0; j < r.denied().size(); j++) {
+                            if (r.denied().get(j) < 0) continue;
+                            Part part = r.parts().get(j);
+                            int index = part.indices().get(r.denied().get(j));
+                            if (result[part.group()] < 0 || index < result[part.group()]) result[part.group()] = index;
+                        }
+                    }
+                    Mono<List<Integer>> out = error != null
+                            ? Mono.error(error)
+                            : Mono.just(Arrays.stream(result).boxed().toList());
+                    return compensate(results, result, error != null, now).then(out);
+                });
+    }
 
-        String redisKey = "rl:" + key + ":" + windowStart;
+    /**
+     * Devuelve lo que concedieron los shards para grupos denegados en otro shard (o para todos si
+     * algún shard falló). Un error al devolver sólo deja esos permisos tomados hasta que expire la ventana.
+     */
+    private Mono<Void> compensate(List<ShardResult> results, int[] result, boolean failed, long now) {
+        return Flux.fromIterable(results)
+                .filter(r -> r.error() == null)
+                .flatMap(r -> {
+                    List<ConsumeRequest> back = new ArrayList<>();
+                    for (int j = 0; j < r.denied().size(); j++) {
+                        Part part = r.parts().get(j);
+                        if (r.denied().get(j) < 0 && (failed || result[part.group()] >= 0)) back.addAll(part.requests());
+                    }
+                    if (back.isEmpty()) return Mono.empty();
+                    return refund(r.shard(), back, now).onErrorResume(e -> Mono.empty());
+                })
+                .then();
+    }
+
+    /**
+     * Un script con los grupos de un solo shard; {@code now} fija las ventanas.
+     */
+    Mono<List<Integer>> consumeOnShard(RedisShard shard, List<List<ConsumeRequest>> groups, long now) {
+        int total = 0;
+        for (List<ConsumeRequest> g : groups) total += g.size();
 
-        var k = ByteBuffer.wrap(redisKey.getBytes(StandardCharsets.UTF_8));
-        var a1 = ByteBuffer.wrap(String.valueOf(permits).getBytes(StandardCharsets.UTF_8));
-        var a2 = ByteBuffer.wrap(String.valueOf(ttlMs).getBytes(StandardCharsets.UTF_8));
-        var a3 = ByteBuffer.wrap(String.valueOf(limit.capacity()).getBytes(StandardCharsets.UTF_8));
+        List<String> keys = new ArrayList<>(total * 2);
+        List<String> args = new ArrayList<>(2 + groups.size() + total * 4);
+        args.add(String.valueOf(now));
+        args.add(String.valueOf(groups.size()));
+        for (List<ConsumeRequest> g : groups) args.add(String.valueOf(g.size()));
+        for (List<ConsumeRequest> g : groups) {
+            for (ConsumeRequest r : g) {
+                long windowMs = r.limit().window().toMillis();
+                long windowStart = (now / windowMs) * windowMs;
+                switch (r.limit().algorithm()) {
+                    case FIXED_WINDOW -> {
+                        String current = windowKey(r.key(), windowStart);
+                        keys.add(current);
+                        keys.add(current);
+                        args.add("F");
+                    }
+                    case SLIDING_WINDOW -> {
+                        keys.add(windowKey(r.key(), windowStart));
+                        keys.add(windowKey(r.key(), windowStart - windowMs));
+                        args.add("S");
+                    }
+                    case GCRA -> {
+                        String tat = "rl:" + r.key() + ":gcra";
+                        keys.add(tat);
+                        keys.add(tat);
+                        args.add("G");
+                    }
+                }
+                args.add(String.valueOf(r.permits()));
+                args.add(String.valueOf(r.limit().capacity()));
+                args.add(String.valueOf(windowMs));
+            }
+        }
 
-        return redis.execute(conn -> conn.scriptingCommands()
-                        .eval(ByteBuffer.wrap(SCRIPT.getBytes(StandardCharsets.UTF_8)),
-                                ReturnType.INTEGER, 1, k, a1, a2, a3))
-                .single()
+        return timed(shard, shard.template().execute(CONSUME_GROUPS, keys, args).single())
                 .map(res -> {
-                    if (res == null) return false;
-                    long v = ((Number) res).longValue();
-                    return v > 0; // -1 => bloqueado
+                    List<Integer> out = new ArrayList<>(groups.size());
+                    int from = 0;
+                    for (int i = 0; i <= res.length(); i++) {
+                        if (i == res.length() || res.charAt(i) == ',') {
+                            // 0 => -1 (concedido); i => índice 0-based de la clave bloqueada
+                            out.add(Integer.parseInt(res, from, i, 10) - 1);
+                            from = i + 1;
+                        }
+                    }
+                    return out;
                 });
     }
+
+    /**
+     * Devuelve a su shard lo que consumieron {@code requests} (ya concedidas) con las ventanas de {@code now}.
+     */
+    Mono<Long> refund(RedisShard shard, List<ConsumeRequest> requests, long now) {
+        List<String> keys = new ArrayList<>(requests.size());
+        List<String> args = new ArrayList<>(1 + requests.size() * 4);
+        args.add(String.valueOf(now));
+        for (ConsumeRequest r : requests) {
+            long windowMs = r.limit().window().toMillis();
+            boolean gcra = r.limit().algorithm() == Algorithm.GCRA;
+            keys.add(gcra ? "rl:" + r.key() + ":gcra" : windowKey(r.key(), (now / windowMs) * windowMs));
+            args.add(gcra ? "G" : "F");
+            args.add(String.valueOf(r.permits()));
+            args.add(String.valueOf(r.limit().capacity()));
+            args.add(String.valueOf(windowMs));
+        }
+        return timed(shard, shard.template().execute(REFUND, keys, args).single());
+    }
+
+    /**
+     * Reserva hasta {@code requested} permisos de la ventana {@code windowStart} para servirlos localmente.
+     */
+    public Mono<Long> lease(String key, Limit limit, long windowStart, long ttlMs, long requested) {
+        RedisShard shard = shards.node(key);
+        return timed(shard, shard.template().execute(LEASE, List.of(windowKey(key, windowStart)), List.of(
+                        String.valueOf(requested),
+                        String.valueOf(limit.capacity()),
+                        String.valueOf(ttlMs)))
+                .single());
+    }
+
+    /**
+     * Devuelve permisos reservados y no usados; si la ventana ya expiró no hace nada.
+     */
+    public Mono<Long> giveBack(String key, long windowStart, long permits) {
+        RedisShard shard = shards.node(key);
+        return timed(shard, shard.template().execute(GIVE_BACK, List.of(windowKey(key, windowStart)),
+                List.of(String.valueOf(permits))).single());
+    }
+
+    private <T> Mono<T> timed(RedisShard shard, Mono<T> call) {
+        if (metrics == null) return call;
+        return Mono.defer(() -> {
+            long t0 = System.nanoTime();
+            return call
+                    .doOnSuccess(v -> metrics.recordRedisShardCall(shard.name(), System.nanoTime() - t0, false))
+                    .doOnError(e -> metrics.recordRedisShardCall(shard.name(), System.nanoTime() - t0, true));
+        });
+    }
+
+    private static String windowKey(String key, long windowStart) {
+        return "rl:" + key + ":" + windowStart;
+    }
+
+    /** Respuesta de un shard: {@code denied} por subgrupo, o {@code error} si la llamada falló. */
+    private record ShardResult(RedisShard shard, List<Part> parts, List<Integer> denied, Throwable error) {
+    }
+
+    /** Subgrupo de un grupo en un shard, con los índices que tenían sus claves en el grupo. */
+    private record Part(int group, List<ConsumeRequest> requests, List<Integer> indices) {
+        Part(int group) {
+            this(group, new ArrayList<>(), new ArrayList<>());
+        }
+
+        void add(ConsumeRequest request, int index) {
+            requests.add(request);
+            indices.add(index);
+        }
+    }
 }
@@ -0,0 +1,10 @@
+package com.mercadolibre.proxy.ratelimit.redis;
+
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+/**
+ * Nodo Redis independiente del backend de rate limit. {@code name} ("host:port") fija su lugar
+ * en el anillo y es el tag "shard" de las métricas.
+ */
+public record RedisShard(String name, ReactiveStringRedisTemplate template) {
+}
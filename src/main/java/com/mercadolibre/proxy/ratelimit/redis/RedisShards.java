@@ -0,0 +1,26 @@
+package com.mercadolibre.proxy.ratelimit.redis;
+
+import java.util.List;
+
+/**
+ * Anillo de shards del backend Redis junto con los recursos (conexiones) a cerrar al apagar.
+ */
+public final class RedisShards implements AutoCloseable {
+
+    private final ConsistentHashRing<RedisShard> ring;
+    private final List<AutoCloseable> resources;
+
+    public RedisShards(ConsistentHashRing<RedisShard> ring, List<AutoCloseable> resources) {
+        this.ring = ring;
+        this.resources = List.copyOf(resources);
+    }
+
+    public ConsistentHashRing<RedisShard> ring() {
+        return ring;
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (AutoCloseable r : resources) r.close();
+    }
+}
@@ -0,0 +1,96 @@
+package com.mercadolibre.proxy.routing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tabla de rutas: trie de caracteres sobre los prefijos de path. {@link #resolve} recorre el path
+ * una sola vez y devuelve el upstream del prefijo más largo que coincide (o el default).
+ */
+public final class RouteTable {
+
+    private final Node root = new Node();
+    private final Upstream defaultUpstream;
+    private final Map<String, Upstream> upstreams;
+
+    /**
+     * @param routes prefijo de path → upstream; el orden no importa, gana el prefijo más largo
+     */
+    public RouteTable(Upstream defaultUpstream, Map<String, Upstream> routes) {
+        this.defaultUpstream = defaultUpstream;
+        Map<String, Upstream> all = new LinkedHashMap<>();
+        all.put(defaultUpstream.name(), defaultUpstream);
+        routes.forEach((prefix, upstream) -> {
+            if (prefix == null || prefix.isEmpty()) throw new IllegalArgumentException("empty route prefix for " + upstream.name());
+            Upstream known = all.putIfAbsent(upstream.name(), upstream);
+            if (known != null && !known.equals(upstream)) {
+                throw new IllegalArgumentException("upstream " + upstream.name() + " declared twice with different settings");
+            }
+            insert(prefix, upstream);
+        });
+        this.upstreams = Map.copyOf(all);
+    }
+
+    public static RouteTable single(Upstream upstream) {
+        return new RouteTable(upstream, Map.of());
+    }
+
+    public Upstream resolve(String path) {
+        Upstream match = defaultUpstream;
+        Node node = root;
+        for (int i = 0; i < path.length(); i++) {
+            node = node.child(path.charAt(i));
+            if (node == null) break;
+            if (node.upstream != null) match = node.upstream;
+        }
+        return match;
+    }
+
+    public Upstream defaultUpstream() {
+        return defaultUpstream;
+    }
+
+    /** Todos los upstreams, incluido el default, por nombre. */
+    public Map<String, Upstream> upstreams() {
+        return upstreams;
+    }
+
+    private void insert(String prefix, Upstream upstream) {
+        Node node = root;
+        for (int i = 0; i < prefix.length(); i++) node = node.childOrCreate(prefix.charAt(i));
+        if (node.upstream != null && !node.upstream.equals(upstream)) {
+            throw new IllegalArgumentException("route " + prefix + " mapped to both " + node.upstream.name() + " and " + upstream.name());
+        }
+        node.upstream = upstream;
+    }
+
+    private static final class Node {
+        private char[] labels = new char[0];
+        private Node[] children = new Node[0];
+        private Upstream upstream;
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(labels, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node childOrCreate(char c) {
+            int i = Arrays.binarySearch(labels, c);
+            if (i >= 0) return children[i];
+            int at = -i - 1;
+            List<Node> kids = new ArrayList<>(Arrays.asList(children));
+            Node n = new Node();
+            kids.add(at, n);
+            char[] l = new char[labels.length + 1];
+            System.arraycopy(labels, 0, l, 0, at);
+            l[at] = c;
+            System.arraycopy(labels, at, l, at + 1, labels.length - at);
+            labels = l;
+            children = kids.toArray(new Node[0]);
+            return n;
+        }
+    }
+}
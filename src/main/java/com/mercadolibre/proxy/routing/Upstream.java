@@ -0,0 +1,26 @@
+package com.mercadolibre.proxy.routing;
+
+import java.net.URI;
+
+/**
+ * Backend con nombre. {@code baseUrl} se normaliza sin '/' final: el path de la request se agrega tal cual.
+ */
+public record Upstream(String name, String baseUrl) {
+
+    public static final String DEFAULT = "default";
+
+    public Upstream {
+        while (baseUrl.endsWith("/")) baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
+        URI.create(baseUrl); // falla al arranque si la URL es inválida
+    }
+
+    /**
+     * URI destino para el path y query (ya codificados) de la request entrante.
+     */
+    public URI target(String rawPath, String rawQuery) {
+        int len = baseUrl.length() + rawPath.length() + (rawQuery != null ? rawQuery.length() + 1 : 0);
+        StringBuilder sb = new StringBuilder(len).append(baseUrl).append(rawPath);
+        if (rawQuery != null) sb.append('?').append(rawQuery);
+        return URI.create(sb.toString());
+    }
+}
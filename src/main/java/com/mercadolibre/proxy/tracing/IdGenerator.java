@@ -0,0 +1,51 @@
+package com.mercadolibre.proxy.tracing;
+
+import java.security.SecureRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Ids de traza no criptográficos: {@link ThreadLocalRandom} (sin contención entre event loops)
+ * más un prefijo aleatorio por instancia, tomado una sola vez de {@link SecureRandom}, para que
+ * dos instancias no generen la misma secuencia.
+ */
+public final class IdGenerator {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final int INSTANCE_PREFIX = new SecureRandom().nextInt();
+
+    private IdGenerator() {
+    }
+
+    /** 16 bytes en hex (32 chars), nunca todo ceros. */
+    public static String traceId() {
+        var rnd = ThreadLocalRandom.current();
+        long hi = ((long) INSTANCE_PREFIX << 32) | (rnd.nextInt() & 0xffffffffL);
+        long lo = nonZero(rnd);
+        char[] out = new char[32];
+        hex(hi, out, 0);
+        hex(lo, out, 16);
+        return new String(out);
+    }
+
+    /** 8 bytes en hex (16 chars), nunca todo ceros. */
+    public static String spanId() {
+        char[] out = new char[16];
+        hex(nonZero(ThreadLocalRandom.current()), out, 0);
+        return new String(out);
+    }
+
+    private static long nonZero(ThreadLocalRandom rnd) {
+        long v;
+        do {
+            v = rnd.nextLong();
+        } while (v == 0);
+        return v;
+    }
+
+    private static void hex(long v, char[] out, int offset) {
+        for (int i = 15; i >= 0; i--) {
+            out[offset + i] = HEX[(int) (v & 0xf)];
+            v >>>= 4;
+        }
+    }
+}
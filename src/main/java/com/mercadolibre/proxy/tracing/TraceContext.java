@@ -0,0 +1,59 @@
+package com.mercadolibre.proxy.tracing;
+
+/**
+ * Contexto W3C Trace Context del salto proxy → upstream: misma traza que el cliente (si mandó un
+ * {@code traceparent} válido) y un span propio como padre del upstream. {@code tracestate} sólo
+ * se conserva cuando se continúa una traza, como pide la especificación.
+ */
+public record TraceContext(String traceId, String spanId, String flags, String tracestate) {
+
+    public static final String TRACEPARENT = "traceparent";
+    public static final String TRACESTATE = "tracestate";
+
+    private static final String VERSION = "00";
+    private static final String SAMPLED = "01";
+
+    /**
+     * Continúa la traza del {@code traceparent} recibido o, si falta o es inválido, abre una nueva.
+     */
+    public static TraceContext from(String traceparent, String tracestate) {
+        if (valid(traceparent)) {
+            return new TraceContext(traceparent.substring(3, 35), IdGenerator.spanId(),
+                    traceparent.substring(53, 55), tracestate);
+        }
+        return new TraceContext(IdGenerator.traceId(), IdGenerator.spanId(), SAMPLED, null);
+    }
+
+    public String traceparent() {
+        return VERSION + '-' + traceId + '-' + spanId + '-' + flags;
+    }
+
+    /**
+     * {@code version-traceid-parentid-flags}: 2-32-16-2 hex en minúscula, ids distintos de cero y
+     * versión distinta de ff. Versiones futuras pueden traer más campos después de los flags.
+     */
+    static boolean valid(String h) {
+        if (h == null || h.length() < 55) return false;
+        if (h.charAt(2) != '-' || h.charAt(35) != '-' || h.charAt(52) != '-') return false;
+        if (!hex(h, 0, 2) || h.startsWith("ff")) return false;
+        if (h.startsWith(VERSION) ? h.length() != 55 : h.length() > 55 && h.charAt(55) != '-') return false;
+        return hex(h, 3, 35) && !zeros(h, 3, 35)
+                && hex(h, 36, 52) && !zeros(h, 36, 52)
+                && hex(h, 53, 55);
+    }
+
+    private static boolean hex(String s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) return false;
+        }
+        return true;
+    }
+
+    private static boolean zeros(String s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (s.charAt(i) != '0') return false;
+        }
+        return true;
+    }
+}
@@ -3,63 +3,78 @@ package com.mercadolibre.proxy.web;
 import com.mercadolibre.proxy.application.*;
 import com.mercadolibre.proxy.domain.*;
 import com.mercadolibre.proxy.metrics.ProxyMetrics;
+import com.mercadolibre.proxy.routing.RouteTable;
+import com.mercadolibre.proxy.routing.Upstream;
+import com.mercadolibre.proxy.tracing.TraceContext;
 import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.buffer.DataBuffer;
-import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.*;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.net.URI;
 import java.time.Duration;
 import java.util.Objects;
-import java.util.UUID;
 
 @RestController
 public class ProxyController {
     private static final Logger log = LoggerFactory.getLogger(ProxyController.class);
     private static final String RXI = "X-Request-Id";
-    private static final byte[] EMPTY = new byte[0];
 
-    @Value("${backend.base-url}")
-    private String backendBaseUrl;
     private final ForwardingService forwarding;
     private final HeaderPolicy headerPolicy;
     private final ProxyMetrics metrics;
+    private final RouteTable routes;
 
-    public ProxyController(ForwardingService forwarding, HeaderPolicy headerPolicy, ProxyMetrics metrics) {
+    /**
+     * Sin {@link RouteTable} en el contexto todo va a {@code backend.base-url}.
+     */
+    public ProxyController(ForwardingService forwarding, HeaderPolicy headerPolicy, ProxyMetrics metrics,
+                           ObjectProvider<RouteTable> routes, @Value("${backend.base-url}") String backendBaseUrl) {
         this.forwarding = forwarding;
         this.headerPolicy = headerPolicy;
         this.metrics = metrics;
+        this.routes = routes.getIfAvailable(() -> RouteTable.single(new Upstream(Upstream.DEFAULT, backendBaseUrl)));
     }
 
     @RequestMapping("/**")
-    public Mono<ResponseEntity<byte[]>> forwardAll(ServerWebExchange ex) {
-        final var ctx = context(ex);
-
+    public Mono<ResponseEntity<Flux<DataBuffer>>> forwardAll(ServerWebExchange ex) {
         // (opcional) si no quieres proxyear preflights
         if (ex.getRequest().getMethod() == HttpMethod.OPTIONS) {
-            return Mono.just(ResponseEntity.ok().body(new byte[0]));
+            return Mono.just(ResponseEntity.ok().body(Flux.empty()));
         }
 
+        final var trace = TraceContext.from(
+                ex.getRequest().getHeaders().getFirst(TraceContext.TRACEPARENT),
+                ex.getRequest().getHeaders().getFirst(TraceContext.TRACESTATE));
+        // Ruta resuelta una vez: upstream y URI destino salen del path ya parseado por el server
+        final var uri = ex.getRequest().getURI();
+        final var path = uri.getRawPath();
+        final var upstream = routes.resolve(path);
+        final var target = upstream.target(path, uri.getRawQuery());
+        final var ctx = context(ex, trace, target, path);
+
         // Metrics: record request and duration
         metrics.recordRequest(ctx.method().name());
         Timer.Sample sample = metrics.startRequest();
 
-        return body(ex)
-                .map(b -> new ForwardRequest(
-                        URI.create(ctx.targetUrl()),
-                        ctx.method(),
-                        headerPolicy.toBackend(ctx.inboundHeaders(), ctx.reqId()),
-                        b
-                ))
-                .flatMap(req -> forwarding.forward(req, ctx))
+        var req = new ForwardRequest(
+                target,
+                ctx.method(),
+                headerPolicy.toBackend(ctx.inboundHeaders(), ctx.path(), ctx.reqId(), trace),
+                body(ex),
+                upstream.name()
+        );
+
+        return forwarding.forward(req, ctx)
                 .flatMap(res -> {
                     // Metrics: stop timer and record response counters
                     try {
@@ -70,74 +85,46 @@ public class ProxyController {
                     if (ex.getResponse().isCommitted()) {
                         log.warn("[{}:{}] response already committed with status={}, skipping handler write",
                                 ctx.traceId(), ctx.reqId(), ex.getResponse().getStatusCode());
-                        return Mono.empty();
+                        return res.discardBody().then(Mono.empty());
                     }
 
-                    HttpHeaders out = copyAndSanitize(res.headers());
+                    // La HeaderPolicy ya los limpió: sólo se copia si algún decorador dejó hop-by-hop
+                    HttpHeaders out = HopByHop.strip(res.headers());
 
                     if (ctx.method() == HttpMethod.HEAD) {
                         return Mono.just(ResponseEntity
                                 .status(res.status())
                                 .headers(out)
-                                .body(new byte[0]));
+                                .body(res.discardBody().thenMany(Flux.<DataBuffer>empty())));
                     }
 
-                    byte[] body = (res.body() != null) ? res.body() : new byte[0];
+                    // Body en streaming con back-pressure: WebFlux escribe y libera cada buffer
                     return Mono.just(ResponseEntity
                             .status(res.status())
                             .headers(out)
-                            .body(body));
+                            .body(res.body()));
                 })
                 .doOnError(e -> log.error("[{}:{}] transport error: {}", ctx.traceId(), ctx.reqId(), e.toString(), e));
     }
 
-    private RequestContext context(ServerWebExchange ex) {
-        String trace = UUID.randomUUID().toString().substring(0, 8);
+    private RequestContext context(ServerWebExchange ex, TraceContext trace, URI target, String path) {
         var r = ex.getRequest();
-        var u = r.getURI();
-        String target = backendBaseUrl + u.getRawPath() + (u.getRawQuery() != null ? "?" + u.getRawQuery() : "");
         HttpMethod m = Objects.requireNonNull(r.getMethod());
         HttpHeaders in = r.getHeaders();
         String reqId = in.getFirst(RXI);
-        if (!StringUtils.hasText(reqId)) reqId = UUID.randomUUID().toString();
-        log.info("[{}:{}] -> {} {} headers={}", trace, reqId, m, target, sanitize(in));
-        return new RequestContext(trace, reqId, m, target, in, System.nanoTime());
-    }
-
-    private Mono<byte[]> body(ServerWebExchange ex) {
-        return DataBufferUtils.join(ex.getRequest().getBody())
-                .map((DataBuffer db) -> {
-                    try {
-                        byte[] bytes = new byte[db.readableByteCount()];
-                        db.read(bytes);
-                        return bytes;
-                    } finally {
-                        DataBufferUtils.release(db);
-                    }
-                })
-                .defaultIfEmpty(EMPTY);
-    }
-
-    private HttpHeaders sanitize(HttpHeaders src) {
-        HttpHeaders safe = new HttpHeaders();
-        src.forEach((k, v) -> safe.add(k, HttpHeaders.AUTHORIZATION.equalsIgnoreCase(k) ? "***" : String.join(",", v)));
-        return safe;
+        // Sin X-Request-Id del cliente se usa el span id del proxy: único por request (el trace id
+        // se repite en todas las de un mismo traceparent) y es el parent-id que ve el upstream
+        if (!StringUtils.hasText(reqId)) reqId = trace.spanId();
+        var ctx = new RequestContext(trace.traceId(), reqId, m, target.toString(), path, in, System.nanoTime());
+        ex.getAttributes().put(RequestContext.ATTRIBUTE, ctx);
+        return ctx;
     }
 
-    private static HttpHeaders copyAndSanitize(HttpHeaders src) {
-        HttpHeaders h = new HttpHeaders();
-        if (src != null && !src.isEmpty()) {
-            src.forEach(h::addAll);
-        }
-        h.remove(HttpHeaders.CONNECTION);
-        h.remove(HttpHeaders.TRANSFER_ENCODING);
-        h.remove("Keep-Alive");
-        h.remove("Proxy-Authenticate");
-        h.remove("Proxy-Authorization");
-        h.remove("TE");
-        h.remove("Trailer");
-        h.remove("Upgrade");
-        return h;
+    private static Flux<DataBuffer> body(ServerWebExchange ex) {
+        // Sin copia a byte[]: el stream del cliente se pasa tal cual al backend
+        // En HTTP/2 el codec de Netty marca Transfer-Encoding: chunked los streams con body sin Content-Length
+        HttpHeaders h = ex.getRequest().getHeaders();
+        boolean hasBody = h.getContentLength() > 0 || h.containsKey(HttpHeaders.TRANSFER_ENCODING);
+        return hasBody ? ex.getRequest().getBody() : null;
     }
-
 }
@@ -0,0 +1,144 @@
+package com.mercadolibre.proxy.web.accesslog;
+
+import com.mercadolibre.proxy.domain.RequestContext;
+import org.reactivestreams.Publisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.ErrorResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Un registro de access log por request, armado al terminar (incluye las rechazadas por rate
+ * limit). En el event loop sólo se decide el muestreo y se encola; el resto lo hace el
+ * {@link AccessLogWriter}. Una request cancelada por el cliente se registra con 499; una que
+ * termina con error sin status propio, con el del error (500 si no trae uno): el default de la
+ * respuesta de Netty es 200 y el handler de errores corre después de este filtro.
+ */
+public class AccessLogFilter implements WebFilter, Ordered {
+
+    static final int CLIENT_CLOSED_REQUEST = 499;
+    private static final String RXI = "X-Request-Id";
+
+    private final AccessLogWriter writer;
+    private final AccessLogSampler sampler;
+    private final boolean captureHeaders;
+
+    public AccessLogFilter(AccessLogWriter writer, AccessLogSampler sampler, boolean captureHeaders) {
+        this.writer = writer;
+        this.sampler = sampler;
+        this.captureHeaders = captureHeaders;
+    }
+
+    @Override
+    public int getOrder() {
+        // Afuera del rate limit, para registrar también los 429
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        long start = System.nanoTime();
+        var counting = new CountingResponse(exchange.getResponse());
+        var ex = exchange.mutate().response(counting).build();
+        return chain.filter(ex)
+                .doOnError(e -> counting.error = e)
+                .doFinally(signal -> complete(ex, counting, signal, start));
+    }
+
+    private void complete(ServerWebExchange ex, CountingResponse response, SignalType signal, long start) {
+        long nanos = System.nanoTime() - start;
+        int status = status(response, signal);
+        if (!sampler.sample(status, nanos)) return;
+
+        ServerHttpRequest req = ex.getRequest();
+        RequestContext ctx = ex.getAttribute(RequestContext.ATTRIBUTE);
+        String traceId = ctx != null ? ctx.traceId() : null;
+        String reqId = ctx != null ? ctx.reqId() : req.getHeaders().getFirst(RXI);
+        writer.submit(new AccessLogRecord(
+                System.currentTimeMillis(),
+                traceId,
+                reqId,
+                req.getMethod().name(),
+                req.getPath().value(),
+                status,
+                nanos / 1_000,
+                response.bytes(),
+                clientIp(req),
+                captureHeaders ? req.getHeaders() : null));
+    }
+
+    private static int status(CountingResponse response, SignalType signal) {
+        if (signal == SignalType.CANCEL) return CLIENT_CLOSED_REQUEST;
+        if (signal == SignalType.ON_ERROR && !response.statusSet && !response.isCommitted()) {
+            return response.error instanceof ErrorResponse er ? er.getStatusCode().value() : 500;
+        }
+        HttpStatusCode code = response.getStatusCode();
+        return code != null ? code.value() : 200;
+    }
+
+    private static String clientIp(ServerHttpRequest req) {
+        InetSocketAddress addr = req.getRemoteAddress();
+        if (addr == null) return null;
+        return addr.getAddress() != null ? addr.getAddress().getHostAddress() : addr.getHostString();
+    }
+
+    /**
+     * Bytes enviados: el Content-Length si viene; si no (chunked) se suman los buffers al pasar.
+     */
+    private static final class CountingResponse extends ServerHttpResponseDecorator {
+        private final AtomicLong bytes = new AtomicLong(-1);
+        private volatile boolean statusSet;
+        private volatile Throwable error;
+
+        CountingResponse(ServerHttpResponse delegate) {
+            super(delegate);
+        }
+
+        long bytes() {
+            return bytes.get();
+        }
+
+        @Override
+        public boolean setStatusCode(HttpStatusCode status) {
+            statusSet = true;
+            return super.setStatusCode(status);
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            long length = getHeaders().getContentLength();
+            if (length >= 0) {
+                bytes.set(length);
+                return super.writeWith(body);
+            }
+            bytes.set(0);
+            return super.writeWith(Flux.from(body).doOnNext(db -> bytes.addAndGet(db.readableByteCount())));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            bytes.set(0);
+            return super.writeAndFlushWith(Flux.from(body)
+                    .map(p -> Flux.from(p).doOnNext(db -> bytes.addAndGet(db.readableByteCount()))));
+        }
+
+        @Override
+        public Mono<Void> setComplete() {
+            if (bytes.get() < 0) bytes.set(0);
+            return super.setComplete();
+        }
+    }
+}
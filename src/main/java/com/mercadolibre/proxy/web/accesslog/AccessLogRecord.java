@@ -0,0 +1,21 @@
+package com.mercadolibre.proxy.web.accesslog;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Datos de una request ya terminada. Los headers se guardan por referencia y sólo se
+ * formatean en el hilo escritor, si está habilitado.
+ */
+record AccessLogRecord(
+        long timestampMs,
+        String traceId,
+        String reqId,
+        String method,
+        String path,
+        int status,
+        long durationMicros,
+        long responseBytes,
+        String clientIp,
+        HttpHeaders requestHeaders
+) {
+}
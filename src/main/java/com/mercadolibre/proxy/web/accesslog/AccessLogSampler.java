@@ -0,0 +1,32 @@
+package com.mercadolibre.proxy.web.accesslog;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decide si una request terminada se registra: tasa por clase de status (1xx..5xx) y siempre
+ * las que tardaron al menos {@code slowNanos}.
+ */
+public final class AccessLogSampler {
+
+    private final double[] rateByClass = new double[6];
+    private final long slowNanos;
+
+    public AccessLogSampler(double informational, double success, double redirect,
+                            double clientError, double serverError, long slowNanos) {
+        rateByClass[1] = informational;
+        rateByClass[2] = success;
+        rateByClass[3] = redirect;
+        rateByClass[4] = clientError;
+        rateByClass[5] = serverError;
+        this.slowNanos = slowNanos;
+    }
+
+    public boolean sample(int status, long durationNanos) {
+        if (slowNanos > 0 && durationNanos >= slowNanos) return true;
+        int cls = status / 100;
+        double rate = cls >= 1 && cls <= 5 ? rateByClass[cls] : 1.0;
+        if (rate >= 1.0) return true;
+        if (rate <= 0.0) return false;
+        return ThreadLocalRandom.current().nextDouble() < rate;
+    }
+}
@@ -0,0 +1,105 @@
+package com.mercadolibre.proxy.web.accesslog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Hilo único que vacía el ring y escribe una línea por request en el logger "access". Todo el
+ * formateo pasa acá, fuera del event loop de Netty.
+ */
+public class AccessLogWriter implements AutoCloseable {
+
+    private static final Logger access = LoggerFactory.getLogger("access");
+    private static final String FORMAT = "{} {} {} {} {} {} {} {} {}";
+    private static final String FORMAT_WITH_HEADERS = FORMAT + " {}";
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final MpscRing<AccessLogRecord> ring;
+    private final boolean logHeaders;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    public AccessLogWriter(int capacity, boolean logHeaders) {
+        this.ring = new MpscRing<>(capacity);
+        this.logHeaders = logHeaders;
+        this.thread = new Thread(this::drainLoop, "access-log-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /** No bloquea: si el ring está lleno el registro se descarta. */
+    boolean submit(AccessLogRecord r) {
+        return ring.offer(r);
+    }
+
+    public long dropped() {
+        return ring.dropped();
+    }
+
+    public long pending() {
+        return ring.size();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join(TimeUnit.SECONDS.toMillis(2));
+    }
+
+    private void drainLoop() {
+        while (running) {
+            if (!drain()) LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+        drain();
+    }
+
+    private boolean drain() {
+        boolean any = false;
+        AccessLogRecord r;
+        while ((r = ring.poll()) != null) {
+            any = true;
+            try {
+                write(r);
+            } catch (RuntimeException e) {
+                access.warn("could not write access log record: {}", e.toString());
+            }
+        }
+        return any;
+    }
+
+    private void write(AccessLogRecord r) {
+        var trace = kv("trace_id", r.traceId());
+        var reqId = kv("req_id", r.reqId());
+        var method = kv("method", r.method());
+        var path = kv("path", r.path());
+        var status = kv("status", r.status());
+        var duration = kv("duration_ms", r.durationMicros() / 1000.0);
+        var bytes = kv("bytes", r.responseBytes());
+        var client = kv("client_ip", r.clientIp());
+        var ts = kv("ts", r.timestampMs());
+        if (logHeaders && r.requestHeaders() != null) {
+            access.info(FORMAT_WITH_HEADERS, trace, reqId, method, path, status, duration, bytes, client, ts,
+                    kv("headers", render(r.requestHeaders())));
+        } else {
+            access.info(FORMAT, trace, reqId, method, path, status, duration, bytes, client, ts);
+        }
+    }
+
+    private static String render(HttpHeaders headers) {
+        StringBuilder sb = new StringBuilder(256).append('{');
+        headers.forEach((name, values) -> {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(name).append('=');
+            sb.append(HttpHeaders.AUTHORIZATION.equalsIgnoreCase(name) || HttpHeaders.COOKIE.equalsIgnoreCase(name)
+                    ? "***" : String.join(",", values));
+        });
+        return sb.append('}').toString();
+    }
+}
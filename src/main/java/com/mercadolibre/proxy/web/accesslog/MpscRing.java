@@ -0,0 +1,57 @@
+package com.mercadolibre.proxy.web.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ring buffer acotado, sin locks, para muchos productores y un solo consumidor. Si está lleno
+ * {@link #offer} descarta el elemento (y lo cuenta) en vez de bloquear al productor.
+ */
+final class MpscRing<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+
+    MpscRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    boolean offer(T item) {
+        for (;;) {
+            long t = tail.get();
+            if (t - head.get() >= slots.length()) {
+                dropped.increment();
+                return false;
+            }
+            if (tail.compareAndSet(t, t + 1)) {
+                slots.lazySet((int) t & mask, item);
+                return true;
+            }
+        }
+    }
+
+    /** Sólo desde el hilo consumidor. {@code null} si no hay nada (o el productor aún no terminó de publicar). */
+    T poll() {
+        long h = head.get();
+        int i = (int) h & mask;
+        T item = slots.get(i);
+        if (item == null) return null;
+        slots.lazySet(i, null);
+        head.lazySet(h + 1);
+        return item;
+    }
+
+    long dropped() {
+        return dropped.sum();
+    }
+
+    long size() {
+        return Math.max(0, tail.get() - head.get());
+    }
+}
@@ -1,8 +1,11 @@
 package com.mercadolibre.proxy.web.filter;
 
 import com.mercadolibre.proxy.metrics.ProxyMetrics;
+import com.mercadolibre.proxy.ratelimit.core.ConsumeRequest;
 import com.mercadolibre.proxy.ratelimit.core.Decision;
+import com.mercadolibre.proxy.ratelimit.core.KeyedRateLimitRule;
 import com.mercadolibre.proxy.ratelimit.core.RateLimitRule;
+import com.mercadolibre.proxy.ratelimit.core.RateLimiterBackend;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.core.Ordered;
 import org.springframework.http.HttpMethod;
@@ -11,16 +14,19 @@ import org.springframework.web.server.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @ConditionalOnProperty(name = "proxy.rate-limiter.backend")
 public class RateLimitEngineFilter implements WebFilter, Ordered {
 
-    private final List<RateLimitRule> rules;
+    private final RuleIndex index;
     private final ProxyMetrics metrics;
 
     public RateLimitEngineFilter(List<RateLimitRule> rules, ProxyMetrics metrics) {
-        this.rules = rules;
+        this.index = new RuleIndex(rules);
         this.metrics = metrics;
     }
 
@@ -36,8 +42,8 @@ public class RateLimitEngineFilter implements WebFilter, Ordered {
             return chain.filter(exchange);
         }
 
-        Mono<Decision> decisionMono = Flux.fromIterable(rules)
-                .concatMap(rule -> rule.evaluate(exchange))
+        Mono<Decision> decisionMono = Flux.fromIterable(plan(exchange))
+                .concatMap(step -> step)
                 .filter(dec -> !dec.allowed())
                 .next();
 
@@ -55,6 +61,47 @@ public class RateLimitEngineFilter implements WebFilter, Ordered {
                 .switchIfEmpty(chain.filter(exchange));
     }
 
+    /**
+     * Toma del índice sólo las reglas que pueden aplicar y las agrupa por backend: cada grupo se consume con una sola
+     * llamada a {@link RateLimiterBackend#tryConsumeAll}. Las reglas que no son
+     * {@link KeyedRateLimitRule} se evalúan una a una, después de los grupos.
+     */
+    private List<Mono<Decision>> plan(ServerWebExchange exchange) {
+        var request = exchange.getRequest();
+        List<RateLimitRule> candidates = index.candidates(request.getMethod(), request.getPath().value());
+        Map<RateLimiterBackend, Batch> batches = new LinkedHashMap<>(4);
+        List<Mono<Decision>> steps = new ArrayList<>(candidates.size());
+        List<RateLimitRule> others = new ArrayList<>(0);
+        for (RateLimitRule rule : candidates) {
+            if (rule instanceof KeyedRateLimitRule keyed) {
+                ConsumeRequest req = keyed.resolve(exchange);
+                if (req != null) batches.computeIfAbsent(keyed.backend(), b -> new Batch()).add(keyed, req);
+            } else {
+                others.add(rule);
+            }
+        }
+        batches.forEach((backend, batch) -> steps.add(Mono.defer(() -> batch.consume(backend))));
+        for (RateLimitRule rule : others) {
+            steps.add(Mono.defer(() -> rule.evaluate(exchange)));
+        }
+        return steps;
+    }
+
+    private static final class Batch {
+        private final List<KeyedRateLimitRule> rules = new ArrayList<>(4);
+        private final List<ConsumeRequest> requests = new ArrayList<>(4);
+
+        void add(KeyedRateLimitRule rule, ConsumeRequest req) {
+            rules.add(rule);
+            requests.add(req);
+        }
+
+        Mono<Decision> consume(RateLimiterBackend backend) {
+            return backend.tryConsumeAll(requests)
+                    .map(i -> i < 0 ? Decision.allow() : rules.get(i).blocked());
+        }
+    }
+
     private void ensureCorsHeaders(ServerWebExchange exchange) {
         var h = exchange.getResponse().getHeaders();
         if (!h.containsKey("Access-Control-Allow-Origin")) {
@@ -0,0 +1,107 @@
+package com.mercadolibre.proxy.web.filter;
+
+import com.mercadolibre.proxy.ratelimit.core.KeyedRateLimitRule;
+import com.mercadolibre.proxy.ratelimit.core.RateLimitRule;
+import com.mercadolibre.proxy.ratelimit.core.RequestSelector;
+import org.springframework.http.HttpMethod;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Índice de reglas compilado al arranque: un trie por prefijo de path y un bitmap de reglas
+ * por método. Para cada request devuelve, en el orden original, sólo las reglas cuyo
+ * {@link RequestSelector} la admite; el costo depende del largo del path y no de la cantidad
+ * de reglas. Las reglas que no son {@link KeyedRateLimitRule} son candidatas siempre.
+ */
+final class RuleIndex {
+
+    private final RateLimitRule[] rules;
+    private final int words;
+    private final long[][] byMethod = new long[64][];
+    private final Node root = new Node();
+
+    RuleIndex(List<RateLimitRule> rules) {
+        this.rules = rules.toArray(new RateLimitRule[0]);
+        this.words = Math.max(1, (this.rules.length + 63) >>> 6);
+        for (int b = 0; b < 64; b++) byMethod[b] = new long[words];
+        for (int i = 0; i < this.rules.length; i++) {
+            RequestSelector sel = this.rules[i] instanceof KeyedRateLimitRule keyed ? keyed.selector() : RequestSelector.ANY;
+            if (sel.matchesNothing()) continue;
+            root.descend(sel.pathPrefix(), words).set(i);
+            for (int b = 0; b < 64; b++) {
+                if ((sel.methods() >>> b & 1) != 0) byMethod[b][i >>> 6] |= 1L << i;
+            }
+        }
+    }
+
+    List<RateLimitRule> candidates(HttpMethod method, String path) {
+        long[] allowed = byMethod[RequestSelector.methodBit(method)];
+        long[] hits = new long[words];
+        Node n = root;
+        int depth = 0;
+        while (n != null) {
+            if (n.rules != null) {
+                for (int w = 0; w < words; w++) hits[w] |= n.rules[w] & allowed[w];
+            }
+            if (depth == path.length()) break;
+            n = n.child(path.charAt(depth++));
+        }
+
+        List<RateLimitRule> out = new ArrayList<>(4);
+        for (int w = 0; w < words; w++) {
+            for (long bits = hits[w]; bits != 0; bits &= bits - 1) {
+                out.add(rules[(w << 6) + Long.numberOfTrailingZeros(bits)]);
+            }
+        }
+        return out;
+    }
+
+    private static final class Node {
+        private char[] labels = new char[0];
+        private Node[] children = new Node[0];
+        private long[] rules;
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(labels, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node descend(String prefix, int words) {
+            Node n = this;
+            for (int d = 0; d < prefix.length(); d++) {
+                char c = prefix.charAt(d);
+                int i = Arrays.binarySearch(n.labels, c);
+                if (i < 0) {
+                    i = -i - 1;
+                    n.labels = insert(n.labels, i, c);
+                    n.children = insert(n.children, i, new Node());
+                }
+                n = n.children[i];
+            }
+            if (n.rules == null) n.rules = new long[words];
+            return n;
+        }
+
+        void set(int rule) {
+            rules[rule >>> 6] |= 1L << rule;
+        }
+
+        private static char[] insert(char[] a, int at, char c) {
+            char[] r = new char[a.length + 1];
+            System.arraycopy(a, 0, r, 0, at);
+            r[at] = c;
+            System.arraycopy(a, at, r, at + 1, a.length - at);
+            return r;
+        }
+
+        private static Node[] insert(Node[] a, int at, Node n) {
+            Node[] r = new Node[a.length + 1];
+            System.arraycopy(a, 0, r, 0, at);
+            r[at] = n;
+            System.arraycopy(a, at, r, at + 1, a.length - at);
+            return r;
+        }
+    }
+}
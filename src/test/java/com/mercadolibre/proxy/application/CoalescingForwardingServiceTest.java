@@ -0,0 +1,116 @@
+package com.mercadolibre.proxy.application;
+
+import com.mercadolibre.proxy.domain.ForwardRequest;
+import com.mercadolibre.proxy.domain.ForwardResponse;
+import com.mercadolibre.proxy.domain.RequestContext;
+import com.mercadolibre.proxy.metrics.ProxyMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CoalescingForwardingServiceTest {
+
+    private static final String LARGE = "{\"id\":1,\"title\":\"more than sixteen bytes\"}";
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final Sinks.One<ForwardResponse> upstreamReply = Sinks.one();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final ForwardingService upstream = (req, ctx) -> {
+        upstreamCalls.incrementAndGet();
+        return upstreamReply.asMono();
+    };
+    private final CoalescingForwardingService service = new CoalescingForwardingService(upstream, new ProxyMetrics(registry), 16);
+
+    @Test
+    void identical_concurrent_gets_share_one_upstream_call() {
+        var first = service.forward(get("token-a"), ctx("r1")).toFuture();
+        var second = service.forward(get("token-a"), ctx("r2")).toFuture();
+
+        upstreamReply.tryEmitValue(new ForwardResponse(200, new HttpHeaders(), "{\"id\":1}".getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(body(first.join())).isEqualTo("{\"id\":1}");
+        assertThat(body(second.join())).isEqualTo("{\"id\":1}");
+        assertThat(second.join().headers().getFirst("X-Request-Id")).isEqualTo("r2");
+        assertThat(registry.get("proxy_coalesced_requests_total").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void different_credentials_are_not_coalesced() {
+        service.forward(get("token-a"), ctx("r1")).subscribe();
+        service.forward(get("token-b"), ctx("r2")).subscribe();
+
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void a_new_call_is_made_once_the_previous_one_finished() {
+        upstreamReply.tryEmitValue(new ForwardResponse(200, new HttpHeaders(), new byte[0]));
+
+        service.forward(get("token-a"), ctx("r1")).block();
+        service.forward(get("token-a"), ctx("r2")).block();
+
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void bodies_declared_above_the_limit_are_streamed_and_not_shared() {
+        var first = service.forward(get("token-a"), ctx("r1")).toFuture();
+        var second = service.forward(get("token-a"), ctx("r2")).toFuture();
+
+        HttpHeaders h = new HttpHeaders();
+        h.setContentLength(LARGE.length());
+        upstreamReply.tryEmitValue(new ForwardResponse(200, h, LARGE.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(body(first.join())).isEqualTo(LARGE);
+        assertThat(body(second.join())).isEqualTo(LARGE);
+        // La que esperaba hizo su propia llamada
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void chunked_bodies_above_the_limit_are_fetched_again_instead_of_buffered() {
+        var first = service.forward(get("token-a"), ctx("r1")).toFuture();
+        var second = service.forward(get("token-a"), ctx("r2")).toFuture();
+
+        upstreamReply.tryEmitValue(new ForwardResponse(200, new HttpHeaders(), LARGE.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(body(first.join())).isEqualTo(LARGE);
+        assertThat(body(second.join())).isEqualTo(LARGE);
+        // La primera repite la llamada sin bufferizar; la que esperaba hace la suya
+        assertThat(upstreamCalls).hasValue(3);
+    }
+
+    private static ForwardRequest get(String token) {
+        HttpHeaders h = new HttpHeaders();
+        h.setBearerAuth(token);
+        h.set("X-Request-Id", token + "-id");
+        return new ForwardRequest(URI.create("https://api.example.com/items/MLA1"), HttpMethod.GET, h, (byte[]) null);
+    }
+
+    private static RequestContext ctx(String reqId) {
+        return new RequestContext("t", reqId, HttpMethod.GET, "https://api.example.com/items/MLA1", "/items/MLA1", new HttpHeaders(), System.nanoTime());
+    }
+
+    private static String body(ForwardResponse res) {
+        return DataBufferUtils.join(res.body())
+                .map(db -> {
+                    String s = db.toString(StandardCharsets.UTF_8);
+                    DataBufferUtils.release(db);
+                    return s;
+                })
+                .defaultIfEmpty("")
+                .block();
+    }
+}
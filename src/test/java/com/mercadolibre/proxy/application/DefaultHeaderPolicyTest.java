@@ -0,0 +1,62 @@
+package com.mercadolibre.proxy.application;
+
+import com.mercadolibre.proxy.tracing.TraceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DefaultHeaderPolicyTest {
+
+    private final TraceContext trace = TraceContext.from(null, null);
+    private final DefaultHeaderPolicy policy = new DefaultHeaderPolicy(DefaultHeaderPolicy.Profile.defaults(), List.of(
+            new DefaultHeaderPolicy.Profile("/items", List.of("If-None-Match"), List.of("Set-Cookie"), false)));
+
+    @Test
+    void to_backend_copies_only_allowed_headers_regardless_of_case() {
+        HttpHeaders in = new HttpHeaders();
+        in.add("accept-language", "es-AR");
+        in.add("AUTHORIZATION", "Bearer x");
+        in.add("Cookie", "a=b");
+        in.add("If-None-Match", "\"v1\"");
+
+        HttpHeaders out = policy.toBackend(in, "/sites/MLA", "req-1", trace);
+
+        assertThat(out.getFirst("Accept-Language")).isEqualTo("es-AR");
+        assertThat(out.getFirst(HttpHeaders.AUTHORIZATION)).isEqualTo("Bearer x");
+        assertThat(out.getFirst(HttpHeaders.ACCEPT)).isEqualTo("application/json");
+        assertThat(out.containsKey(HttpHeaders.COOKIE)).isFalse();
+        assertThat(out.containsKey(HttpHeaders.IF_NONE_MATCH)).isFalse();
+        assertThat(out.getFirst("X-Request-Id")).isEqualTo("req-1");
+        assertThat(out.getFirst(TraceContext.TRACEPARENT)).isEqualTo(trace.traceparent());
+
+        assertThat(policy.toBackend(in, "/items/MLA1", "req-1", trace).getFirst(HttpHeaders.IF_NONE_MATCH))
+                .isEqualTo("\"v1\"");
+    }
+
+    @Test
+    void to_client_strips_hop_by_hop_and_applies_route_profile() {
+        HttpHeaders backend = new HttpHeaders();
+        backend.add("connection", "keep-alive");
+        backend.add(HttpHeaders.TRANSFER_ENCODING, "chunked");
+        backend.add(HttpHeaders.SET_COOKIE, "s=1");
+        backend.add("X-Request-Id", "upstream");
+        backend.add("X-From-Backend", "yes");
+
+        HttpHeaders base = policy.toClient(backend, "/sites/MLA", "req-1");
+        assertThat(base.containsKey(HttpHeaders.CONNECTION)).isFalse();
+        assertThat(base.containsKey(HttpHeaders.TRANSFER_ENCODING)).isFalse();
+        assertThat(base.getFirst(HttpHeaders.SET_COOKIE)).isEqualTo("s=1");
+        assertThat(base.get("X-Request-Id")).containsExactly("req-1");
+        assertThat(base.getFirst(HttpHeaders.CACHE_CONTROL)).isEqualTo("no-store, no-cache, must-revalidate");
+        assertThat(base.getFirst("X-Frame-Options")).isEqualTo("DENY");
+        assertThat(HopByHop.strip(base)).isSameAs(base);
+
+        HttpHeaders items = policy.toClient(backend, "/items/MLA1", "req-1");
+        assertThat(items.containsKey(HttpHeaders.SET_COOKIE)).isFalse();
+        assertThat(items.containsKey("X-Frame-Options")).isFalse();
+        assertThat(items.getFirst("X-From-Backend")).isEqualTo("yes");
+    }
+}
@@ -0,0 +1,38 @@
+package com.mercadolibre.proxy.application;
+
+import com.mercadolibre.proxy.domain.ForwardRequest;
+import com.mercadolibre.proxy.domain.ForwardResponse;
+import com.mercadolibre.proxy.domain.RequestContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ForwardingServiceImplTest {
+
+    private final DefaultHeaderPolicy policy = new DefaultHeaderPolicy(DefaultHeaderPolicy.Profile.defaults(), List.of(
+            new DefaultHeaderPolicy.Profile("/items", List.of(), List.of("Set-Cookie"), false)));
+
+    private final ForwardingServiceImpl service = new ForwardingServiceImpl(req -> {
+        HttpHeaders h = new HttpHeaders();
+        h.add(HttpHeaders.SET_COOKIE, "s=1");
+        return Mono.just(new ForwardResponse(200, h, new byte[0]));
+    }, policy);
+
+    @Test
+    void response_profile_follows_the_client_path_when_the_upstream_has_a_base_path() {
+        // Upstream "http://svc/api": el target lleva /api delante del path que pidió el cliente
+        var req = new ForwardRequest(URI.create("http://svc/api/items/MLA1"), HttpMethod.GET, new HttpHeaders(), (byte[]) null);
+        var ctx = new RequestContext("t", "r1", HttpMethod.GET, req.targetUri().toString(), "/items/MLA1",
+                new HttpHeaders(), System.nanoTime());
+
+        ForwardResponse res = service.forward(req, ctx).block();
+
+        assertThat(res.headers().containsKey(HttpHeaders.SET_COOKIE)).isFalse();
+    }
+}
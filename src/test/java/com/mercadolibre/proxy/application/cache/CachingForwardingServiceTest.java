@@ -0,0 +1,142 @@
+package com.mercadolibre.proxy.application.cache;
+
+import com.mercadolibre.proxy.application.ForwardingService;
+import com.mercadolibre.proxy.domain.ForwardRequest;
+import com.mercadolibre.proxy.domain.ForwardResponse;
+import com.mercadolibre.proxy.domain.RequestContext;
+import com.mercadolibre.proxy.metrics.ProxyMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachingForwardingServiceTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final HttpHeaders upstreamHeaders = new HttpHeaders();
+
+    private final ForwardingService upstream = (req, ctx) -> {
+        upstreamCalls.incrementAndGet();
+        HttpHeaders h = new HttpHeaders();
+        h.addAll(upstreamHeaders);
+        h.set("X-Request-Id", ctx.reqId());
+        return Mono.just(new ForwardResponse(200, h, "{\"id\":1}".getBytes(StandardCharsets.UTF_8)));
+    };
+
+    private final CachingForwardingService service = new CachingForwardingService(
+            upstream,
+            new ResponseCache(1 << 20, 4, clock::get),
+            new CachePolicy(List.of("Accept"), List.of(new CachePolicy.RouteTtl("/categories", Duration.ofSeconds(30))), 64 * 1024),
+            new ProxyMetrics(registry));
+
+    @Test
+    void serves_fresh_responses_from_cache_with_age_and_current_request_id() {
+        upstreamHeaders.setCacheControl("public, max-age=60");
+
+        String first = body(get("/items/MLA1", "r1"));
+        clock.addAndGet(5_000);
+        ForwardResponse hit = service.forward(request("/items/MLA1"), ctx("/items/MLA1", "r2")).block();
+
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(body(hit)).isEqualTo(first);
+        assertThat(hit.headers().getFirst("X-Request-Id")).isEqualTo("r2");
+        assertThat(hit.headers().getFirst("Age")).isEqualTo("5");
+        assertThat(registry.get("proxy_cache_requests_total").tag("result", "hit").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void expired_entries_go_back_to_upstream() {
+        upstreamHeaders.setCacheControl("max-age=10");
+
+        body(get("/items/MLA1", "r1"));
+        clock.addAndGet(10_000);
+        body(get("/items/MLA1", "r2"));
+
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void no_store_responses_are_not_cached() {
+        upstreamHeaders.setCacheControl("no-store, no-cache, must-revalidate");
+
+        body(get("/items/MLA1", "r1"));
+        body(get("/items/MLA1", "r2"));
+
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void route_ttl_overrides_upstream_headers() {
+        upstreamHeaders.setCacheControl("no-store");
+
+        body(get("/categories/MLA1055", "r1"));
+        clock.addAndGet(29_000);
+        body(get("/categories/MLA1055", "r2"));
+
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    @Test
+    void route_ttl_does_not_make_authorized_responses_shareable() {
+        HttpHeaders inbound = new HttpHeaders();
+        inbound.setBearerAuth("user-a");
+        var authorized = new RequestContext("t", "r1", HttpMethod.GET, "https://api.example.com", "/categories/MLA1055",
+                inbound, System.nanoTime());
+
+        body(service.forward(request("/categories/MLA1055"), authorized).block());
+        body(get("/categories/MLA1055", "r2"));
+
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void route_ttl_matches_the_client_path_when_the_upstream_has_a_base_path() {
+        upstreamHeaders.setCacheControl("no-store");
+        // Upstream "https://api.example.com/v2": el override de /categories sigue aplicando
+        var req = new ForwardRequest(URI.create("https://api.example.com/v2/categories/MLA1055"), HttpMethod.GET,
+                new HttpHeaders(), (byte[]) null);
+
+        body(service.forward(req, ctx("/categories/MLA1055", "r1")).block());
+        body(service.forward(req, ctx("/categories/MLA1055", "r2")).block());
+
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    private ForwardResponse get(String path, String reqId) {
+        return service.forward(request(path), ctx(path, reqId)).block();
+    }
+
+    private static ForwardRequest request(String path) {
+        HttpHeaders h = new HttpHeaders();
+        h.set(HttpHeaders.ACCEPT, "application/json");
+        return new ForwardRequest(URI.create("https://api.example.com" + path), HttpMethod.GET, h, (byte[]) null);
+    }
+
+    private static RequestContext ctx(String path, String reqId) {
+        return new RequestContext("t", reqId, HttpMethod.GET, "https://api.example.com" + path, path, new HttpHeaders(),
+                System.nanoTime());
+    }
+
+    private static String body(ForwardResponse res) {
+        return DataBufferUtils.join(res.body())
+                .map(db -> {
+                    String s = db.toString(StandardCharsets.UTF_8);
+                    DataBufferUtils.release(db);
+                    return s;
+                })
+                .block();
+    }
+}
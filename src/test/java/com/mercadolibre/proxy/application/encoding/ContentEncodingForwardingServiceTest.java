@@ -0,0 +1,111 @@
+package com.mercadolibre.proxy.application.encoding;
+
+import com.mercadolibre.proxy.domain.ForwardRequest;
+import com.mercadolibre.proxy.domain.ForwardResponse;
+import com.mercadolibre.proxy.domain.RequestContext;
+import com.mercadolibre.proxy.metrics.ProxyMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentEncodingForwardingServiceTest {
+
+    private static final String TEXT = "{\"items\":[" + "\"phone\",".repeat(500) + "\"tv\"]}";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicReference<HttpHeaders> sentUpstream = new AtomicReference<>();
+    private final byte[] gzipped = gzip(TEXT);
+
+    private final ContentEncodingForwardingService service = new ContentEncodingForwardingService((req, ctx) -> {
+        sentUpstream.set(req.headers());
+        HttpHeaders h = new HttpHeaders();
+        h.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        h.setContentLength(gzipped.length);
+        // En dos pedazos: el decoder tiene que funcionar con buffers partidos
+        int half = gzipped.length / 2;
+        return Mono.just(new ForwardResponse(200, h, Flux.just(
+                wrap(Arrays.copyOfRange(gzipped, 0, half)), wrap(Arrays.copyOfRange(gzipped, half, gzipped.length)))));
+    }, new ProxyMetrics(registry));
+
+    @Test
+    void gzip_is_relayed_untouched_when_the_client_accepts_it() {
+        ForwardResponse res = service.forward(request(), context("gzip, br")).block();
+
+        assertThat(sentUpstream.get().getFirst(HttpHeaders.ACCEPT_ENCODING)).isEqualTo("gzip");
+        assertThat(res.headers().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(res.headers().getVary()).contains(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(bytes(res)).isEqualTo(gzipped);
+        assertThat(registry.get("proxy_compression_saved_bytes_total").counter().count())
+                .isEqualTo(TEXT.length() - gzipped.length);
+    }
+
+    @Test
+    void gzip_is_decoded_for_clients_that_do_not_accept_it() {
+        ForwardResponse res = service.forward(request(), context("br;q=1, gzip;q=0")).block();
+
+        assertThat(res.headers().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(res.headers().containsKey(HttpHeaders.CONTENT_LENGTH)).isFalse();
+        assertThat(res.headers().getVary()).contains(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(new String(bytes(res), StandardCharsets.UTF_8)).isEqualTo(TEXT);
+        assertThat(registry.get("proxy_compression_decoded_output_bytes_total").counter().count()).isEqualTo(TEXT.length());
+    }
+
+    @Test
+    void accept_encoding_parsing_honours_q_values_and_wildcards() {
+        assertThat(ContentCodings.accepts("gzip, deflate", "gzip")).isTrue();
+        assertThat(ContentCodings.accepts("x-gzip", "gzip")).isTrue();
+        assertThat(ContentCodings.accepts("*", "gzip")).isTrue();
+        assertThat(ContentCodings.accepts("*, gzip;q=0", "gzip")).isFalse();
+        assertThat(ContentCodings.accepts("br", "gzip")).isFalse();
+        assertThat(ContentCodings.accepts(null, "gzip")).isFalse();
+    }
+
+    private static ForwardRequest request() {
+        return new ForwardRequest(URI.create("https://api.example.com/items"), HttpMethod.GET, new HttpHeaders(), (byte[]) null);
+    }
+
+    private static RequestContext context(String acceptEncoding) {
+        HttpHeaders in = new HttpHeaders();
+        in.set(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        return new RequestContext("t", "r", HttpMethod.GET, "https://api.example.com/items", "/items", in, System.nanoTime());
+    }
+
+    private static DataBuffer wrap(byte[] bytes) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(bytes);
+    }
+
+    private static byte[] bytes(ForwardResponse res) {
+        return DataBufferUtils.join(res.body()).map(db -> {
+            byte[] out = new byte[db.readableByteCount()];
+            db.read(out);
+            DataBufferUtils.release(db);
+            return out;
+        }).block();
+    }
+
+    private static byte[] gzip(String text) {
+        var out = new ByteArrayOutputStream();
+        try (var gz = new GZIPOutputStream(out)) {
+            gz.write(text.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,86 @@
+package com.mercadolibre.proxy.config;
+
+import io.netty.channel.Channel;
+import io.netty.handler.codec.http2.Http2FrameCodec;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.http2.enabled=true",
+        "proxy.server.http2.max-concurrent-streams=17",
+        "proxy.rate-limiter.ip-per-minute=2",
+        "proxy.access-log.enabled=false"
+})
+class ServerHttp2ConfigTest {
+
+    private static final MockWebServer backend = new MockWebServer();
+
+    @LocalServerPort
+    int port;
+
+    @DynamicPropertySource
+    static void backend(DynamicPropertyRegistry registry) throws IOException {
+        backend.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setHeader("Content-Type", "application/json").setBody("{\"id\":\"MLA\"}");
+            }
+        });
+        backend.start();
+        registry.add("backend.base-url", () -> "http://" + backend.getHostName() + ":" + backend.getPort());
+    }
+
+    @AfterAll
+    static void stopBackend() throws IOException {
+        backend.shutdown();
+    }
+
+    @Test
+    void h2c_prior_knowledge_streams_go_through_the_filters_and_the_controller() {
+        AtomicInteger advertised = new AtomicInteger(-1);
+        AtomicInteger majorVersion = new AtomicInteger(-1);
+        HttpClient h2c = HttpClient.create()
+                .protocol(HttpProtocol.H2C)
+                .baseUrl("http://localhost:" + port)
+                .doOnResponse((res, conn) -> {
+                    majorVersion.set(res.version().majorVersion());
+                    advertised.set(maxConcurrentStreams(conn.channel()));
+                });
+
+        List<Integer> statuses = Flux.range(0, 3)
+                .concatMap(i -> h2c.get().uri("/sites/MLA")
+                        .responseSingle((res, body) -> body.asString().defaultIfEmpty("").map(b -> res.status().code())))
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertThat(majorVersion).hasValue(2);
+        assertThat(advertised).hasValue(17);
+        // ip-per-minute=2: la tercera la corta RateLimitEngineFilter, las otras llegan al backend
+        assertThat(statuses).containsExactly(200, 200, 429);
+        assertThat(backend.getRequestCount()).isEqualTo(2);
+    }
+
+    /** El máximo que anunció el server en SETTINGS es lo que acota los streams locales del cliente. */
+    private static int maxConcurrentStreams(Channel stream) {
+        Channel connection = stream.parent() != null ? stream.parent() : stream;
+        return connection.pipeline().get(Http2FrameCodec.class).connection().local().maxActiveStreams();
+    }
+}
@@ -0,0 +1,56 @@
+package com.mercadolibre.proxy.infrastructure.http;
+
+import com.mercadolibre.proxy.domain.ForwardRequest;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class ConcurrencyLimitingHttpClientGatewayTest {
+
+    private final GradientConcurrencyLimit limit = new GradientConcurrencyLimit(20, 4, 200, 0.2, 1.5, 100);
+
+    @Test
+    void fast_failures_that_never_reach_the_upstream_do_not_move_the_limit() {
+        var open = CircuitBreaker.ofDefaults("upstream");
+        open.transitionToForcedOpenState();
+        var refused = new WebClientRequestException(new ConnectException("Connection refused"),
+                HttpMethod.GET, URI.create("http://localhost:1/"), new HttpHeaders());
+
+        for (int i = 0; i < 50; i++) {
+            call(CallNotPermittedException.createCallNotPermittedException(open));
+            call(refused);
+        }
+
+        assertThat(limit.limit()).isEqualTo(20);
+        assertThat(limit.inFlight()).isZero();
+    }
+
+    @Test
+    void failed_round_trips_still_shrink_the_limit() {
+        for (int i = 0; i < 10; i++) {
+            call(new IOException("Connection reset by peer"));
+            call(new TimeoutException());
+        }
+
+        assertThat(limit.limit()).isLessThan(20);
+        assertThat(limit.inFlight()).isZero();
+    }
+
+    private void call(Throwable error) {
+        var gateway = new ConcurrencyLimitingHttpClientGateway(req -> Mono.error(error), limit, "upstream");
+        catchThrowable(() -> gateway.exchange(
+                new ForwardRequest(URI.create("http://localhost/"), HttpMethod.GET, new HttpHeaders(), (byte[]) null)).block());
+    }
+}
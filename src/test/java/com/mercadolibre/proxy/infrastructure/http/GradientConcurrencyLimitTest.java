@@ -0,0 +1,52 @@
+package com.mercadolibre.proxy.infrastructure.http;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GradientConcurrencyLimitTest {
+
+    private static final long MS = 1_000_000;
+
+    private final GradientConcurrencyLimit limit = new GradientConcurrencyLimit(20, 4, 200, 0.2, 1.5, 100);
+
+    @Test
+    void rejects_once_in_flight_reaches_the_limit() {
+        for (int i = 0; i < 20; i++) assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isFalse();
+        assertThat(limit.rejected()).isEqualTo(1);
+
+        limit.onIgnore();
+        assertThat(limit.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void grows_under_steady_latency_and_shrinks_when_latency_rises() {
+        saturate(10 * MS, 50);
+        int grown = limit.limit();
+        assertThat(grown).isGreaterThan(20);
+
+        // La latencia se sextuplica: el límite cae antes de que el promedio largo la alcance
+        for (int i = 0; i < grown; i++) limit.tryAcquire();
+        for (int i = 0; i < 40; i++) limit.onSample(60 * MS, false);
+        assertThat(limit.limit()).isLessThan(grown / 2);
+    }
+
+    @Test
+    void does_not_grow_while_mostly_idle() {
+        for (int i = 0; i < 100; i++) {
+            limit.tryAcquire();
+            limit.onSample(10 * MS, false);
+        }
+        assertThat(limit.limit()).isEqualTo(20);
+    }
+
+    /** Ocupa todo el límite y devuelve una muestra por llamada, {@code rounds} veces. */
+    private void saturate(long rttNanos, int rounds) {
+        for (int r = 0; r < rounds; r++) {
+            int n = limit.limit();
+            for (int i = 0; i < n; i++) limit.tryAcquire();
+            for (int i = 0; i < n; i++) limit.onSample(rttNanos, false);
+        }
+    }
+}
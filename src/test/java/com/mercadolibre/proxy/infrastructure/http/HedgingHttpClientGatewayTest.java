@@ -0,0 +1,147 @@
+package com.mercadolibre.proxy.infrastructure.http;
+
+import com.mercadolibre.proxy.domain.ForwardRequest;
+import com.mercadolibre.proxy.domain.ForwardResponse;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HedgingHttpClientGatewayTest {
+
+    private static final Duration SLOW = Duration.ofMillis(500);
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicBoolean slowCancelled = new AtomicBoolean();
+    /** Demora de cada llamada al upstream, en orden; vacía: responde enseguida. */
+    private final Queue<Duration> delays = new ConcurrentLinkedQueue<>();
+
+    private final HttpClientGateway upstream = req -> Mono.defer(() -> {
+        calls.incrementAndGet();
+        Duration d = delays.poll();
+        Mono<ForwardResponse> res = Mono.just(new ForwardResponse(200, new HttpHeaders(), new byte[0]));
+        return d == null ? res : res.delayElement(d).doOnCancel(() -> slowCancelled.set(true));
+    });
+
+    private final RollingLatency latency = new RollingLatency(Duration.ofSeconds(10).toNanos(), 10);
+
+    @Test
+    void slow_get_is_hedged_and_the_loser_cancelled() {
+        var gateway = gateway(new RequestBudget(0.05, 10));
+        warmUp();
+        delays.add(SLOW);
+
+        long t0 = System.nanoTime();
+        gateway.exchange(request(HttpMethod.GET)).block(Duration.ofSeconds(2));
+
+        assertThat(Duration.ofNanos(System.nanoTime() - t0)).isLessThan(SLOW);
+        assertThat(calls.get()).isEqualTo(2);
+        assertThat(gateway.hedges()).isEqualTo(1);
+        assertThat(gateway.wins()).isEqualTo(1);
+        assertThat(slowCancelled.get()).isTrue();
+    }
+
+    @Test
+    void requests_with_body_or_non_idempotent_methods_are_not_hedged() {
+        var gateway = gateway(new RequestBudget(0.05, 10));
+        warmUp();
+        delays.add(Duration.ofMillis(50));
+
+        gateway.exchange(request(HttpMethod.POST)).block(Duration.ofSeconds(2));
+
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(gateway.eligible()).isZero();
+    }
+
+    @Test
+    void no_hedge_without_samples_or_budget() {
+        var gateway = gateway(new RequestBudget(0, 1));
+        delays.add(Duration.ofMillis(100));
+        gateway.exchange(request(HttpMethod.GET)).block(Duration.ofSeconds(2));
+        assertThat(calls.get()).isEqualTo(1);
+
+        warmUp();
+        delays.add(Duration.ofMillis(50));
+        delays.add(Duration.ofMillis(50));
+        gateway.exchange(request(HttpMethod.GET)).block(Duration.ofSeconds(2));
+        delays.add(Duration.ofMillis(50));
+        gateway.exchange(request(HttpMethod.GET)).block(Duration.ofSeconds(2));
+
+        assertThat(gateway.hedges()).isEqualTo(1);
+        assertThat(gateway.budgetExhausted()).isEqualTo(1);
+    }
+
+    @Test
+    void when_both_attempts_answer_the_losers_body_is_discarded() throws InterruptedException {
+        Sinks.One<ForwardResponse> primary = Sinks.one();
+        // El hedge responde aunque ya lo hayan cancelado, como una respuesta que estaba en vuelo
+        AtomicReference<Subscriber<? super ForwardResponse>> hedge = new AtomicReference<>();
+        AtomicBoolean hedgeCancelled = new AtomicBoolean();
+        Publisher<ForwardResponse> inFlight = s -> {
+            s.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                    hedgeCancelled.set(true);
+                }
+            });
+            hedge.set(s);
+        };
+        AtomicInteger attempts = new AtomicInteger();
+        HttpClientGateway racing = req -> attempts.getAndIncrement() == 0 ? primary.asMono() : Mono.from(inFlight);
+        var gateway = new HedgingHttpClientGateway(racing, latency, new RequestBudget(0.05, 10),
+                0.95, Duration.ofMillis(5), Duration.ofSeconds(1));
+        warmUp();
+
+        var result = gateway.exchange(request(HttpMethod.GET)).toFuture();
+        while (hedge.get() == null) Thread.sleep(1);
+        AtomicBoolean primaryBodyRead = new AtomicBoolean();
+        AtomicBoolean hedgeBodyReleased = new AtomicBoolean();
+        primary.tryEmitValue(new ForwardResponse(200, new HttpHeaders(),
+                Flux.defer(() -> {
+                    primaryBodyRead.set(true);
+                    return Flux.empty();
+                })));
+        hedge.get().onNext(new ForwardResponse(200, new HttpHeaders(),
+                Flux.defer(() -> {
+                    hedgeBodyReleased.set(true);
+                    return Flux.empty();
+                })));
+
+        result.join().discardBody().block();
+        assertThat(primaryBodyRead).isTrue();
+        assertThat(hedgeCancelled).isTrue();
+        assertThat(hedgeBodyReleased).isTrue();
+        assertThat(gateway.wins()).isZero();
+    }
+
+    private void warmUp() {
+        for (int i = 0; i < 20; i++) latency.record(Duration.ofMillis(1).toNanos());
+    }
+
+    private HedgingHttpClientGateway gateway(RequestBudget budget) {
+        return new HedgingHttpClientGateway(upstream, latency, budget, 0.95, Duration.ofMillis(5), Duration.ofSeconds(1));
+    }
+
+    private static ForwardRequest request(HttpMethod method) {
+        return new ForwardRequest(URI.create("https://api.example.com/items"), method, new HttpHeaders(), (byte[]) null);
+    }
+}
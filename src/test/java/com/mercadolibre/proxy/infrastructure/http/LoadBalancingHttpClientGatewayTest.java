@@ -0,0 +1,75 @@
+package com.mercadolibre.proxy.infrastructure.http;
+
+import com.mercadolibre.proxy.domain.ForwardRequest;
+import com.mercadolibre.proxy.domain.ForwardResponse;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoadBalancingHttpClientGatewayTest {
+
+    private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+    private final Map<String, Integer> statusByHost = new ConcurrentHashMap<>();
+
+    private final HttpClientGateway upstream = req -> {
+        String host = req.targetUri().getHost();
+        hits.computeIfAbsent(host, h -> new AtomicInteger()).incrementAndGet();
+        Mono<ForwardResponse> res = Mono.just(new ForwardResponse(statusByHost.getOrDefault(host, 200), new HttpHeaders(), new byte[0]));
+        return host.startsWith("slow") ? res.delayElement(Duration.ofMillis(20)) : res;
+    };
+
+    @Test
+    void rewrites_to_the_chosen_instance_and_prefers_the_faster_one() {
+        var gateway = gateway(instance("https://fast.example.com"), instance("https://slow.example.com"));
+
+        for (int i = 0; i < 50; i++) gateway.exchange(get()).block();
+
+        assertThat(hits.get("fast.example.com").get()).isGreaterThan(40);
+    }
+
+    @Test
+    void instance_with_open_breaker_is_ejected_until_it_recovers() {
+        var bad = instance("https://bad.example.com");
+        var good = instance("https://good.example.com");
+        var gateway = gateway(bad, good);
+        statusByHost.put("bad.example.com", 503);
+
+        for (int i = 0; i < 40; i++) gateway.exchange(get()).block();
+
+        assertThat(bad.ejected()).isTrue();
+        int badHits = hits.get("bad.example.com").get();
+        for (int i = 0; i < 20; i++) gateway.exchange(get()).block();
+        assertThat(hits.get("bad.example.com").get()).isEqualTo(badHits);
+        assertThat(good.inFlight()).isZero();
+    }
+
+    private LoadBalancingHttpClientGateway gateway(LoadBalancingHttpClientGateway.Instance... instances) {
+        return new LoadBalancingHttpClientGateway("https://api.example.com", List.of(instances), upstream, Duration.ofSeconds(10));
+    }
+
+    private static LoadBalancingHttpClientGateway.Instance instance(String url) {
+        var config = CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofMinutes(1))
+                .build();
+        return new LoadBalancingHttpClientGateway.Instance(url, CircuitBreaker.of(url, config));
+    }
+
+    private static ForwardRequest get() {
+        return new ForwardRequest(URI.create("https://api.example.com/items/MLA1?attrs=id"), HttpMethod.GET, new HttpHeaders(), (byte[]) null);
+    }
+}
@@ -0,0 +1,96 @@
+package com.mercadolibre.proxy.infrastructure.http;
+
+import com.mercadolibre.proxy.domain.ForwardRequest;
+import com.mercadolibre.proxy.domain.ForwardResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RetryingHttpClientGatewayTest {
+
+    private final AtomicInteger calls = new AtomicInteger();
+    /** Resultado de cada llamada al upstream, en orden; vacía: 200. */
+    private final Queue<Object> outcomes = new ConcurrentLinkedQueue<>();
+
+    private final HttpClientGateway upstream = req -> Mono.defer(() -> {
+        calls.incrementAndGet();
+        Object next = outcomes.poll();
+        if (next instanceof Throwable t) return Mono.error(t);
+        int status = next == null ? 200 : (Integer) next;
+        return Mono.just(new ForwardResponse(status, new HttpHeaders(), new byte[0]));
+    });
+
+    @Test
+    void retries_connection_resets_and_502_503_until_success() {
+        var gateway = gateway(new RequestBudget(0.1, 10));
+        outcomes.add(new IOException("Connection reset by peer"));
+        outcomes.add(503);
+
+        ForwardResponse res = gateway.exchange(request(HttpMethod.GET, false)).block(Duration.ofSeconds(2));
+
+        assertThat(res.status()).isEqualTo(200);
+        assertThat(calls.get()).isEqualTo(3);
+        assertThat(gateway.retries()).isEqualTo(2);
+    }
+
+    @Test
+    void gives_up_after_max_attempts_with_the_last_response() {
+        var gateway = gateway(new RequestBudget(0.1, 10));
+        for (int i = 0; i < 5; i++) outcomes.add(502);
+
+        ForwardResponse res = gateway.exchange(request(HttpMethod.DELETE, false)).block(Duration.ofSeconds(2));
+
+        assertThat(res.status()).isEqualTo(502);
+        assertThat(calls.get()).isEqualTo(3);
+    }
+
+    @Test
+    void post_requests_with_body_and_other_errors_are_not_retried() {
+        var gateway = gateway(new RequestBudget(0.1, 10));
+        outcomes.add(503);
+        outcomes.add(500);
+
+        assertThat(gateway.exchange(request(HttpMethod.POST, false)).block(Duration.ofSeconds(2)).status()).isEqualTo(503);
+        assertThat(gateway.exchange(request(HttpMethod.PUT, true)).block(Duration.ofSeconds(2)).status()).isEqualTo(500);
+        outcomes.add(new IllegalStateException("boom"));
+        assertThatThrownBy(() -> gateway.exchange(request(HttpMethod.GET, false)).block(Duration.ofSeconds(2)))
+                .hasMessageContaining("boom");
+        assertThat(calls.get()).isEqualTo(3);
+    }
+
+    @Test
+    void exhausted_budget_returns_the_original_failure() {
+        var gateway = gateway(new RequestBudget(0, 1));
+        for (int i = 0; i < 4; i++) outcomes.add(503);
+
+        gateway.exchange(request(HttpMethod.GET, false)).block(Duration.ofSeconds(2));
+        assertThat(calls.get()).isEqualTo(2);
+
+        ForwardResponse res = gateway.exchange(request(HttpMethod.GET, false)).block(Duration.ofSeconds(2));
+        assertThat(res.status()).isEqualTo(503);
+        assertThat(calls.get()).isEqualTo(3);
+        assertThat(gateway.budgetExhausted()).isEqualTo(2);
+    }
+
+    private RetryingHttpClientGateway gateway(RequestBudget budget) {
+        return new RetryingHttpClientGateway(upstream, budget, 3, Duration.ofMillis(1), Duration.ofMillis(5));
+    }
+
+    private static ForwardRequest request(HttpMethod method, boolean withBody) {
+        return new ForwardRequest(URI.create("https://api.example.com/items"), method, new HttpHeaders(),
+                withBody ? Flux.<DataBuffer>empty() : null);
+    }
+}
@@ -0,0 +1,63 @@
+package com.mercadolibre.proxy.infrastructure.http;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.Test;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UpstreamConnectionWarmupTest {
+
+    @Test
+    void unreachable_upstream_does_not_fail_the_warmup() {
+        var warmup = new UpstreamConnectionWarmup();
+        warmup.add("down", HttpClient.create(), "http://127.0.0.1:1/", 2, Duration.ofSeconds(2));
+        warmup.add("disabled", HttpClient.create(), "http://127.0.0.1:1/", 0, Duration.ofSeconds(2));
+
+        assertThat(warmup.run().block(Duration.ofSeconds(5))).isZero();
+    }
+
+    @Test
+    void opens_the_requested_connections_and_leaves_them_in_the_pool() throws IOException, InterruptedException {
+        try (MockWebServer server = new MockWebServer()) {
+            // Respuestas demoradas: los tres HEAD quedan en vuelo a la vez y cada uno abre su conexión
+            for (int i = 0; i < 3; i++) {
+                server.enqueue(new MockResponse().setHeadersDelay(100, TimeUnit.MILLISECONDS));
+            }
+            server.enqueue(new MockResponse().setBody("ok"));
+            ConnectionProvider pool = ConnectionProvider.builder("warmup-test").maxConnections(3).build();
+            try {
+                HttpClient client = HttpClient.create(pool);
+                var warmup = new UpstreamConnectionWarmup();
+                warmup.add("items", client, server.url("/").toString(), 3, Duration.ofSeconds(2));
+
+                assertThat(warmup.run().block(Duration.ofSeconds(5))).isEqualTo(3);
+
+                List<RecordedRequest> heads = new ArrayList<>();
+                for (int i = 0; i < 3; i++) heads.add(server.takeRequest(1, TimeUnit.SECONDS));
+                assertThat(heads).allSatisfy(r -> {
+                    assertThat(r.getMethod()).isEqualTo("HEAD");
+                    // Primera request de su conexión: tres conexiones distintas
+                    assertThat(r.getSequenceNumber()).isZero();
+                });
+
+                String body = client.get().uri(server.url("/items/MLA1").toString())
+                        .responseContent().aggregate().asString().block(Duration.ofSeconds(5));
+                assertThat(body).isEqualTo("ok");
+                // La request real sale por una conexión del warm-up
+                assertThat(server.takeRequest(1, TimeUnit.SECONDS).getSequenceNumber()).isEqualTo(1);
+            } finally {
+                pool.disposeLater().block(Duration.ofSeconds(5));
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.mercadolibre.proxy.infrastructure.http;
+
+import com.mercadolibre.proxy.domain.ForwardRequest;
+import com.mercadolibre.proxy.domain.ForwardResponse;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebClientHttpClientTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final MockWebServer server = new MockWebServer();
+    private final WebClientHttpClient client = new WebClientHttpClient(WebClient.create());
+
+    @BeforeEach
+    void start() throws IOException {
+        server.start();
+    }
+
+    @AfterEach
+    void stop() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void request_body_is_streamed_to_the_upstream_without_buffering() throws InterruptedException {
+        server.enqueue(new MockResponse().setResponseCode(201));
+        Flux<DataBuffer> body = Flux.just("{\"a\":", "1,", "\"b\":2}")
+                .map(s -> DefaultDataBufferFactory.sharedInstance.wrap(s.getBytes(StandardCharsets.UTF_8)));
+
+        ForwardResponse res = client.exchange(new ForwardRequest(uri("/items"), HttpMethod.POST, new HttpHeaders(), body))
+                .block(TIMEOUT);
+        res.discardBody().block(TIMEOUT);
+
+        RecordedRequest recorded = server.takeRequest(1, TimeUnit.SECONDS);
+        assertThat(res.status()).isEqualTo(201);
+        assertThat(recorded.getBody().readUtf8()).isEqualTo("{\"a\":1,\"b\":2}");
+        // Sin Content-Length del cliente el body sale en chunks, no se junta para medirlo
+        assertThat(recorded.getHeader(HttpHeaders.TRANSFER_ENCODING)).isEqualTo("chunked");
+    }
+
+    @Test
+    void response_body_arrives_as_a_stream_of_buffers() {
+        byte[] payload = new byte[256 * 1024];
+        for (int i = 0; i < payload.length; i++) payload[i] = (byte) ('a' + i % 26);
+        server.enqueue(new MockResponse().setChunkedBody(new Buffer().write(payload), 8 * 1024));
+
+        ForwardResponse res = client.exchange(get("/items/MLA1")).block(TIMEOUT);
+        var chunks = res.body().map(db -> {
+            byte[] bytes = new byte[db.readableByteCount()];
+            db.read(bytes);
+            DataBufferUtils.release(db);
+            return bytes;
+        }).collectList().block(TIMEOUT);
+
+        assertThat(chunks).hasSizeGreaterThan(1);
+        assertThat(chunks.stream().mapToInt(b -> b.length).sum()).isEqualTo(payload.length);
+    }
+
+    @Test
+    void head_returns_the_headers_and_an_empty_body() {
+        server.enqueue(new MockResponse().setHeader(HttpHeaders.CONTENT_LENGTH, "42").setHeader("ETag", "\"v1\""));
+
+        ForwardResponse res = client.exchange(new ForwardRequest(uri("/items/MLA1"), HttpMethod.HEAD,
+                new HttpHeaders(), (byte[]) null)).block(TIMEOUT);
+
+        assertThat(res.status()).isEqualTo(200);
+        assertThat(res.headers().getFirst("ETag")).isEqualTo("\"v1\"");
+        assertThat(res.body().collectList().block(TIMEOUT)).isEmpty();
+    }
+
+    @Test
+    void error_statuses_pass_through_with_headers_and_body() {
+        server.enqueue(new MockResponse().setResponseCode(503).setHeader("Retry-After", "3").setBody("down"));
+        server.enqueue(new MockResponse().setResponseCode(404).setBody("{\"error\":\"not_found\"}"));
+
+        ForwardResponse unavailable = client.exchange(get("/items/MLA1")).block(TIMEOUT);
+        ForwardResponse notFound = client.exchange(get("/items/MLA2")).block(TIMEOUT);
+
+        assertThat(unavailable.status()).isEqualTo(503);
+        assertThat(unavailable.headers().getFirst("Retry-After")).isEqualTo("3");
+        assertThat(body(unavailable)).isEqualTo("down");
+        assertThat(notFound.status()).isEqualTo(404);
+        assertThat(body(notFound)).isEqualTo("{\"error\":\"not_found\"}");
+    }
+
+    @Test
+    void discarded_bodies_give_the_connection_back_to_the_pool() throws InterruptedException {
+        server.enqueue(new MockResponse().setBody("x".repeat(64 * 1024)));
+        server.enqueue(new MockResponse().setBody("ok"));
+
+        client.exchange(get("/a")).block(TIMEOUT).discardBody().block(TIMEOUT);
+        assertThat(body(client.exchange(get("/b")).block(TIMEOUT))).isEqualTo("ok");
+
+        server.takeRequest(1, TimeUnit.SECONDS);
+        // Segunda request sobre la misma conexión
+        assertThat(server.takeRequest(1, TimeUnit.SECONDS).getSequenceNumber()).isEqualTo(1);
+    }
+
+    private ForwardRequest get(String path) {
+        return new ForwardRequest(uri(path), HttpMethod.GET, new HttpHeaders(), (byte[]) null);
+    }
+
+    private URI uri(String path) {
+        return server.url(path).uri();
+    }
+
+    private static String body(ForwardResponse res) {
+        return DataBufferUtils.join(res.body())
+                .map(db -> {
+                    String s = db.toString(StandardCharsets.UTF_8);
+                    DataBufferUtils.release(db);
+                    return s;
+                })
+                .block(TIMEOUT);
+    }
+}
@@ -0,0 +1,37 @@
+package com.mercadolibre.proxy.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProxyMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ProxyMetrics metrics = new ProxyMetrics(registry);
+
+    @Test
+    void cached_meters_keep_the_same_names_and_tags() {
+        metrics.recordRequest("GET");
+        metrics.recordRequest("GET");
+        metrics.recordRequest("PROPFIND");
+        metrics.recordResponse(200, Duration.ofMillis(5));
+        metrics.recordResponse(200, Duration.ofMillis(7));
+        metrics.recordResponse(503, Duration.ofMillis(1));
+        metrics.incrementRateLimitRejection();
+
+        assertThat(registry.get("proxy_requests_total").tag("method", "GET").counter().count()).isEqualTo(2);
+        assertThat(registry.get("proxy_requests_total").tag("method", "PROPFIND").counter().count()).isEqualTo(1);
+        assertThat(registry.get("proxy_responses_total").tags("status", "200", "status_class", "2xx").counter().count()).isEqualTo(2);
+        assertThat(registry.get("proxy_request_duration_seconds").tags("status", "503", "status_class", "5xx").timer().count()).isEqualTo(1);
+        assertThat(registry.get("proxy_rate_limit_rejections_total").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void status_meters_are_only_published_once_used() {
+        assertThat(registry.find("proxy_responses_total").counters()).isEmpty();
+        assertThat(registry.find("proxy_request_duration_seconds").timers()).isEmpty();
+    }
+}
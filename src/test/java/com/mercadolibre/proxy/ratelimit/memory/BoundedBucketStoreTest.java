@@ -0,0 +1,57 @@
+package com.mercadolibre.proxy.ratelimit.memory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedBucketStoreTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger created = new AtomicInteger();
+
+    @Test
+    void reuses_live_entries() {
+        var store = new BoundedBucketStore<Integer>(10, 1, clock::get);
+
+        Integer a = store.getOrCreate("a", 100, created::incrementAndGet);
+        clock.addAndGet(50);
+        Integer again = store.getOrCreate("a", 100, created::incrementAndGet);
+
+        assertThat(again).isEqualTo(a);
+        assertThat(created).hasValue(1);
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void evicts_least_recently_used_when_full() {
+        var store = new BoundedBucketStore<Integer>(2, 1, clock::get);
+
+        store.getOrCreate("a", 1_000, created::incrementAndGet);
+        store.getOrCreate("b", 1_000, created::incrementAndGet);
+        store.getOrCreate("a", 1_000, created::incrementAndGet); // "b" pasa a ser el menos usado
+        store.getOrCreate("c", 1_000, created::incrementAndGet);
+
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(store.evictions()).isEqualTo(1);
+        store.getOrCreate("a", 1_000, created::incrementAndGet);
+        assertThat(created).hasValue(3); // "a" sigue vivo
+    }
+
+    @Test
+    void idle_entries_expire_after_their_ttl() {
+        var store = new BoundedBucketStore<Integer>(10, 1, clock::get);
+
+        Integer first = store.getOrCreate("a", 100, created::incrementAndGet);
+        store.getOrCreate("b", 100, created::incrementAndGet);
+        clock.addAndGet(101);
+        Integer second = store.getOrCreate("a", 100, created::incrementAndGet);
+
+        assertThat(second).isNotEqualTo(first);
+        // "a" expiró al accederla y "b" en el barrido de la inserción
+        assertThat(store.expirations()).isEqualTo(2);
+        assertThat(store.size()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,22 @@
+package com.mercadolibre.proxy.ratelimit.memory;
+
+import com.mercadolibre.proxy.ratelimit.core.Algorithm;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PrimitiveRateLimiterBackendTest {
+
+    @Test
+    void capacities_beyond_the_packed_state_are_rejected_per_algorithm() {
+        assertThatCode(() -> PrimitiveRateLimiterBackend.checkCapacity(Algorithm.FIXED_WINDOW,
+                PrimitiveTokenBucketEngine.MAX_CAPACITY)).doesNotThrowAnyException();
+        assertThatThrownBy(() -> PrimitiveRateLimiterBackend.checkCapacity(Algorithm.FIXED_WINDOW,
+                PrimitiveTokenBucketEngine.MAX_CAPACITY + 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PrimitiveRateLimiterBackend.checkCapacity(Algorithm.SLIDING_WINDOW,
+                PrimitiveTokenBucketEngine.MAX_SLIDING_CAPACITY + 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatCode(() -> PrimitiveRateLimiterBackend.checkCapacity(Algorithm.GCRA, Integer.MAX_VALUE))
+                .doesNotThrowAnyException();
+    }
+}
@@ -0,0 +1,99 @@
+package com.mercadolibre.proxy.ratelimit.memory;
+
+import com.mercadolibre.proxy.ratelimit.core.KeyHash;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrimitiveTokenBucketEngineTest {
+
+    private static final long WINDOW = 1_000;
+    private static final long T0 = 1_700_000_000_000L;
+
+    private final PrimitiveTokenBucketEngine engine = new PrimitiveTokenBucketEngine(1024, 4, T0);
+    private final long key = KeyHash.hash("ip:1.2.3.4");
+
+    @Test
+    void fixed_window_refills_one_window_after_first_use() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(engine.tryConsume(key, 1, 10, WINDOW, T0)).isTrue();
+        }
+        assertThat(engine.tryConsume(key, 1, 10, WINDOW, T0 + 999)).isFalse();
+        assertThat(engine.tryConsume(key, 1, 10, WINDOW, T0 + 1_000)).isTrue();
+    }
+
+    @Test
+    void sliding_window_weights_previous_window() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(engine.tryConsumeSliding(key, 1, 10, WINDOW, T0 + 900)).isTrue();
+        }
+        // Recién abierta la ventana siguiente la anterior todavía pesa casi entera
+        assertThat(engine.tryConsumeSliding(key, 1, 10, WINDOW, T0 + 1_050)).isFalse();
+        // A mitad de ventana pesa 5: quedan 5 lugares
+        int allowed = 0;
+        for (int i = 0; i < 10; i++) {
+            if (engine.tryConsumeSliding(key, 1, 10, WINDOW, T0 + 1_500)) allowed++;
+        }
+        assertThat(allowed).isEqualTo(5);
+    }
+
+    @Test
+    void gcra_allows_burst_then_one_permit_per_emission_interval() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(engine.tryConsumeGcra(key, 1, 10, WINDOW, T0)).isTrue();
+        }
+        assertThat(engine.tryConsumeGcra(key, 1, 10, WINDOW, T0)).isFalse();
+        assertThat(engine.tryConsumeGcra(key, 1, 10, WINDOW, T0 + 99)).isFalse();
+        assertThat(engine.tryConsumeGcra(key, 1, 10, WINDOW, T0 + 100)).isTrue();
+        assertThat(engine.tryConsumeGcra(key, 1, 10, WINDOW, T0 + 100)).isFalse();
+    }
+
+    @Test
+    void replaced_slots_start_a_fresh_bucket_for_the_new_key() {
+        // Un solo stripe de 8 slots: todo el tramo de sondeo, la novena clave reemplaza a una
+        var small = new PrimitiveTokenBucketEngine(6, 1, T0);
+        for (int i = 0; i < 8; i++) {
+            long k = KeyHash.hash("ip:10.0.0." + i);
+            assertThat(small.tryConsume(k, 1, 1, WINDOW, T0)).isTrue();
+            assertThat(small.tryConsume(k, 1, 1, WINDOW, T0)).isFalse();
+        }
+
+        long newcomer = KeyHash.hash("ip:10.0.1.1");
+        assertThat(small.tryConsume(newcomer, 1, 1, WINDOW, T0)).isTrue();
+        assertThat(small.tryConsume(newcomer, 1, 1, WINDOW, T0)).isFalse();
+        assertThat(small.replacements()).isEqualTo(1);
+        assertThat(small.size()).isEqualTo(8);
+
+        // La clave desplazada vuelve con un bucket propio, no con el del recién llegado
+        int fresh = 0;
+        for (int i = 0; i < 8; i++) {
+            if (small.tryConsume(KeyHash.hash("ip:10.0.0." + i), 1, 1, WINDOW, T0)) fresh++;
+        }
+        assertThat(fresh).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    void concurrent_replacements_never_hand_a_key_another_keys_bucket() throws InterruptedException {
+        // Tabla mínima para que cada clave nueva reemplace a otra mientras los demás hilos consumen
+        var small = new PrimitiveTokenBucketEngine(6, 1, T0);
+        AtomicLong denied = new AtomicLong();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            final int id = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 200_000; i++) {
+                    // Claves que nunca se usaron: una denegación es consumo de un bucket ajeno
+                    if (!small.tryConsume(KeyHash.hash("k" + id + ":" + i), 1, 1, WINDOW, T0)) {
+                        denied.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) t.join();
+
+        assertThat(denied).hasValue(0);
+    }
+}
@@ -0,0 +1,63 @@
+package com.mercadolibre.proxy.ratelimit.redis;
+
+import com.mercadolibre.proxy.metrics.ProxyMetrics;
+import com.mercadolibre.proxy.ratelimit.core.ConsumeRequest;
+import com.mercadolibre.proxy.ratelimit.core.Limit;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchingRateLimiterBackendTest {
+
+    private final List<List<List<ConsumeRequest>>> calls = new ArrayList<>();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    // Bloquea los grupos cuya primera clave empieza con "deny"
+    private final RedisRateLimiterBackend fakeRedis = new RedisRateLimiterBackend(null) {
+        @Override
+        public Mono<List<Integer>> tryConsumeGroups(List<List<ConsumeRequest>> groups) {
+            synchronized (calls) {
+                calls.add(groups);
+            }
+            List<Integer> out = new ArrayList<>();
+            for (var g : groups) out.add(g.get(0).key().startsWith("deny") ? 0 : -1);
+            return Mono.just(out);
+        }
+    };
+
+    @Test
+    void full_batch_is_flushed_in_one_call_and_results_fanned_out() {
+        var backend = new BatchingRateLimiterBackend(fakeRedis, 3, Duration.ofSeconds(10),
+                Schedulers.parallel(), new ProxyMetrics(registry));
+        Limit limit = Limit.perMinute(10);
+
+        var a = backend.tryConsume("ok-a", 1, limit).toFuture();
+        var b = backend.tryConsume("deny-b", 1, limit).toFuture();
+        var c = backend.tryConsume("ok-c", 1, limit).toFuture();
+
+        assertThat(a.join()).isTrue();
+        assertThat(b.join()).isFalse();
+        assertThat(c.join()).isTrue();
+        assertThat(calls).hasSize(1);
+        assertThat(calls.get(0)).hasSize(3);
+        assertThat(registry.get("proxy_rate_limit_batch_size").summary().totalAmount()).isEqualTo(3);
+    }
+
+    @Test
+    void partial_batch_is_flushed_after_max_delay() {
+        var backend = new BatchingRateLimiterBackend(fakeRedis, 100, Duration.ofMillis(5),
+                Schedulers.parallel(), new ProxyMetrics(registry));
+
+        Boolean allowed = backend.tryConsume("ok", 1, Limit.perMinute(10)).block(Duration.ofSeconds(2));
+
+        assertThat(allowed).isTrue();
+        assertThat(calls).hasSize(1);
+    }
+}
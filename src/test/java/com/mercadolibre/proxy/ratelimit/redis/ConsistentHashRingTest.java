@@ -0,0 +1,60 @@
+package com.mercadolibre.proxy.ratelimit.redis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 100_000;
+
+    @Test
+    void keys_are_spread_evenly_across_nodes() {
+        var ring = new ConsistentHashRing<>(nodes(4), 160);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int k = 0; k < KEYS; k++) counts.merge(ring.node(key(k)), 1, Integer::sum);
+
+        assertThat(counts).hasSize(4);
+        assertThat(counts.values()).allSatisfy(c -> assertThat(c).isBetween(KEYS / 4 * 8 / 10, KEYS / 4 * 12 / 10));
+    }
+
+    @Test
+    void adding_a_node_only_moves_keys_to_the_new_node() {
+        var before = new ConsistentHashRing<>(nodes(4), 160);
+        var after = new ConsistentHashRing<>(nodes(5), 160);
+
+        int moved = 0;
+        for (int k = 0; k < KEYS; k++) {
+            String was = before.node(key(k));
+            String now = after.node(key(k));
+            if (!was.equals(now)) {
+                moved++;
+                assertThat(now).isEqualTo("redis-4:6379");
+            }
+        }
+        // Lo ideal es 1/5 de las claves
+        assertThat(moved).isBetween(KEYS * 15 / 100, KEYS * 25 / 100);
+    }
+
+    @Test
+    void same_key_always_maps_to_the_same_node() {
+        var a = new ConsistentHashRing<>(nodes(3), 160);
+        var b = new ConsistentHashRing<>(nodes(3), 160);
+        for (int k = 0; k < 1_000; k++) assertThat(a.node(key(k))).isEqualTo(b.node(key(k)));
+    }
+
+    private static Map<String, String> nodes(int n) {
+        Map<String, String> nodes = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) nodes.put("redis-" + i + ":6379", "redis-" + i + ":6379");
+        return nodes;
+    }
+
+    private static String key(int k) {
+        return "ip:10.0." + (k / 256) + "." + (k % 256);
+    }
+}
@@ -0,0 +1,137 @@
+package com.mercadolibre.proxy.ratelimit.redis;
+
+import com.mercadolibre.proxy.metrics.ProxyMetrics;
+import com.mercadolibre.proxy.ratelimit.core.ConsumeRequest;
+import com.mercadolibre.proxy.ratelimit.core.Limit;
+import com.mercadolibre.proxy.ratelimit.core.RateLimiterBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LeasingRateLimiterBackendTest {
+
+    private static final Limit HOT = Limit.perMinute(10_000);
+    private static final long MINUTE = 60_000;
+
+    private final AtomicLong clock = new AtomicLong(10 * MINUTE);
+    private final AtomicInteger leaseCalls = new AtomicInteger();
+    // Contador de Redis por "clave@ventana", con la semántica de los scripts LEASE y GIVE_BACK
+    private final Map<String, Long> windows = new ConcurrentHashMap<>();
+
+    private final RedisRateLimiterBackend fakeRedis = new RedisRateLimiterBackend(null) {
+        @Override
+        public Mono<Long> lease(String key, Limit limit, long windowStart, long ttlMs, long requested) {
+            leaseCalls.incrementAndGet();
+            long[] grant = new long[1];
+            windows.compute(key + "@" + windowStart, (k, used) -> {
+                long current = used == null ? 0 : used;
+                grant[0] = Math.max(0, Math.min(requested, limit.capacity() - current));
+                return current + grant[0];
+            });
+            return Mono.just(grant[0]);
+        }
+
+        @Override
+        public Mono<Long> giveBack(String key, long windowStart, long permits) {
+            windows.computeIfPresent(key + "@" + windowStart, (k, used) -> used - permits);
+            return Mono.just(permits);
+        }
+    };
+
+    private RateLimiterBackend delegate = (key, permits, limit) -> Mono.just(true);
+
+    private LeasingRateLimiterBackend backend(Duration idleReturn) {
+        return new LeasingRateLimiterBackend(fakeRedis, (key, permits, limit) -> delegate.tryConsume(key, permits, limit),
+                5_000, 0.01, Duration.ofMillis(200), idleReturn, VirtualTimeScheduler.create(),
+                new ProxyMetrics(new SimpleMeterRegistry()), clock::get);
+    }
+
+    @Test
+    void serves_permits_locally_from_adaptive_leases() {
+        var backend = backend(Duration.ofHours(1));
+
+        for (int i = 0; i < 50; i++) assertThat(backend.tryConsume("global", 1, HOT).block()).isTrue();
+
+        // Primer lote de 1 (sin tasa observada), después lotes de hasta tolerance × capacity = 100
+        assertThat(leaseCalls).hasValueLessThanOrEqualTo(3);
+        backend.close();
+        assertThat(used("global", 10 * MINUTE)).isEqualTo(50);
+    }
+
+    @Test
+    void keys_below_min_capacity_go_to_the_delegate() {
+        var backend = backend(Duration.ofHours(1));
+
+        assertThat(backend.tryConsume("ip:1.2.3.4", 1, Limit.perMinute(1_000)).block()).isTrue();
+
+        assertThat(leaseCalls).hasValue(0);
+    }
+
+    @Test
+    void a_new_window_starts_without_the_previous_permits() {
+        var backend = backend(Duration.ofHours(1));
+        for (int i = 0; i < 10; i++) backend.tryConsume("global", 1, HOT).block();
+
+        clock.addAndGet(MINUTE);
+        assertThat(backend.tryConsume("global", 1, HOT).block()).isTrue();
+        backend.close();
+
+        assertThat(used("global", 11 * MINUTE)).isEqualTo(1);
+    }
+
+    @Test
+    void permits_put_back_after_a_window_roll_are_not_credited_to_the_new_window() {
+        var backend = backend(Duration.ofHours(1));
+        // La regla remota deniega después de que otra request hizo rotar la ventana de "global"
+        delegate = (key, permits, limit) -> {
+            clock.addAndGet(MINUTE);
+            backend.tryConsume("global", 1, HOT).block();
+            return Mono.just(false);
+        };
+
+        Integer denied = backend.tryConsumeAll(List.of(
+                new ConsumeRequest("global", 1, HOT),
+                new ConsumeRequest("path:/blocked", 1, Limit.perMinute(10)))).block();
+        backend.close();
+
+        assertThat(denied).isEqualTo(1);
+        assertThat(used("global", 11 * MINUTE)).isEqualTo(1);
+    }
+
+    @Test
+    void idle_keys_give_back_unused_permits() throws InterruptedException {
+        var backend = backend(Duration.ofMillis(1));
+        for (int i = 0; i < 10; i++) backend.tryConsume("global", 1, HOT).block();
+        assertThat(used("global", 10 * MINUTE)).isGreaterThan(10);
+
+        Thread.sleep(5);
+        backend.sweep();
+
+        assertThat(used("global", 10 * MINUTE)).isEqualTo(10);
+    }
+
+    @Test
+    void exhausted_windows_are_denied_without_asking_redis_again() {
+        var backend = backend(Duration.ofHours(1));
+        windows.put("global@" + 10 * MINUTE, 10_000L);
+
+        assertThat(backend.tryConsume("global", 1, HOT).block()).isFalse();
+        assertThat(backend.tryConsume("global", 1, HOT).block()).isFalse();
+
+        assertThat(leaseCalls).hasValue(1);
+    }
+
+    private long used(String key, long windowStart) {
+        return windows.getOrDefault(key + "@" + windowStart, 0L);
+    }
+}
@@ -0,0 +1,105 @@
+package com.mercadolibre.proxy.ratelimit.redis;
+
+import com.mercadolibre.proxy.ratelimit.core.ConsumeRequest;
+import com.mercadolibre.proxy.ratelimit.core.Limit;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShardedRedisRateLimiterBackendTest {
+
+    private final Map<String, RedisShard> nodes = new LinkedHashMap<>();
+    private final ConsistentHashRing<RedisShard> ring;
+    private final Map<RedisShard, List<ConsumeRequest>> received = new LinkedHashMap<>();
+    private final Map<String, Integer> counts = new HashMap<>();
+    private RedisShard failing;
+
+    // Stand-in de Redis: un contador por clave con la misma semántica que el script (todo o nada
+    // por grupo dentro del shard) y el refund compensatorio
+    private final RedisRateLimiterBackend backend;
+
+    ShardedRedisRateLimiterBackendTest() {
+        for (int i = 0; i < 3; i++) nodes.put("redis-" + i + ":6379", new RedisShard("redis-" + i + ":6379", null));
+        ring = new ConsistentHashRing<>(nodes, 160);
+        backend = new RedisRateLimiterBackend(ring, null) {
+            @Override
+            Mono<List<Integer>> consumeOnShard(RedisShard shard, List<List<ConsumeRequest>> groups, long now) {
+                if (shard == failing) return Mono.error(new IllegalStateException("connection refused"));
+                synchronized (counts) {
+                    List<Integer> out = new ArrayList<>();
+                    for (var g : groups) {
+                        received.computeIfAbsent(shard, s -> new ArrayList<>()).addAll(g);
+                        int denied = -1;
+                        for (int i = 0; i < g.size() && denied < 0; i++) {
+                            var r = g.get(i);
+                            if (counts.getOrDefault(r.key(), 0) + r.permits() > r.limit().capacity()) denied = i;
+                        }
+                        if (denied < 0) g.forEach(r -> counts.merge(r.key(), r.permits(), Integer::sum));
+                        out.add(denied);
+                    }
+                    return Mono.just(out);
+                }
+            }
+
+            @Override
+            Mono<Long> refund(RedisShard shard, List<ConsumeRequest> requests, long now) {
+                synchronized (counts) {
+                    requests.forEach(r -> counts.merge(r.key(), -r.permits(), Integer::sum));
+                }
+                return Mono.just((long) requests.size());
+            }
+        };
+    }
+
+    @Test
+    void each_shard_only_receives_its_keys_and_the_first_denied_index_wins() {
+        Limit limit = Limit.perMinute(10);
+        List<ConsumeRequest> allowed = keys(20, limit);
+        List<ConsumeRequest> denied = new ArrayList<>(keys(20, limit));
+        denied.add(7, new ConsumeRequest("deny-a", 1, Limit.perMinute(0)));
+        denied.add(new ConsumeRequest("deny-b", 1, Limit.perMinute(0)));
+
+        List<Integer> result = backend.tryConsumeGroups(List.of(allowed, denied)).block();
+
+        assertThat(result).containsExactly(-1, 7);
+        assertThat(received.size()).isGreaterThan(1);
+        received.forEach((shard, requests) -> requests.forEach(r -> assertThat(ring.node(r.key())).isSameAs(shard)));
+    }
+
+    @Test
+    void a_denial_on_one_shard_gives_back_what_the_other_shards_granted() {
+        Limit limit = Limit.perMinute(10);
+        List<ConsumeRequest> group = new ArrayList<>(keys(20, limit));
+        group.add(new ConsumeRequest("path:/blocked", 1, Limit.perMinute(0)));
+
+        assertThat(backend.tryConsumeAll(group).block()).isEqualTo(20);
+
+        assertThat(received.size()).isGreaterThan(1);
+        assertThat(counts.values()).allMatch(c -> c == 0);
+    }
+
+    @Test
+    void a_failed_shard_gives_back_what_the_other_shards_granted() {
+        Limit limit = Limit.perMinute(10);
+        List<ConsumeRequest> group = keys(20, limit);
+        failing = ring.node(group.get(0).key());
+
+        assertThatThrownBy(() -> backend.tryConsumeAll(group).block()).hasMessageContaining("connection refused");
+
+        assertThat(counts.values()).allMatch(c -> c == 0);
+    }
+
+    private static List<ConsumeRequest> keys(int n, Limit limit) {
+        List<ConsumeRequest> out = new ArrayList<>();
+        for (int i = 0; i < n; i++) out.add(new ConsumeRequest("ip:10.0.0." + i, 1, limit));
+        return out;
+    }
+}
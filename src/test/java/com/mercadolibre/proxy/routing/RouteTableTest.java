@@ -0,0 +1,47 @@
+package com.mercadolibre.proxy.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RouteTableTest {
+
+    private final Upstream main = new Upstream(Upstream.DEFAULT, "https://api.example.com/");
+    private final Upstream search = new Upstream("search", "https://search.example.com");
+    private final Upstream catalog = new Upstream("catalog", "https://catalog.example.com/v2");
+
+    private final RouteTable table = new RouteTable(main, Map.of(
+            "/sites/MLA/search", search,
+            "/categories", catalog,
+            "/categories/MLA1051/attributes", search));
+
+    @Test
+    void resolves_longest_matching_prefix_or_default() {
+        assertThat(table.resolve("/sites/MLA/search")).isSameAs(search);
+        assertThat(table.resolve("/sites/MLA/search/x")).isSameAs(search);
+        assertThat(table.resolve("/sites/MLA")).isSameAs(main);
+        assertThat(table.resolve("/categories/MLA5725")).isSameAs(catalog);
+        assertThat(table.resolve("/categories/MLA1051/attributes")).isSameAs(search);
+        assertThat(table.resolve("/items/MLA1")).isSameAs(main);
+        assertThat(table.resolve("/")).isSameAs(main);
+        assertThat(table.upstreams()).containsOnlyKeys("default", "search", "catalog");
+    }
+
+    @Test
+    void builds_target_from_raw_path_and_query() {
+        assertThat(main.target("/items", "q=phone")).isEqualTo(URI.create("https://api.example.com/items?q=phone"));
+        assertThat(catalog.target("/categories/MLA5725", null))
+                .isEqualTo(URI.create("https://catalog.example.com/v2/categories/MLA5725"));
+    }
+
+    @Test
+    void rejects_same_prefix_for_two_upstreams() {
+        var other = new Upstream("search", "https://other.example.com");
+        assertThatThrownBy(() -> new RouteTable(main, Map.of("/a", search, "/b", other)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
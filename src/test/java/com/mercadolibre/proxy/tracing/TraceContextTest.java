@@ -0,0 +1,42 @@
+package com.mercadolibre.proxy.tracing;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TraceContextTest {
+
+    private static final String PARENT = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+
+    @Test
+    void continues_valid_traceparent_with_a_new_span_and_keeps_tracestate() {
+        TraceContext t = TraceContext.from(PARENT, "meli=abc");
+
+        assertThat(t.traceId()).isEqualTo("4bf92f3577b34da6a3ce929d0e0e4736");
+        assertThat(t.spanId()).hasSize(16).isNotEqualTo("00f067aa0ba902b7");
+        assertThat(t.traceparent()).startsWith("00-4bf92f3577b34da6a3ce929d0e0e4736-").endsWith("-01");
+        assertThat(t.tracestate()).isEqualTo("meli=abc");
+    }
+
+    @Test
+    void starts_new_trace_and_drops_tracestate_when_traceparent_is_invalid() {
+        for (String bad : new String[]{
+                null,
+                "00-4BF92F3577B34DA6A3CE929D0E0E4736-00f067aa0ba902b7-01",
+                "00-00000000000000000000000000000000-00f067aa0ba902b7-01",
+                "00-4bf92f3577b34da6a3ce929d0e0e4736-0000000000000000-01",
+                "ff-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01",
+                PARENT + "-extra"}) {
+            TraceContext t = TraceContext.from(bad, "meli=abc");
+            assertThat(TraceContext.valid(t.traceparent())).as(String.valueOf(bad)).isTrue();
+            assertThat(t.traceId()).isNotEqualTo("4bf92f3577b34da6a3ce929d0e0e4736");
+            assertThat(t.tracestate()).isNull();
+        }
+    }
+
+    @Test
+    void accepts_future_versions_with_extra_fields() {
+        TraceContext t = TraceContext.from("01-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01-ab", null);
+        assertThat(t.traceId()).isEqualTo("4bf92f3577b34da6a3ce929d0e0e4736");
+    }
+}
@@ -6,6 +6,7 @@ import com.mercadolibre.proxy.domain.ForwardRequest;
 import com.mercadolibre.proxy.domain.ForwardResponse;
 import com.mercadolibre.proxy.domain.RequestContext;
 import com.mercadolibre.proxy.metrics.ProxyMetrics;
+import com.mercadolibre.proxy.tracing.TraceContext;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,6 +17,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.HttpHeaders;
@@ -26,6 +28,7 @@ import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Mono;
 
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -57,7 +60,7 @@ class ProxyControllerTest {
         backendHeaders.add(HttpHeaders.CONNECTION, "keep-alive");
         backendHeaders.add(HttpHeaders.TRANSFER_ENCODING, "chunked");
 
-        when(headerPolicy.toBackend(any(HttpHeaders.class), any(String.class)))
+        when(headerPolicy.toBackend(any(HttpHeaders.class), any(String.class), any(String.class), any(TraceContext.class)))
                 .thenAnswer(inv -> new HttpHeaders());
 
         when(forwardingService.forward(any(ForwardRequest.class), any(RequestContext.class)))
@@ -114,6 +117,63 @@ class ProxyControllerTest {
                 .expectBody().isEmpty();
     }
 
+    @Test
+    void post_body_is_streamed_to_the_backend() {
+        when(forwardingService.forward(any(ForwardRequest.class), any(RequestContext.class)))
+                .thenAnswer(inv -> {
+                    ForwardRequest fr = inv.getArgument(0);
+                    return DataBufferUtils.join(fr.body()).map(db -> {
+                        String echoed = db.toString(StandardCharsets.UTF_8);
+                        DataBufferUtils.release(db);
+                        return new ForwardResponse(201, new HttpHeaders(), echoed.getBytes(StandardCharsets.UTF_8));
+                    });
+                });
+
+        client.post().uri("/items")
+                .bodyValue("{\"title\":\"phone\"}")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(String.class).isEqualTo("{\"title\":\"phone\"}");
+    }
+
+    @Test
+    void get_without_body_is_forwarded_without_one() {
+        client.get().uri("/items/MLA1").exchange().expectStatus().isOk();
+
+        ArgumentCaptor<ForwardRequest> captor = ArgumentCaptor.forClass(ForwardRequest.class);
+        Mockito.verify(forwardingService).forward(captor.capture(), any(RequestContext.class));
+        assertThat(captor.getValue().hasBody()).isFalse();
+    }
+
+    @Test
+    void backend_error_statuses_pass_through_with_their_body() {
+        when(forwardingService.forward(any(ForwardRequest.class), any(RequestContext.class)))
+                .thenReturn(Mono.just(new ForwardResponse(503, new HttpHeaders(), "down".getBytes())));
+
+        client.get().uri("/items/MLA1")
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectBody(String.class).isEqualTo("down");
+    }
+
+    @Test
+    void requests_sharing_a_traceparent_get_their_own_request_id() {
+        String traceId = "4bf92f3577b34da6a3ce929d0e0e4736";
+        for (int i = 0; i < 2; i++) {
+            client.get().uri("/items/MLA1")
+                    .header(TraceContext.TRACEPARENT, "00-" + traceId + "-00f067aa0ba902b7-01")
+                    .exchange()
+                    .expectStatus().isOk();
+        }
+
+        ArgumentCaptor<RequestContext> captor = ArgumentCaptor.forClass(RequestContext.class);
+        Mockito.verify(forwardingService, Mockito.times(2)).forward(any(ForwardRequest.class), captor.capture());
+        var first = captor.getAllValues().get(0);
+        var second = captor.getAllValues().get(1);
+        assertThat(first.traceId()).isEqualTo(traceId).isEqualTo(second.traceId());
+        assertThat(first.reqId()).isNotEqualTo(second.reqId()).isNotEqualTo(traceId);
+    }
+
     @TestConfiguration
     static class TestConfig {
         @Bean
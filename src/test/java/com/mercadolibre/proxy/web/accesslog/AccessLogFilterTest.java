@@ -0,0 +1,92 @@
+package com.mercadolibre.proxy.web.accesslog;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class AccessLogFilterTest {
+
+    private final List<AccessLogRecord> records = new CopyOnWriteArrayList<>();
+    private final AccessLogWriter writer = new AccessLogWriter(16, false) {
+        @Override
+        boolean submit(AccessLogRecord r) {
+            records.add(r);
+            return true;
+        }
+    };
+    // Sólo 4xx y 5xx, como para ver qué status se decidió
+    private final AccessLogFilter filter = new AccessLogFilter(writer, new AccessLogSampler(0, 0, 0, 1.0, 1.0, 0), false);
+
+    @AfterEach
+    void close() throws InterruptedException {
+        writer.close();
+    }
+
+    @Test
+    void upstream_transport_errors_are_logged_as_500() {
+        WebFilterChain chain = ex -> Mono.error(new IOException("Connection reset by peer"));
+
+        catchThrowable(() -> filter.filter(exchange(), chain).block());
+
+        assertThat(records).singleElement().extracting(AccessLogRecord::status).isEqualTo(500);
+    }
+
+    @Test
+    void errors_carrying_a_status_keep_it() {
+        WebFilterChain chain = ex -> Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND));
+
+        catchThrowable(() -> filter.filter(exchange(), chain).block());
+
+        assertThat(records).singleElement().extracting(AccessLogRecord::status).isEqualTo(404);
+    }
+
+    @Test
+    void rate_limited_requests_are_logged_as_429() {
+        WebFilterChain chain = ex -> {
+            ex.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+            return ex.getResponse().setComplete();
+        };
+
+        filter.filter(exchange(), chain).block();
+
+        assertThat(records).singleElement().satisfies(r -> {
+            assertThat(r.status()).isEqualTo(429);
+            assertThat(r.path()).isEqualTo("/items/MLA1");
+            assertThat(r.responseBytes()).isZero();
+        });
+    }
+
+    @Test
+    void requests_cancelled_by_the_client_are_logged_as_499() {
+        Disposable subscription = filter.filter(exchange(), ex -> Mono.never()).subscribe();
+
+        subscription.dispose();
+
+        assertThat(records).singleElement().extracting(AccessLogRecord::status)
+                .isEqualTo(AccessLogFilter.CLIENT_CLOSED_REQUEST);
+    }
+
+    @Test
+    void successful_requests_follow_the_2xx_rate() {
+        filter.filter(exchange(), ex -> ex.getResponse().setComplete()).block();
+
+        assertThat(records).isEmpty();
+    }
+
+    private static MockServerWebExchange exchange() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/items/MLA1").header("X-Request-Id", "r1").build());
+    }
+}
@@ -0,0 +1,41 @@
+package com.mercadolibre.proxy.web.accesslog;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccessLogSamplerTest {
+
+    private static final long SLOW = 1_000_000_000L;
+
+    private final AccessLogSampler sampler = new AccessLogSampler(0, 0, 0, 0.5, 1.0, SLOW);
+
+    @Test
+    void server_errors_are_always_logged_and_zero_rate_classes_never() {
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(sampler.sample(500, 1_000)).isTrue();
+            assertThat(sampler.sample(200, 1_000)).isFalse();
+        }
+    }
+
+    @Test
+    void slow_requests_are_logged_whatever_their_status() {
+        assertThat(sampler.sample(200, SLOW)).isTrue();
+        assertThat(sampler.sample(304, SLOW + 1)).isTrue();
+    }
+
+    @Test
+    void partial_rates_sample_roughly_that_fraction() {
+        int logged = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (sampler.sample(429, 1_000)) logged++;
+        }
+        assertThat(logged).isBetween(4_500, 5_500);
+    }
+
+    @Test
+    void client_closed_requests_count_as_client_errors() {
+        var only4xx = new AccessLogSampler(0, 0, 0, 1.0, 0, 0);
+        assertThat(only4xx.sample(AccessLogFilter.CLIENT_CLOSED_REQUEST, 1_000)).isTrue();
+    }
+}
@@ -0,0 +1,52 @@
+package com.mercadolibre.proxy.web.accesslog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MpscRingTest {
+
+    @Test
+    void drops_and_counts_when_full_then_accepts_again_after_poll() {
+        MpscRing<Integer> ring = new MpscRing<>(4);
+        for (int i = 0; i < 4; i++) assertThat(ring.offer(i)).isTrue();
+        assertThat(ring.offer(99)).isFalse();
+        assertThat(ring.dropped()).isEqualTo(1);
+
+        assertThat(ring.poll()).isEqualTo(0);
+        assertThat(ring.offer(4)).isTrue();
+        for (int i = 1; i <= 4; i++) assertThat(ring.poll()).isEqualTo(i);
+        assertThat(ring.poll()).isNull();
+    }
+
+    @Test
+    void concurrent_producers_lose_nothing_that_was_accepted() throws Exception {
+        int producers = 4, perProducer = 10_000;
+        MpscRing<Integer> ring = new MpscRing<>(1024);
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            threads[p] = new Thread(() -> {
+                try { start.await(); } catch (InterruptedException e) { return; }
+                for (int i = 0; i < perProducer; i++) {
+                    while (!ring.offer(base + i)) Thread.onSpinWait();
+                }
+            });
+            threads[p].start();
+        }
+        start.countDown();
+
+        Set<Integer> seen = new HashSet<>();
+        while (seen.size() < producers * perProducer) {
+            Integer v = ring.poll();
+            if (v != null) assertThat(seen.add(v)).isTrue();
+        }
+        for (Thread t : threads) t.join();
+        assertThat(ring.poll()).isNull();
+    }
+}
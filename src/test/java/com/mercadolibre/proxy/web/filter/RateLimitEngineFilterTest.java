@@ -1,8 +1,14 @@
 package com.mercadolibre.proxy.web.filter;
 
 import com.mercadolibre.proxy.metrics.ProxyMetrics;
+import com.mercadolibre.proxy.ratelimit.core.Condition;
+import com.mercadolibre.proxy.ratelimit.core.ConsumeRequest;
 import com.mercadolibre.proxy.ratelimit.core.Decision;
+import com.mercadolibre.proxy.ratelimit.core.KeyGenerator;
+import com.mercadolibre.proxy.ratelimit.core.Limit;
 import com.mercadolibre.proxy.ratelimit.core.RateLimitRule;
+import com.mercadolibre.proxy.ratelimit.core.RateLimiterBackend;
+import com.mercadolibre.proxy.ratelimit.core.RuleBuilder;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpMethod;
@@ -12,6 +18,7 @@ import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -69,4 +76,39 @@ class RateLimitEngineFilterTest {
         assertThat(chainCalled).isTrue();
         assertThat(exchange.getResponse().getStatusCode()).isNull();
     }
+
+    @Test
+    void keyed_rules_on_same_backend_are_consumed_in_a_single_batch() {
+        List<List<ConsumeRequest>> calls = new ArrayList<>();
+        RateLimiterBackend backend = new RateLimiterBackend() {
+            @Override
+            public Mono<Boolean> tryConsume(String key, int permits, Limit limit) {
+                throw new AssertionError("tryConsume should not be called");
+            }
+
+            @Override
+            public Mono<Integer> tryConsumeAll(List<ConsumeRequest> requests) {
+                calls.add(requests);
+                return Mono.just(1); // bloquea la segunda
+            }
+        };
+        RateLimitRule ip = RuleBuilder.named("ip").key(KeyGenerator.constant("1.2.3.4"))
+                .limit(Limit.perMinute(10)).backend(backend).build();
+        RateLimitRule items = RuleBuilder.named("items").when(Condition.pathStartsWith("/items"))
+                .key(KeyGenerator.constant("items")).limit(Limit.perMinute(5)).backend(backend).build();
+        RateLimitRule other = RuleBuilder.named("other").when(Condition.pathStartsWith("/other"))
+                .backend(backend).build();
+        RateLimitEngineFilter filter = new RateLimitEngineFilter(List.of(ip, items, other), new ProxyMetrics(new SimpleMeterRegistry()));
+
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/items/MLA1").build());
+        AtomicBoolean chainCalled = new AtomicBoolean(false);
+        WebFilterChain chain = ex -> { chainCalled.set(true); return Mono.empty(); };
+
+        filter.filter(exchange, chain).block();
+
+        assertThat(calls).hasSize(1);
+        assertThat(calls.get(0)).extracting(ConsumeRequest::key).containsExactly("ip:1.2.3.4", "items:items");
+        assertThat(chainCalled).isFalse();
+        assertThat(exchange.getResponse().getStatusCode().value()).isEqualTo(429);
+    }
 }
@@ -0,0 +1,59 @@
+package com.mercadolibre.proxy.web.filter;
+
+import com.mercadolibre.proxy.ratelimit.core.Condition;
+import com.mercadolibre.proxy.ratelimit.core.Decision;
+import com.mercadolibre.proxy.ratelimit.core.RateLimitRule;
+import com.mercadolibre.proxy.ratelimit.core.RateLimiterBackend;
+import com.mercadolibre.proxy.ratelimit.core.RuleBuilder;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RuleIndexTest {
+
+    private final RateLimiterBackend backend = (key, permits, limit) -> Mono.just(true);
+
+    private final RateLimitRule global = RuleBuilder.named("global").backend(backend).build();
+    private final RateLimitRule items = RuleBuilder.named("items")
+            .when(Condition.pathStartsWith("/items")).backend(backend).build();
+    private final RateLimitRule itemsPost = RuleBuilder.named("items_post")
+            .when(Condition.pathMatches("/items/**").and(Condition.methodIs(HttpMethod.POST))).backend(backend).build();
+    private final RateLimitRule secure = RuleBuilder.named("secure")
+            .when(Condition.hasHeader("X-Api-Token").and(Condition.pathStartsWith("/secure"))).backend(backend).build();
+    private final RateLimitRule custom = ex -> Mono.just(Decision.allow());
+
+    private final RuleIndex index = new RuleIndex(List.of(global, items, itemsPost, secure, custom));
+
+    @Test
+    void returns_only_rules_whose_prefix_and_method_can_match_in_declaration_order() {
+        assertThat(index.candidates(HttpMethod.GET, "/items/MLA1")).containsExactly(global, items, custom);
+        assertThat(index.candidates(HttpMethod.POST, "/items/MLA1")).containsExactly(global, items, itemsPost, custom);
+        assertThat(index.candidates(HttpMethod.POST, "/items")).containsExactly(global, items, itemsPost, custom);
+        assertThat(index.candidates(HttpMethod.GET, "/secure/x")).containsExactly(global, secure, custom);
+        assertThat(index.candidates(HttpMethod.GET, "/categories")).containsExactly(global, custom);
+    }
+
+    @Test
+    void disjoint_conditions_are_never_candidates() {
+        RateLimitRule never = RuleBuilder.named("never")
+                .when(Condition.pathStartsWith("/a").and(Condition.pathStartsWith("/b"))).backend(backend).build();
+
+        assertThat(new RuleIndex(List.of(never)).candidates(HttpMethod.GET, "/a/b")).isEmpty();
+    }
+
+    @Test
+    void handles_more_rules_than_one_bitmap_word() {
+        List<RateLimitRule> many = new ArrayList<>();
+        for (int i = 0; i < 130; i++) {
+            many.add(RuleBuilder.named("r" + i).when(Condition.pathStartsWith("/svc" + i)).backend(backend).build());
+        }
+        RuleIndex big = new RuleIndex(many);
+
+        assertThat(big.candidates(HttpMethod.GET, "/svc129/x")).containsExactly(many.get(1), many.get(12), many.get(129));
+    }
+}